@@ -0,0 +1,218 @@
+package com.github.xcfyl.drpc.core.client;
+
+import com.github.xcfyl.drpc.core.common.enums.DrpcCircuitBreakerState;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 某个服务提供者的熔断器，使用最近windowSize次调用组成的滑动窗口统计错误率和慢调用比例
+ * <p>
+ * CLOSED：窗口内的调用数达到minimumCalls之后，错误率或者慢调用比例超过阈值则进入OPEN
+ * OPEN：拒绝所有请求，openDuration之后第一个请求将熔断器切换为HALF_OPEN
+ * HALF_OPEN：最多放行halfOpenCalls个探测请求，探测结果仍然超过阈值则重新进入OPEN，否则恢复为CLOSED
+ * <p>
+ * 调用以异常结束（超时、连接关闭等）计为错误，服务方法抛出的业务异常和没有发出的请求不计入
+ *
+ * @author 西城风雨楼
+ */
+public class DrpcCircuitBreaker {
+    private static final Logger logger = LoggerFactory.getLogger(DrpcCircuitBreaker.class);
+
+    private final String address;
+    private final int windowSize;
+    private final int minimumCalls;
+    private final int failureRateThreshold;
+    private final int slowCallRateThreshold;
+    private final long slowCallDurationNanos;
+    private final long openDurationNanos;
+    private final int halfOpenCalls;
+
+    /**
+     * 滑动窗口，每个元素记录一次调用的结果
+     */
+    private final byte[] window;
+    private int windowIndex;
+    private int windowCount;
+    private int failureCount;
+    private int slowCallCount;
+
+    private volatile DrpcCircuitBreakerState state = DrpcCircuitBreakerState.CLOSED;
+    private volatile long openedTime;
+    /**
+     * 半开状态下已经放行的探测请求数
+     */
+    private int halfOpenPermitted;
+
+    private static final byte SUCCESS = 0;
+    private static final byte FAILURE = 1;
+    private static final byte SLOW = 2;
+
+    public DrpcCircuitBreaker(String address, int windowSize, int minimumCalls, int failureRateThreshold,
+                              int slowCallRateThreshold, long slowCallDuration, long openDuration, int halfOpenCalls) {
+        this.address = address;
+        this.windowSize = Math.max(windowSize, 1);
+        this.minimumCalls = Math.max(Math.min(minimumCalls, this.windowSize), 1);
+        this.failureRateThreshold = failureRateThreshold;
+        this.slowCallRateThreshold = slowCallRateThreshold;
+        this.slowCallDurationNanos = TimeUnit.MILLISECONDS.toNanos(slowCallDuration);
+        this.openDurationNanos = TimeUnit.MILLISECONDS.toNanos(openDuration);
+        this.halfOpenCalls = Math.max(halfOpenCalls, 1);
+        this.window = new byte[this.windowSize];
+    }
+
+    /**
+     * 判断当前是否可能放行请求，不改变熔断器的状态，供路由筛选连接使用
+     *
+     * @return
+     */
+    public boolean isCallPermitted() {
+        DrpcCircuitBreakerState current = state;
+        if (current == DrpcCircuitBreakerState.CLOSED) {
+            return true;
+        }
+        if (current == DrpcCircuitBreakerState.OPEN) {
+            return System.nanoTime() - openedTime >= openDurationNanos;
+        }
+        synchronized (this) {
+            return halfOpenPermitted < halfOpenCalls;
+        }
+    }
+
+    /**
+     * 申请发送一个请求，放行之后必须调用onComplete记录结果
+     *
+     * @return 熔断器拒绝请求时返回false
+     */
+    public boolean tryAcquirePermission() {
+        if (state == DrpcCircuitBreakerState.CLOSED) {
+            return true;
+        }
+        synchronized (this) {
+            if (state == DrpcCircuitBreakerState.OPEN) {
+                if (System.nanoTime() - openedTime < openDurationNanos) {
+                    return false;
+                }
+                transitionTo(DrpcCircuitBreakerState.HALF_OPEN);
+            }
+            if (state == DrpcCircuitBreakerState.HALF_OPEN) {
+                if (halfOpenPermitted >= halfOpenCalls) {
+                    return false;
+                }
+                halfOpenPermitted++;
+            }
+            return true;
+        }
+    }
+
+    /**
+     * 放行的请求没有真正发给服务提供者（例如本地编码失败），归还许可，不记录结果
+     */
+    public synchronized void releasePermission() {
+        if (state == DrpcCircuitBreakerState.HALF_OPEN && halfOpenPermitted > 0) {
+            halfOpenPermitted--;
+        }
+    }
+
+    /**
+     * 记录一次调用的结果
+     *
+     * @param durationNanos 调用耗时，单位纳秒
+     * @param success       调用是否正常结束
+     */
+    public synchronized void onComplete(long durationNanos, boolean success) {
+        if (state == DrpcCircuitBreakerState.OPEN) {
+            // 熔断之前发出的请求，结果不再统计
+            return;
+        }
+        byte result = success ? (durationNanos >= slowCallDurationNanos ? SLOW : SUCCESS) : FAILURE;
+        if (windowCount == windowSize) {
+            remove(window[windowIndex]);
+        } else {
+            windowCount++;
+        }
+        window[windowIndex] = result;
+        windowIndex = (windowIndex + 1) % windowSize;
+        if (result == FAILURE) {
+            failureCount++;
+        } else if (result == SLOW) {
+            slowCallCount++;
+        }
+
+        if (state == DrpcCircuitBreakerState.HALF_OPEN) {
+            if (windowCount >= halfOpenCalls) {
+                transitionTo(isOverThreshold() ? DrpcCircuitBreakerState.OPEN : DrpcCircuitBreakerState.CLOSED);
+            }
+        } else if (windowCount >= minimumCalls && isOverThreshold()) {
+            transitionTo(DrpcCircuitBreakerState.OPEN);
+        }
+    }
+
+    private void remove(byte result) {
+        if (result == FAILURE) {
+            failureCount--;
+        } else if (result == SLOW) {
+            slowCallCount--;
+        }
+    }
+
+    private boolean isOverThreshold() {
+        return failureCount * 100 >= failureRateThreshold * windowCount
+                || slowCallCount * 100 >= slowCallRateThreshold * windowCount;
+    }
+
+    private void transitionTo(DrpcCircuitBreakerState newState) {
+        DrpcCircuitBreakerState oldState = state;
+        if (newState == DrpcCircuitBreakerState.OPEN) {
+            openedTime = System.nanoTime();
+            logger.error("circuit breaker of {} opened, failure rate {}%, slow call rate {}%",
+                    address, getFailureRate(), getSlowCallRate());
+        } else if (logger.isDebugEnabled()) {
+            logger.debug("circuit breaker of {} changed from {} to {}", address, oldState, newState);
+        }
+        // 每次切换状态都重新开始统计
+        windowIndex = 0;
+        windowCount = 0;
+        failureCount = 0;
+        slowCallCount = 0;
+        halfOpenPermitted = 0;
+        state = newState;
+    }
+
+    public DrpcCircuitBreakerState getState() {
+        return state;
+    }
+
+    /**
+     * 当前窗口内的错误率，单位百分比
+     *
+     * @return
+     */
+    public synchronized float getFailureRate() {
+        return windowCount == 0 ? 0 : failureCount * 100f / windowCount;
+    }
+
+    /**
+     * 当前窗口内的慢调用比例，单位百分比
+     *
+     * @return
+     */
+    public synchronized float getSlowCallRate() {
+        return windowCount == 0 ? 0 : slowCallCount * 100f / windowCount;
+    }
+
+    public String getAddress() {
+        return address;
+    }
+
+    @Override
+    public String toString() {
+        return "DrpcCircuitBreaker{" +
+                "address='" + address + '\'' +
+                ", state=" + state +
+                ", failureRate=" + getFailureRate() +
+                ", slowCallRate=" + getSlowCallRate() +
+                '}';
+    }
+}
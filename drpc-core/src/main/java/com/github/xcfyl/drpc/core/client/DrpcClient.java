@@ -1,11 +1,13 @@
 package com.github.xcfyl.drpc.core.client;
 
+import com.github.xcfyl.drpc.core.cluster.DrpcRetryBudget;
 import com.github.xcfyl.drpc.core.common.config.DrpcConfigLoader;
 import com.github.xcfyl.drpc.core.common.enums.DrpcAttributeName;
 import com.github.xcfyl.drpc.core.common.factory.DrpcProxyFactory;
 import com.github.xcfyl.drpc.core.common.factory.DrpcRegistryFactory;
 import com.github.xcfyl.drpc.core.common.factory.DrpcRouterFactory;
 import com.github.xcfyl.drpc.core.common.factory.DrpcSerializerFactory;
+import com.github.xcfyl.drpc.core.common.factory.DrpcTransportFactory;
 import com.github.xcfyl.drpc.core.common.retry.RetryUtils;
 import com.github.xcfyl.drpc.core.common.utils.DrpcCommonUtils;
 import com.github.xcfyl.drpc.core.exception.DrpcClientException;
@@ -19,15 +21,26 @@ import com.github.xcfyl.drpc.core.pubsub.listener.DrpcServiceChangeEventListener
 import com.github.xcfyl.drpc.core.registry.DrpcConsumerData;
 import com.github.xcfyl.drpc.core.registry.DrpcProviderData;
 import com.github.xcfyl.drpc.core.registry.DrpcRegistry;
+import com.github.xcfyl.drpc.core.transport.DrpcHeartbeatHandler;
+import com.github.xcfyl.drpc.core.transport.DrpcTransport;
+import com.github.xcfyl.drpc.core.transport.DrpcWriteBatcher;
 import io.netty.bootstrap.Bootstrap;
 import io.netty.channel.ChannelInitializer;
-import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.ChannelOption;
+import io.netty.channel.WriteBufferWaterMark;
 import io.netty.channel.socket.SocketChannel;
-import io.netty.channel.socket.nio.NioSocketChannel;
+import io.netty.handler.timeout.IdleStateHandler;
+import io.netty.util.concurrent.DefaultThreadFactory;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * rpc客户端
@@ -61,12 +74,25 @@ public class DrpcClient {
         // 设置连接处理器
         DrpcConnectionManager connectionManager = new DrpcConnectionManager(createBootstrap());
         connectionManager.setRetryConnectTimes(config.getReconnectTimes());
-        connectionManager.setRetryConnectInterval(connectionManager.getRetryConnectInterval());
+        connectionManager.setRetryConnectInterval(config.getReconnectInterval());
+        connectionManager.setPoolMinConnections(config.getPoolMinConnections());
+        connectionManager.setPoolMaxConnections(config.getPoolMaxConnections());
+        connectionManager.setPoolMaxInFlight(config.getPoolMaxInFlight());
+        connectionManager.setPoolIdleTimeout(config.getPoolIdleTimeout());
+        connectionManager.setClientConfig(config);
         context.setConnectionManager(connectionManager);
         // 创建路由对象
         context.setRouter(DrpcRouterFactory.createRpcRouter(config.getRouterType(), context.getConnectionManager()));
         // 创建同步请求对象
         context.setResponseGuardedObject(new DrpcResponseGuardedObject());
+        // 创建所有连接共享的响应处理线程池
+        context.setResponseExecutor(new ThreadPoolExecutor(8, 16,
+                30, TimeUnit.MINUTES,
+                new ArrayBlockingQueue<>(3000),
+                new DefaultThreadFactory("drpc-client-response", true),
+                new ThreadPoolExecutor.CallerRunsPolicy()));
+        // 创建重试预算
+        context.setRetryBudget(new DrpcRetryBudget(config.getRetryBudgetRatio(), config.getRetryBudgetCapacity()));
         // 注册客户端的事件监听器
         registerClientEventListener();
     }
@@ -102,13 +128,31 @@ public class DrpcClient {
         DrpcConsumerData registryData = getConsumerRegistryData(serviceName);
         registry.subscribe(registryData);
         DrpcConnectionManager connectionManager = context.getConnectionManager();
+        // 并行连接所有的服务提供者
+        List<CompletableFuture<DrpcConnectionPool>> connectFutures = new ArrayList<>(providers.size());
         for (DrpcProviderData providerData : providers) {
-            String ip = providerData.getIp();
-            Integer port = providerData.getPort();
-            connectionManager.connect(serviceName, ip, port);
+            connectFutures.add(connectionManager.connect(serviceName, providerData));
         }
-        // 连接完成之后，应该刷新路由
+        // 先刷新路由，连接建立成功之后立即可以被选中
         context.getRouter().refresh(serviceName);
+        // 只要有一个服务提供者连接成功就可以开始调用，其余的连接在后台继续建立，可用之后由路由自动选中
+        CompletableFuture<DrpcConnectionPool> firstConnected = new CompletableFuture<>();
+        AtomicInteger failedCount = new AtomicInteger();
+        for (CompletableFuture<DrpcConnectionPool> connectFuture : connectFutures) {
+            connectFuture.whenComplete((connectionPool, throwable) -> {
+                if (throwable == null) {
+                    firstConnected.complete(connectionPool);
+                } else if (failedCount.incrementAndGet() == connectFutures.size()) {
+                    firstConnected.completeExceptionally(throwable);
+                }
+            });
+        }
+        try {
+            firstConnected.join();
+        } catch (Exception e) {
+            logger.error("subscribe service {} failure, no provider connected, exception is {}", serviceName, e.getMessage());
+            throw new DrpcClientException("subscribe service failure, no provider connected!");
+        }
     }
 
     public void addFilter(DrpcClientFilter filter) {
@@ -140,16 +184,39 @@ public class DrpcClient {
     }
 
     private Bootstrap createBootstrap() {
-        return new Bootstrap()
-                .group(new NioEventLoopGroup())
-                .channel(NioSocketChannel.class)
-                .handler(new ChannelInitializer<SocketChannel>() {
-                    @Override
-                    protected void initChannel(SocketChannel channel) throws Exception {
-                        channel.pipeline().addLast(new DrpcTransferProtocolEncoder());
-                        channel.pipeline().addLast(new DrpcTransferProtocolDecoder());
-                        channel.pipeline().addLast(new DrpcClientHandler(context));
-                    }
-                });
+        DrpcClientConfig config = context.getClientConfig();
+        DrpcHeartbeatHandler heartbeatHandler = new DrpcHeartbeatHandler(true);
+        DrpcTransport transport = DrpcTransportFactory.createTransport(config.getTransportType());
+        Bootstrap bootstrap = new Bootstrap()
+                .group(transport.createEventLoopGroup(config.getIoThreads(), "drpc-client-io"))
+                .channel(transport.getChannelClass())
+                .option(ChannelOption.TCP_NODELAY, true)
+                .option(ChannelOption.SO_KEEPALIVE, true)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, config.getConnectTimeout())
+                .option(ChannelOption.WRITE_BUFFER_WATER_MARK, new WriteBufferWaterMark(
+                        config.getWriteBufferLowWaterMark(), config.getWriteBufferHighWaterMark()));
+        if (config.getSendBufferSize() > 0) {
+            bootstrap.option(ChannelOption.SO_SNDBUF, config.getSendBufferSize());
+        }
+        if (config.getReceiveBufferSize() > 0) {
+            bootstrap.option(ChannelOption.SO_RCVBUF, config.getReceiveBufferSize());
+        }
+        transport.configure(bootstrap);
+        return bootstrap.handler(new ChannelInitializer<SocketChannel>() {
+            @Override
+            protected void initChannel(SocketChannel channel) throws Exception {
+                if (config.getHeartbeatInterval() > 0 || config.getHeartbeatTimeout() > 0) {
+                    channel.pipeline().addLast(new IdleStateHandler(config.getHeartbeatTimeout(),
+                            config.getHeartbeatInterval(), 0, TimeUnit.MILLISECONDS));
+                }
+                channel.pipeline().addLast(new DrpcTransferProtocolEncoder(config.getMaxRequestLength()));
+                channel.pipeline().addLast(new DrpcTransferProtocolDecoder(config.getMaxRequestLength()));
+                channel.pipeline().addLast(heartbeatHandler);
+                channel.pipeline().addLast(new DrpcClientHandler(context));
+                if (Boolean.TRUE.equals(config.getFlushConsolidation())) {
+                    DrpcWriteBatcher.install(channel, config.getFlushMaxMessages());
+                }
+            }
+        });
     }
 }
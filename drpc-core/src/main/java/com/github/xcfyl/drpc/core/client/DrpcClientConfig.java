@@ -1,9 +1,12 @@
 package com.github.xcfyl.drpc.core.client;
 
+import com.github.xcfyl.drpc.core.common.enums.DrpcClusterType;
+import com.github.xcfyl.drpc.core.common.enums.DrpcCompressType;
 import com.github.xcfyl.drpc.core.common.enums.DrpcProxyType;
 import com.github.xcfyl.drpc.core.common.enums.DrpcRegistryType;
 import com.github.xcfyl.drpc.core.common.enums.DrpcRouterType;
 import com.github.xcfyl.drpc.core.common.enums.DrpcSerializeType;
+import com.github.xcfyl.drpc.core.common.enums.DrpcTransportType;
 import lombok.Data;
 import lombok.ToString;
 
@@ -19,7 +22,7 @@ public class DrpcClientConfig {
      */
     private String applicationName;
     /**
-     * 最大请求长度
+     * 一个协议帧中body的最大长度，收发两个方向都会检查，收到超过该长度的帧时关闭连接
      */
     private Integer maxRequestLength;
     /**
@@ -70,6 +73,142 @@ public class DrpcClientConfig {
      * 重新连接的间隔
      */
     private Long reconnectInterval;
+    /**
+     * 发送的请求帧是否携带校验和
+     */
+    private Boolean protocolChecksum;
+    /**
+     * 是否合并请求的flush
+     */
+    private Boolean flushConsolidation;
+    /**
+     * 合并flush时，每次flush最多包含的消息数
+     */
+    private Integer flushMaxMessages;
+    /**
+     * 每个服务提供者至少保持的连接数
+     */
+    private Integer poolMinConnections;
+    /**
+     * 每个服务提供者最多建立的连接数
+     */
+    private Integer poolMaxConnections;
+    /**
+     * 每个连接上最多同时未完成的请求数，0表示不限制
+     */
+    private Integer poolMaxInFlight;
+    /**
+     * 超过最少连接数的连接空闲多久之后关闭，单位毫秒
+     */
+    private Long poolIdleTimeout;
+    /**
+     * 写空闲多久之后发送心跳，单位毫秒，0表示不发送心跳
+     */
+    private Long heartbeatInterval;
+    /**
+     * 读空闲多久之后认为连接失效，单位毫秒，0表示不检测
+     */
+    private Long heartbeatTimeout;
+    /**
+     * 是否开启服务提供者熔断
+     */
+    private Boolean breakerEnabled;
+    /**
+     * 熔断器统计最近多少次调用
+     */
+    private Integer breakerWindowSize;
+    /**
+     * 窗口内至少有多少次调用才开始计算错误率
+     */
+    private Integer breakerMinimumCalls;
+    /**
+     * 触发熔断的错误率，单位百分比
+     */
+    private Integer breakerFailureRate;
+    /**
+     * 触发熔断的慢调用比例，单位百分比，大于100表示不统计慢调用
+     */
+    private Integer breakerSlowCallRate;
+    /**
+     * 超过多久的调用计为慢调用，单位毫秒
+     */
+    private Long breakerSlowCallDuration;
+    /**
+     * 熔断之后多久进入半开状态，单位毫秒
+     */
+    private Long breakerOpenDuration;
+    /**
+     * 半开状态下放行的探测请求数
+     */
+    private Integer breakerHalfOpenCalls;
+    /**
+     * 集群容错策略
+     */
+    private DrpcClusterType clusterType;
+    /**
+     * 一次调用（包括所有重试）的总耗时上限，单位毫秒
+     */
+    private Long requestDeadline;
+    /**
+     * 重试请求数最多占正常请求数的百分比
+     */
+    private Integer retryBudgetRatio;
+    /**
+     * 重试预算最多累积的重试次数
+     */
+    private Integer retryBudgetCapacity;
+    /**
+     * 对冲请求的延迟取该方法最近响应时间的百分位数
+     */
+    private Integer hedgePercentile;
+    /**
+     * 对冲请求的最小延迟，单位毫秒
+     */
+    private Long hedgeMinDelay;
+    /**
+     * 对冲策略下一次调用最多发送的请求数
+     */
+    private Integer hedgeMaxRequests;
+    /**
+     * 服务提供者返回过载之后，多长时间内不再向其路由请求，单位毫秒
+     */
+    private Long overloadBackoff;
+    /**
+     * 请求使用的压缩方式
+     */
+    private DrpcCompressType compressType;
+    /**
+     * 请求的body达到多少字节时才压缩
+     */
+    private Integer compressThreshold;
+    /**
+     * 传输层的实现
+     */
+    private DrpcTransportType transportType;
+    /**
+     * io线程数
+     */
+    private Integer ioThreads;
+    /**
+     * 建立连接的超时时间
+     */
+    private Integer connectTimeout;
+    /**
+     * 连接的SO_SNDBUF
+     */
+    private Integer sendBufferSize;
+    /**
+     * 连接的SO_RCVBUF
+     */
+    private Integer receiveBufferSize;
+    /**
+     * 写缓冲区的低水位线
+     */
+    private Integer writeBufferLowWaterMark;
+    /**
+     * 写缓冲区的高水位线
+     */
+    private Integer writeBufferHighWaterMark;
 
     public String getApplicationName() {
         return applicationName;
@@ -183,6 +322,278 @@ public class DrpcClientConfig {
         this.reconnectInterval = reconnectInterval;
     }
 
+    public Boolean getProtocolChecksum() {
+        return protocolChecksum;
+    }
+
+    public void setProtocolChecksum(Boolean protocolChecksum) {
+        this.protocolChecksum = protocolChecksum;
+    }
+
+    public Boolean getFlushConsolidation() {
+        return flushConsolidation;
+    }
+
+    public void setFlushConsolidation(Boolean flushConsolidation) {
+        this.flushConsolidation = flushConsolidation;
+    }
+
+    public Integer getFlushMaxMessages() {
+        return flushMaxMessages;
+    }
+
+    public void setFlushMaxMessages(Integer flushMaxMessages) {
+        this.flushMaxMessages = flushMaxMessages;
+    }
+
+    public Integer getPoolMinConnections() {
+        return poolMinConnections;
+    }
+
+    public void setPoolMinConnections(Integer poolMinConnections) {
+        this.poolMinConnections = poolMinConnections;
+    }
+
+    public Integer getPoolMaxConnections() {
+        return poolMaxConnections;
+    }
+
+    public void setPoolMaxConnections(Integer poolMaxConnections) {
+        this.poolMaxConnections = poolMaxConnections;
+    }
+
+    public Integer getPoolMaxInFlight() {
+        return poolMaxInFlight;
+    }
+
+    public void setPoolMaxInFlight(Integer poolMaxInFlight) {
+        this.poolMaxInFlight = poolMaxInFlight;
+    }
+
+    public Long getPoolIdleTimeout() {
+        return poolIdleTimeout;
+    }
+
+    public void setPoolIdleTimeout(Long poolIdleTimeout) {
+        this.poolIdleTimeout = poolIdleTimeout;
+    }
+
+    public Long getHeartbeatInterval() {
+        return heartbeatInterval;
+    }
+
+    public void setHeartbeatInterval(Long heartbeatInterval) {
+        this.heartbeatInterval = heartbeatInterval;
+    }
+
+    public Long getHeartbeatTimeout() {
+        return heartbeatTimeout;
+    }
+
+    public void setHeartbeatTimeout(Long heartbeatTimeout) {
+        this.heartbeatTimeout = heartbeatTimeout;
+    }
+
+    public Boolean getBreakerEnabled() {
+        return breakerEnabled;
+    }
+
+    public void setBreakerEnabled(Boolean breakerEnabled) {
+        this.breakerEnabled = breakerEnabled;
+    }
+
+    public Integer getBreakerWindowSize() {
+        return breakerWindowSize;
+    }
+
+    public void setBreakerWindowSize(Integer breakerWindowSize) {
+        this.breakerWindowSize = breakerWindowSize;
+    }
+
+    public Integer getBreakerMinimumCalls() {
+        return breakerMinimumCalls;
+    }
+
+    public void setBreakerMinimumCalls(Integer breakerMinimumCalls) {
+        this.breakerMinimumCalls = breakerMinimumCalls;
+    }
+
+    public Integer getBreakerFailureRate() {
+        return breakerFailureRate;
+    }
+
+    public void setBreakerFailureRate(Integer breakerFailureRate) {
+        this.breakerFailureRate = breakerFailureRate;
+    }
+
+    public Integer getBreakerSlowCallRate() {
+        return breakerSlowCallRate;
+    }
+
+    public void setBreakerSlowCallRate(Integer breakerSlowCallRate) {
+        this.breakerSlowCallRate = breakerSlowCallRate;
+    }
+
+    public Long getBreakerSlowCallDuration() {
+        return breakerSlowCallDuration;
+    }
+
+    public void setBreakerSlowCallDuration(Long breakerSlowCallDuration) {
+        this.breakerSlowCallDuration = breakerSlowCallDuration;
+    }
+
+    public Long getBreakerOpenDuration() {
+        return breakerOpenDuration;
+    }
+
+    public void setBreakerOpenDuration(Long breakerOpenDuration) {
+        this.breakerOpenDuration = breakerOpenDuration;
+    }
+
+    public Integer getBreakerHalfOpenCalls() {
+        return breakerHalfOpenCalls;
+    }
+
+    public void setBreakerHalfOpenCalls(Integer breakerHalfOpenCalls) {
+        this.breakerHalfOpenCalls = breakerHalfOpenCalls;
+    }
+
+    public DrpcClusterType getClusterType() {
+        return clusterType;
+    }
+
+    public void setClusterType(DrpcClusterType clusterType) {
+        this.clusterType = clusterType;
+    }
+
+    public Long getRequestDeadline() {
+        return requestDeadline;
+    }
+
+    public void setRequestDeadline(Long requestDeadline) {
+        this.requestDeadline = requestDeadline;
+    }
+
+    public Integer getRetryBudgetRatio() {
+        return retryBudgetRatio;
+    }
+
+    public void setRetryBudgetRatio(Integer retryBudgetRatio) {
+        this.retryBudgetRatio = retryBudgetRatio;
+    }
+
+    public Integer getRetryBudgetCapacity() {
+        return retryBudgetCapacity;
+    }
+
+    public void setRetryBudgetCapacity(Integer retryBudgetCapacity) {
+        this.retryBudgetCapacity = retryBudgetCapacity;
+    }
+
+    public Integer getHedgePercentile() {
+        return hedgePercentile;
+    }
+
+    public void setHedgePercentile(Integer hedgePercentile) {
+        this.hedgePercentile = hedgePercentile;
+    }
+
+    public Long getHedgeMinDelay() {
+        return hedgeMinDelay;
+    }
+
+    public void setHedgeMinDelay(Long hedgeMinDelay) {
+        this.hedgeMinDelay = hedgeMinDelay;
+    }
+
+    public Integer getHedgeMaxRequests() {
+        return hedgeMaxRequests;
+    }
+
+    public void setHedgeMaxRequests(Integer hedgeMaxRequests) {
+        this.hedgeMaxRequests = hedgeMaxRequests;
+    }
+
+    public Long getOverloadBackoff() {
+        return overloadBackoff;
+    }
+
+    public void setOverloadBackoff(Long overloadBackoff) {
+        this.overloadBackoff = overloadBackoff;
+    }
+
+    public DrpcCompressType getCompressType() {
+        return compressType;
+    }
+
+    public void setCompressType(DrpcCompressType compressType) {
+        this.compressType = compressType;
+    }
+
+    public Integer getCompressThreshold() {
+        return compressThreshold;
+    }
+
+    public void setCompressThreshold(Integer compressThreshold) {
+        this.compressThreshold = compressThreshold;
+    }
+
+    public DrpcTransportType getTransportType() {
+        return transportType;
+    }
+
+    public void setTransportType(DrpcTransportType transportType) {
+        this.transportType = transportType;
+    }
+
+    public Integer getIoThreads() {
+        return ioThreads;
+    }
+
+    public void setIoThreads(Integer ioThreads) {
+        this.ioThreads = ioThreads;
+    }
+
+    public Integer getConnectTimeout() {
+        return connectTimeout;
+    }
+
+    public void setConnectTimeout(Integer connectTimeout) {
+        this.connectTimeout = connectTimeout;
+    }
+
+    public Integer getSendBufferSize() {
+        return sendBufferSize;
+    }
+
+    public void setSendBufferSize(Integer sendBufferSize) {
+        this.sendBufferSize = sendBufferSize;
+    }
+
+    public Integer getReceiveBufferSize() {
+        return receiveBufferSize;
+    }
+
+    public void setReceiveBufferSize(Integer receiveBufferSize) {
+        this.receiveBufferSize = receiveBufferSize;
+    }
+
+    public Integer getWriteBufferLowWaterMark() {
+        return writeBufferLowWaterMark;
+    }
+
+    public void setWriteBufferLowWaterMark(Integer writeBufferLowWaterMark) {
+        this.writeBufferLowWaterMark = writeBufferLowWaterMark;
+    }
+
+    public Integer getWriteBufferHighWaterMark() {
+        return writeBufferHighWaterMark;
+    }
+
+    public void setWriteBufferHighWaterMark(Integer writeBufferHighWaterMark) {
+        this.writeBufferHighWaterMark = writeBufferHighWaterMark;
+    }
+
     @Override
     public String toString() {
         return "DrpcClientConfig{" +
@@ -200,6 +611,40 @@ public class DrpcClientConfig {
                 ", requestRetryInterval=" + requestRetryInterval +
                 ", reconnectTimes=" + reconnectTimes +
                 ", reconnectInterval=" + reconnectInterval +
+                ", protocolChecksum=" + protocolChecksum +
+                ", flushConsolidation=" + flushConsolidation +
+                ", flushMaxMessages=" + flushMaxMessages +
+                ", poolMinConnections=" + poolMinConnections +
+                ", poolMaxConnections=" + poolMaxConnections +
+                ", poolMaxInFlight=" + poolMaxInFlight +
+                ", poolIdleTimeout=" + poolIdleTimeout +
+                ", heartbeatInterval=" + heartbeatInterval +
+                ", heartbeatTimeout=" + heartbeatTimeout +
+                ", breakerEnabled=" + breakerEnabled +
+                ", breakerWindowSize=" + breakerWindowSize +
+                ", breakerMinimumCalls=" + breakerMinimumCalls +
+                ", breakerFailureRate=" + breakerFailureRate +
+                ", breakerSlowCallRate=" + breakerSlowCallRate +
+                ", breakerSlowCallDuration=" + breakerSlowCallDuration +
+                ", breakerOpenDuration=" + breakerOpenDuration +
+                ", breakerHalfOpenCalls=" + breakerHalfOpenCalls +
+                ", clusterType=" + clusterType +
+                ", requestDeadline=" + requestDeadline +
+                ", retryBudgetRatio=" + retryBudgetRatio +
+                ", retryBudgetCapacity=" + retryBudgetCapacity +
+                ", hedgePercentile=" + hedgePercentile +
+                ", hedgeMinDelay=" + hedgeMinDelay +
+                ", hedgeMaxRequests=" + hedgeMaxRequests +
+                ", overloadBackoff=" + overloadBackoff +
+                ", compressType=" + compressType +
+                ", compressThreshold=" + compressThreshold +
+                ", transportType=" + transportType +
+                ", ioThreads=" + ioThreads +
+                ", connectTimeout=" + connectTimeout +
+                ", sendBufferSize=" + sendBufferSize +
+                ", receiveBufferSize=" + receiveBufferSize +
+                ", writeBufferLowWaterMark=" + writeBufferLowWaterMark +
+                ", writeBufferHighWaterMark=" + writeBufferHighWaterMark +
                 '}';
     }
 }
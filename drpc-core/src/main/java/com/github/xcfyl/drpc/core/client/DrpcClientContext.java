@@ -1,5 +1,6 @@
 package com.github.xcfyl.drpc.core.client;
 
+import com.github.xcfyl.drpc.core.cluster.DrpcRetryBudget;
 import com.github.xcfyl.drpc.core.filter.client.DrpcClientFilterChain;
 import com.github.xcfyl.drpc.core.protocol.DrpcResponse;
 import com.github.xcfyl.drpc.core.proxy.DrpcProxy;
@@ -11,6 +12,7 @@ import com.github.xcfyl.drpc.core.serializer.DrpcSerializer;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadPoolExecutor;
 
 /**
  * rpc客户端上下文，用于存放一些公共参数
@@ -63,6 +65,14 @@ public class DrpcClientContext {
      * 用于同步请求结果
      */
     private DrpcResponseGuardedObject responseGuardedObject;
+    /**
+     * 客户端所有服务共享的重试预算
+     */
+    private DrpcRetryBudget retryBudget;
+    /**
+     * 客户端所有连接共享的响应处理线程池
+     */
+    private ThreadPoolExecutor responseExecutor;
 
     public DrpcClientContext() {
     }
@@ -146,4 +156,20 @@ public class DrpcClientContext {
     public void setResponseGuardedObject(DrpcResponseGuardedObject responseGuardedObject) {
         this.responseGuardedObject = responseGuardedObject;
     }
+
+    public DrpcRetryBudget getRetryBudget() {
+        return retryBudget;
+    }
+
+    public void setRetryBudget(DrpcRetryBudget retryBudget) {
+        this.retryBudget = retryBudget;
+    }
+
+    public ThreadPoolExecutor getResponseExecutor() {
+        return responseExecutor;
+    }
+
+    public void setResponseExecutor(ThreadPoolExecutor responseExecutor) {
+        this.responseExecutor = responseExecutor;
+    }
 }
@@ -1,18 +1,22 @@
 package com.github.xcfyl.drpc.core.client;
 
+import com.github.xcfyl.drpc.core.common.enums.DrpcMessageType;
+import com.github.xcfyl.drpc.core.common.enums.DrpcResponseStatus;
+import com.github.xcfyl.drpc.core.common.factory.DrpcSerializerFactory;
+import com.github.xcfyl.drpc.core.exception.DrpcRequestException;
+import com.github.xcfyl.drpc.core.exception.DrpcServerOverloadedException;
+import com.github.xcfyl.drpc.core.protocol.DrpcLegacyProtocolCodec;
 import com.github.xcfyl.drpc.core.protocol.DrpcResponse;
 import com.github.xcfyl.drpc.core.protocol.DrpcTransferProtocol;
 import com.github.xcfyl.drpc.core.serializer.DrpcSerializer;
 import io.netty.channel.Channel;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.ChannelInboundHandlerAdapter;
-import io.netty.util.ReferenceCountUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.concurrent.ArrayBlockingQueue;
-import java.util.concurrent.ThreadPoolExecutor;
-import java.util.concurrent.TimeUnit;
+import java.lang.reflect.Type;
+import java.util.concurrent.CompletableFuture;
 
 
 /**
@@ -24,12 +28,6 @@ import java.util.concurrent.TimeUnit;
 public class DrpcClientHandler extends ChannelInboundHandlerAdapter {
     private static final Logger logger = LoggerFactory.getLogger(DrpcClientHandler.class);
     private final DrpcClientContext rpcClientContext;
-    private final ThreadPoolExecutor threadPoolExecutor = new ThreadPoolExecutor(
-            8,
-            16,
-            30, TimeUnit.MINUTES,
-            new ArrayBlockingQueue<>(3000),
-            new ThreadPoolExecutor.CallerRunsPolicy());
 
     public DrpcClientHandler(DrpcClientContext rpcClientContext) {
         this.rpcClientContext = rpcClientContext;
@@ -37,19 +35,60 @@ public class DrpcClientHandler extends ChannelInboundHandlerAdapter {
 
     @Override
     public void channelRead(ChannelHandlerContext ctx, Object msg) throws Exception {
-        threadPoolExecutor.submit(() -> {
+        rpcClientContext.getResponseExecutor().submit(() -> {
+            DrpcTransferProtocol protocol = (DrpcTransferProtocol) msg;
             try {
-                DrpcTransferProtocol protocol = (DrpcTransferProtocol) msg;
-                DrpcSerializer serializer = rpcClientContext.getSerializer();
-                DrpcResponse response = serializer.deserialize(protocol.getBody(), DrpcResponse.class);
-                 rpcClientContext.getResponseGuardedObject().setDrpcResponse(response);
-                ReferenceCountUtil.release(msg);
+                DrpcResponseGuardedObject guardedObject = rpcClientContext.getResponseGuardedObject();
+                if (protocol.getVersion() == DrpcTransferProtocol.VERSION_1) {
+                    // v1协议的头部没有请求id，只能先反序列化body
+                    DrpcResponse response = DrpcLegacyProtocolCodec.decodeResponse(protocol);
+                    CompletableFuture<DrpcResponse> future = guardedObject.remove(response.getId());
+                    if (future != null) {
+                        future.complete(response);
+                    }
+                } else if (protocol.getMessageType() == DrpcMessageType.RESPONSE.getCode()) {
+                    DrpcResponseFuture future = guardedObject.remove(protocol.getRequestId());
+                    if (future != null) {
+                        // 请求已经超时的响应无需反序列化
+                        completeResponse(future, protocol);
+                    }
+                }
             } catch (Exception e) {
                 logger.error("client handle response failure {}", e.getMessage());
+            } finally {
+                protocol.release();
             }
         });
     }
 
+    private void completeResponse(DrpcResponseFuture future, DrpcTransferProtocol protocol) {
+        if (protocol.getStatus() == DrpcResponseStatus.OVERLOADED.getCode()) {
+            // 服务端过载时请求没有被执行，异常结束，由集群容错策略换一个服务提供者
+            future.completeExceptionally(new DrpcServerOverloadedException(
+                    DrpcResponseStatus.OVERLOADED.getDescription()));
+            return;
+        }
+        try {
+            future.complete(decodeResponse(protocol, future.getBodyType()));
+        } catch (Exception e) {
+            // future已经从等待表中移除，解码失败也必须结束它，否则调用方会一直等待
+            future.completeExceptionally(new DrpcRequestException("decode response failure", e));
+        }
+    }
+
+    private DrpcResponse decodeResponse(DrpcTransferProtocol protocol, Type bodyType) throws Exception {
+        byte status = protocol.getStatus();
+        if (status == DrpcResponseStatus.SUCCESS.getCode() || status == DrpcResponseStatus.FAILURE.getCode()) {
+            DrpcSerializer serializer = DrpcSerializerFactory.getRpcSerializer(protocol.getSerializeType());
+            // 响应体直接按照调用方法的返回值类型解码
+            return serializer.deserializeResponse(protocol.getBody(), bodyType);
+        }
+        // 其余状态的响应不携带body，直接根据状态码构造异常
+        DrpcResponse response = new DrpcResponse(protocol.getRequestId(), null);
+        response.setThrowable(new DrpcRequestException(DrpcResponseStatus.fromCode(status).getDescription()));
+        return response;
+    }
+
     @Override
     public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) throws Exception {
         Channel channel = ctx.channel();
@@ -1,12 +1,16 @@
 package com.github.xcfyl.drpc.core.client;
 
 
-import com.github.xcfyl.drpc.core.common.retry.RetryUtils;
+import com.github.xcfyl.drpc.core.common.enums.DrpcAttributeName;
+import com.github.xcfyl.drpc.core.protocol.DrpcTransferProtocol;
+import com.github.xcfyl.drpc.core.registry.DrpcProviderData;
 import io.netty.bootstrap.Bootstrap;
-import io.netty.channel.ChannelFuture;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelFutureListener;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.math.BigDecimal;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -17,8 +21,9 @@ import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * 连接管理器，用于管理当前客户端和远程所有rpc服务的连接
+ * 物理连接按照服务提供者地址管理，同一个服务提供者上的所有服务共享一个连接池，
+ * 服务到服务提供者的映射单独维护，连接池在没有服务使用时关闭
  * 开启定时任务，定期检测连接的活性，如果某个连接活性不行了，尝试进行重连
- * 在达到一定的重连次数的时候，移除该连接
  *
  * @author 西城风雨楼
  * @date create at 2023/6/23 15:26
@@ -34,14 +39,45 @@ public class DrpcConnectionManager {
      */
     private Integer retryConnectTimes;
     /**
-     * 每次重试的间隔
+     * 每次重试的间隔，之后的重试间隔指数增长
      */
     private Long retryConnectInterval;
+    /**
+     * 定期补充连接的间隔，单位毫秒，连接关闭时会立即补充，这里只是兜底
+     */
+    private static final long CHECK_CONNECTION_INTERVAL = 30000;
+    /**
+     * 重试间隔的上限，单位毫秒
+     */
+    private static final long MAX_RETRY_CONNECT_INTERVAL = 30000;
     /**
      * 没有经过过滤器处理的连接缓存
      */
     private final Map<String, CopyOnWriteArrayList<DrpcConnectionWrapper>> originalConnectionCache = new HashMap<>();
-    private final CopyOnWriteArrayList<String> serviceNames = new CopyOnWriteArrayList<>();
+    /**
+     * 服务提供者地址（ip:port） -> 连接池，同一个服务提供者上的所有服务共享一个连接池
+     */
+    private final Map<String, DrpcConnectionPool> connectionPools = new ConcurrentHashMap<>();
+    /**
+     * 每个服务提供者至少保持的连接数
+     */
+    private int poolMinConnections = 1;
+    /**
+     * 每个服务提供者最多建立的连接数
+     */
+    private int poolMaxConnections = 1;
+    /**
+     * 每个连接上最多同时未完成的请求数，0表示不限制
+     */
+    private int poolMaxInFlight;
+    /**
+     * 超过最少连接数的连接空闲多久之后关闭，单位毫秒
+     */
+    private long poolIdleTimeout = 60000;
+    /**
+     * 客户端配置，用于创建服务提供者的熔断器
+     */
+    private DrpcClientConfig clientConfig;
     /**
      * 保护连接缓存更新的安全性
      */
@@ -59,109 +95,131 @@ public class DrpcConnectionManager {
     public DrpcConnectionManager(Bootstrap bootstrap) {
         this.bootstrap = bootstrap;
         startCheckConnectionAlive();
+        startShrinkIdleConnection();
     }
 
     private void startCheckConnectionAlive() {
         timerTask.scheduleWithFixedDelay(() -> {
             try {
-                for (String serviceName : serviceNames) {
-                    List<DrpcConnectionWrapper> originalConnections = getOriginalConnections(serviceName);
-                    for (DrpcConnectionWrapper connectionWrapper : originalConnections) {
-                        if (connectionWrapper.isOk()) {
-                            continue;
-                        }
-
-                        // 执行重试逻辑
-                        Boolean retryOk = RetryUtils.retry("CheckConnectionRetry", retryConnectTimes, retryConnectInterval, () -> {
-                            DrpcConnectionWrapper newConnectionWrapper = getConnectionWrapper(
-                                    serviceName, connectionWrapper.getIp(), connectionWrapper.getPort());
-                            if (newConnectionWrapper.isOk()) {
-                                replace(serviceName, connectionWrapper, newConnectionWrapper);
-                            }
-                            return newConnectionWrapper.isOk();
-                        }, bool -> bool);
-
-                        if (Boolean.FALSE.equals(retryOk)) {
-                            logger.error("retry connect service {}, ip {}, port {} failure",
-                                    serviceName, connectionWrapper.getIp(), connectionWrapper.getPort());
-                        }
-                    }
+                // 连接池中正常的连接数少于最少连接数时，补充新的连接
+                for (DrpcConnectionPool connectionPool : connectionPools.values()) {
+                    fillConnectionPool(connectionPool);
                 }
             } catch (Exception e) {
                 logger.error("connection check error {}", e.getMessage());
             }
-        }, 5, 10, TimeUnit.MINUTES);
+        }, CHECK_CONNECTION_INTERVAL, CHECK_CONNECTION_INTERVAL, TimeUnit.MILLISECONDS);
+    }
+
+    private void startShrinkIdleConnection() {
+        timerTask.scheduleWithFixedDelay(() -> {
+            try {
+                for (DrpcConnectionPool connectionPool : connectionPools.values()) {
+                    connectionPool.shrink();
+                }
+            } catch (Exception e) {
+                logger.error("shrink idle connection error {}", e.getMessage());
+            }
+        }, 1, 1, TimeUnit.SECONDS);
     }
 
     /**
-     * 连接某个服务的某个具体的服务提供者
+     * 连接某个服务的某个具体的服务提供者，连接在后台建立，路由在连接可用之后即可选中它
      *
      * @param serviceName
      * @param ip
      * @param port
+     * @return 服务提供者的第一个连接建立成功时完成
      */
-    public void connect(String serviceName, String ip, Integer port) {
-        DrpcConnectionWrapper connectionWrapper = getConnectionWrapper(serviceName, ip, port);
-        // 缓存当前连接对象
-        try {
-            serviceNames.add(serviceName);
-            lock.lock();
-            CopyOnWriteArrayList<DrpcConnectionWrapper> connectionWrappers =
-                    originalConnectionCache.getOrDefault(serviceName, new CopyOnWriteArrayList<>());
-            connectionWrappers.add(connectionWrapper);
-            originalConnectionCache.put(serviceName, connectionWrappers);
-        } finally {
-            lock.unlock();
+    public CompletableFuture<DrpcConnectionPool> connect(String serviceName, String ip, Integer port) {
+        DrpcConnectionWrapper connectionWrapper = findConnection(serviceName, ip, port);
+        if (connectionWrapper == null) {
+            connectionWrapper = getConnectionWrapper(serviceName, ip, port);
+            addConnection(serviceName, connectionWrapper);
         }
+        return connectionWrapper.getConnectionPool().getReadyFuture();
     }
 
     /**
-     * 从连接缓存中移除指定的连接
+     * 连接某个服务的某个具体的服务提供者，并记录服务提供者支持的协议版本
+     *
+     * @param serviceName
+     * @param providerData
+     * @return 服务提供者的第一个连接建立成功时完成
+     */
+    public CompletableFuture<DrpcConnectionPool> connect(String serviceName, DrpcProviderData providerData) {
+        DrpcConnectionWrapper connectionWrapper = findConnection(serviceName, providerData.getIp(), providerData.getPort());
+        if (connectionWrapper == null) {
+            connectionWrapper = getConnectionWrapper(serviceName, providerData);
+            addConnection(serviceName, connectionWrapper);
+        }
+        return connectionWrapper.getConnectionPool().getReadyFuture();
+    }
+
+    private DrpcConnectionWrapper findConnection(String serviceName, String ip, Integer port) {
+        for (DrpcConnectionWrapper connectionWrapper : getOriginalConnections(serviceName)) {
+            if (Objects.equals(connectionWrapper.getIp(), ip) && Objects.equals(connectionWrapper.getPort(), port)) {
+                return connectionWrapper;
+            }
+        }
+        return null;
+    }
+
+    private void addConnection(String serviceName, DrpcConnectionWrapper connectionWrapper) {
+        add(serviceName, connectionWrapper);
+    }
+
+    /**
+     * 从连接缓存中移除指定的连接，服务提供者不再被任何服务使用时关闭其连接池
      *
      * @param serviceName
      * @param connectionWrapper
      */
     public void remove(String serviceName, DrpcConnectionWrapper connectionWrapper) {
+        DrpcConnectionWrapper removed = null;
         try {
             lock.lock();
-            CopyOnWriteArrayList<DrpcConnectionWrapper> connectionWrappers = originalConnectionCache.getOrDefault(serviceName, new CopyOnWriteArrayList<>());
-            if (!connectionWrappers.contains(connectionWrapper)) {
+            CopyOnWriteArrayList<DrpcConnectionWrapper> connectionWrappers = originalConnectionCache.get(serviceName);
+            if (connectionWrappers == null) {
                 return;
             }
-            connectionWrappers.remove(connectionWrapper);
-            if (connectionWrappers.size() == 0) {
-                serviceNames.remove(serviceName);
+            int index = connectionWrappers.indexOf(connectionWrapper);
+            if (index < 0) {
+                return;
+            }
+            removed = connectionWrappers.remove(index);
+            if (connectionWrappers.isEmpty()) {
+                originalConnectionCache.remove(serviceName);
             }
-            originalConnectionCache.put(serviceName, connectionWrappers);
         } finally {
             lock.unlock();
         }
+        releaseConnectionPool(removed.getConnectionPool());
     }
 
     public void replace(String serviceName, DrpcConnectionWrapper old, DrpcConnectionWrapper theNew) {
-        try {
-            lock.unlock();
-            remove(serviceName, old);
-            add(serviceName, theNew);
-        } finally {
-            lock.unlock();
-        }
+        remove(serviceName, old);
+        add(serviceName, theNew);
     }
 
+    /**
+     * 添加一个连接，服务已经持有同一个服务提供者的连接时，新的连接被丢弃
+     *
+     * @param serviceName
+     * @param connectionWrapper
+     */
     public void add(String serviceName, DrpcConnectionWrapper connectionWrapper) {
         try {
-            serviceNames.add(serviceName);
             lock.lock();
             CopyOnWriteArrayList<DrpcConnectionWrapper> connectionWrappers =
-                    originalConnectionCache.getOrDefault(serviceName, new CopyOnWriteArrayList<>());
-            if (connectionWrappers.contains(connectionWrapper)) {
+                    originalConnectionCache.computeIfAbsent(serviceName, key -> new CopyOnWriteArrayList<>());
+            if (connectionWrappers.addIfAbsent(connectionWrapper)) {
                 return;
             }
-            connectionWrappers.add(connectionWrapper);
-            originalConnectionCache.put(serviceName, connectionWrappers);
         } finally {
-            lock.lock();
+            lock.unlock();
         }
+        releaseConnectionPool(connectionWrapper.getConnectionPool());
     }
 
     public List<DrpcConnectionWrapper> getOriginalConnections(String serviceName) {
@@ -173,47 +231,242 @@ public class DrpcConnectionManager {
         }
     }
 
+    /**
+     * 整体替换某个服务的连接，不再出现在新列表中的连接会归还其连接池的引用
+     *
+     * @param serviceName
+     * @param connectionWrappers
+     */
     public void setConnections(String serviceName, CopyOnWriteArrayList<DrpcConnectionWrapper> connectionWrappers) {
+        List<DrpcConnectionWrapper> oldConnectionWrappers;
         try {
-            serviceNames.add(serviceName);
             lock.lock();
-            originalConnectionCache.put(serviceName, connectionWrappers);
+            oldConnectionWrappers = originalConnectionCache.put(serviceName, connectionWrappers);
         } finally {
             lock.unlock();
         }
+        if (oldConnectionWrappers == null) {
+            return;
+        }
+        for (DrpcConnectionWrapper oldConnectionWrapper : oldConnectionWrappers) {
+            boolean retained = false;
+            for (DrpcConnectionWrapper connectionWrapper : connectionWrappers) {
+                if (connectionWrapper == oldConnectionWrapper) {
+                    retained = true;
+                    break;
+                }
+            }
+            if (!retained) {
+                releaseConnectionPool(oldConnectionWrapper.getConnectionPool());
+            }
+        }
     }
 
+    /**
+     * 创建一个服务到服务提供者的连接，连接持有服务提供者连接池的一个引用，
+     * 不再使用时需要从连接缓存中移除，以便归还引用
+     *
+     * @param serviceName
+     * @param ip
+     * @param port
+     * @return
+     */
     public DrpcConnectionWrapper getConnectionWrapper(String serviceName, String ip, Integer port) {
-        ChannelFuture channelFuture = connect(ip, port);
         DrpcConnectionWrapper connectionWrapper = new DrpcConnectionWrapper();
-        connectionWrapper.setChannelFuture(channelFuture);
+        connectionWrapper.setConnectionPool(retainConnectionPool(ip, port));
         connectionWrapper.setIp(ip);
         connectionWrapper.setPort(port);
         connectionWrapper.setServiceName(serviceName);
         return connectionWrapper;
     }
 
-    public ChannelFuture connect(String ip, Integer port) {
-        try {
-            // 这里尝试重复获取连接，如果连接获取失败的话
-            ChannelFuture channelFuture = bootstrap.connect(ip, port).sync();
-            if (channelFuture != null) {
-                return channelFuture;
+    public DrpcConnectionWrapper getConnectionWrapper(String serviceName, DrpcProviderData providerData) {
+        DrpcConnectionWrapper connectionWrapper = getConnectionWrapper(serviceName, providerData.getIp(), providerData.getPort());
+        connectionWrapper.setProtocolVersion(getProtocolVersion(providerData));
+        connectionWrapper.getConnectionPool().setProtocolVersion(connectionWrapper.getProtocolVersion());
+        connectionWrapper.setWeight(getWeight(providerData));
+        return connectionWrapper;
+    }
+
+    /**
+     * 获取服务提供者的连接池
+     *
+     * @param ip
+     * @param port
+     * @return 服务提供者没有被任何服务使用时返回null
+     */
+    public DrpcConnectionPool getConnectionPool(String ip, Integer port) {
+        return connectionPools.get(getAddress(ip, port));
+    }
+
+    /**
+     * 获取服务提供者的连接池并增加一次引用，不存在时创建连接池并异步建立最少数量的连接
+     *
+     * @param ip
+     * @param port
+     * @return
+     */
+    private DrpcConnectionPool retainConnectionPool(String ip, Integer port) {
+        String address = getAddress(ip, port);
+        synchronized (connectionPools) {
+            DrpcConnectionPool connectionPool = connectionPools.get(address);
+            if (connectionPool == null) {
+                connectionPool = new DrpcConnectionPool(bootstrap, ip, port, poolMinConnections,
+                        poolMaxConnections, poolMaxInFlight, poolIdleTimeout);
+                connectionPool.setCircuitBreaker(createCircuitBreaker(address));
+                // 连接意外关闭（包括心跳超时）之后立即在后台补充连接
+                connectionPool.setChannelClosedListener(pool -> timerTask.execute(() -> fillConnectionPool(pool)));
+                connectionPools.put(address, connectionPool);
+                fillConnectionPool(connectionPool);
+            }
+            connectionPool.retain();
+            return connectionPool;
+        }
+    }
+
+    /**
+     * 归还服务提供者连接池的一次引用，没有服务再使用该服务提供者时关闭连接池
+     *
+     * @param connectionPool
+     */
+    private void releaseConnectionPool(DrpcConnectionPool connectionPool) {
+        if (connectionPool == null) {
+            return;
+        }
+        synchronized (connectionPools) {
+            if (connectionPool.release() > 0) {
+                return;
             }
-        } catch (Exception e) {
-            logger.error("get connection failure ip {}, port {}, exception is {}", ip, port, e.getMessage());
+            connectionPools.remove(getAddress(connectionPool.getIp(), connectionPool.getPort()), connectionPool);
+        }
+        connectionPool.close();
+        if (logger.isDebugEnabled()) {
+            logger.debug("connection pool {} closed, no service uses it", connectionPool);
+        }
+    }
+
+    private DrpcCircuitBreaker createCircuitBreaker(String address) {
+        if (clientConfig == null || !Boolean.TRUE.equals(clientConfig.getBreakerEnabled())) {
+            return null;
+        }
+        return new DrpcCircuitBreaker(address, clientConfig.getBreakerWindowSize(),
+                clientConfig.getBreakerMinimumCalls(), clientConfig.getBreakerFailureRate(),
+                clientConfig.getBreakerSlowCallRate(), clientConfig.getBreakerSlowCallDuration(),
+                clientConfig.getBreakerOpenDuration(), clientConfig.getBreakerHalfOpenCalls());
+    }
+
+    /**
+     * 获取所有服务提供者的熔断器，用于查看熔断状态
+     *
+     * @return 服务提供者地址 -> 熔断器
+     */
+    public Map<String, DrpcCircuitBreaker> getCircuitBreakers() {
+        Map<String, DrpcCircuitBreaker> circuitBreakers = new HashMap<>();
+        for (Map.Entry<String, DrpcConnectionPool> entry : connectionPools.entrySet()) {
+            DrpcCircuitBreaker circuitBreaker = entry.getValue().getCircuitBreaker();
+            if (circuitBreaker != null) {
+                circuitBreakers.put(entry.getKey(), circuitBreaker);
+            }
+        }
+        return circuitBreakers;
+    }
+
+    public static String getAddress(String ip, Integer port) {
+        return ip + ":" + port;
+    }
+
+    /**
+     * 获取服务提供者的权重，没有配置时返回null，由路由使用默认权重
+     *
+     * @param providerData
+     * @return
+     */
+    public static BigDecimal getWeight(DrpcProviderData providerData) {
+        Object weight = providerData.getAttr(DrpcAttributeName.WEIGHT.getDescription());
+        if (weight == null) {
+            return null;
         }
         try {
-            ChannelFuture channelFuture = RetryUtils.retry("ConnectRetry", retryConnectTimes, retryConnectInterval,
-                    () -> bootstrap.connect(ip, port).sync(),
-                    Objects::nonNull);
-            if (channelFuture != null) {
-                return channelFuture;
+            return new BigDecimal(weight.toString());
+        } catch (NumberFormatException e) {
+            logger.error("illegal weight {} of provider {}:{}", weight, providerData.getIp(), providerData.getPort());
+            return null;
+        }
+    }
+
+    /**
+     * 获取服务提供者支持的协议版本，旧版本的服务提供者没有写入该属性，只能使用v1协议
+     *
+     * @param providerData
+     * @return
+     */
+    public static byte getProtocolVersion(DrpcProviderData providerData) {
+        Object version = providerData.getAttr(DrpcAttributeName.PROTOCOL_VERSION.getDescription());
+        if (version instanceof Number) {
+            return (byte) Math.min(((Number) version).intValue(), DrpcTransferProtocol.CURRENT_VERSION);
+        }
+        return DrpcTransferProtocol.VERSION_1;
+    }
+
+    /**
+     * 异步建立一个连接，失败之后在定时任务线程中按照指数退避重试，不会阻塞调用线程
+     *
+     * @param ip
+     * @param port
+     * @return 连接建立成功时完成，重试次数用完之后异常结束
+     */
+    public CompletableFuture<Channel> connectAsync(String ip, Integer port) {
+        CompletableFuture<Channel> future = new CompletableFuture<>();
+        doConnect(ip, port, 0, future);
+        return future;
+    }
+
+    private void doConnect(String ip, Integer port, int attempt, CompletableFuture<Channel> future) {
+        bootstrap.connect(ip, port).addListener((ChannelFutureListener) channelFuture -> {
+            if (channelFuture.isSuccess()) {
+                future.complete(channelFuture.channel());
+                return;
             }
-        } catch (Exception e) {
-            logger.error("retry get connection failure ip {}, port {}, exception {}", ip, port, e.getMessage());
+            int retryTimes = retryConnectTimes == null ? 0 : retryConnectTimes;
+            if (attempt >= retryTimes) {
+                logger.error("connect ip {}, port {} failure after {} retries, exception is {}",
+                        ip, port, attempt, channelFuture.cause().getMessage());
+                future.completeExceptionally(channelFuture.cause());
+                return;
+            }
+            long delay = getBackoffDelay(attempt);
+            if (logger.isDebugEnabled()) {
+                logger.debug("connect ip {}, port {} failure, retry after {} ms", ip, port, delay);
+            }
+            timerTask.schedule(() -> doConnect(ip, port, attempt + 1, future), delay, TimeUnit.MILLISECONDS);
+        });
+    }
+
+    /**
+     * 第attempt次重试之前等待的时间，在retryConnectInterval的基础上指数增长，
+     * 并随机取其中的后一半，避免大量客户端同时重连
+     *
+     * @param attempt
+     * @return
+     */
+    private long getBackoffDelay(int attempt) {
+        long interval = retryConnectInterval == null || retryConnectInterval <= 0 ? 1000 : retryConnectInterval;
+        long delay = Math.min(interval << Math.min(attempt, 16), MAX_RETRY_CONNECT_INTERVAL);
+        return delay / 2 + ThreadLocalRandom.current().nextLong(delay / 2 + 1);
+    }
+
+    /**
+     * 异步补充连接池中缺少的连接，所有连接并行建立
+     *
+     * @param connectionPool
+     */
+    private void fillConnectionPool(DrpcConnectionPool connectionPool) {
+        int missingConnections = connectionPool.getMissingConnections();
+        for (int i = 0; i < missingConnections; i++) {
+            connectionPool.connectStarted();
+            connectAsync(connectionPool.getIp(), connectionPool.getPort())
+                    .whenComplete(connectionPool::connectFinished);
         }
-        throw new RuntimeException("retry connect failure");
     }
 
     public Bootstrap getBootstrap() {
@@ -235,4 +488,24 @@ public class DrpcConnectionManager {
     public void setRetryConnectInterval(Long retryConnectInterval) {
         this.retryConnectInterval = retryConnectInterval;
     }
+
+    public void setClientConfig(DrpcClientConfig clientConfig) {
+        this.clientConfig = clientConfig;
+    }
+
+    public void setPoolMinConnections(int poolMinConnections) {
+        this.poolMinConnections = poolMinConnections;
+    }
+
+    public void setPoolMaxConnections(int poolMaxConnections) {
+        this.poolMaxConnections = poolMaxConnections;
+    }
+
+    public void setPoolMaxInFlight(int poolMaxInFlight) {
+        this.poolMaxInFlight = poolMaxInFlight;
+    }
+
+    public void setPoolIdleTimeout(long poolIdleTimeout) {
+        this.poolIdleTimeout = poolIdleTimeout;
+    }
 }
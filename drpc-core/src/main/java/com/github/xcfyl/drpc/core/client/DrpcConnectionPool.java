@@ -0,0 +1,344 @@
+package com.github.xcfyl.drpc.core.client;
+
+import com.github.xcfyl.drpc.core.exception.DrpcRequestException;
+import com.github.xcfyl.drpc.core.protocol.DrpcTransferProtocol;
+import com.github.xcfyl.drpc.core.transport.DrpcHeartbeatHandler;
+import io.netty.bootstrap.Bootstrap;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelFutureListener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * 某个服务提供者（ip:port）的连接池，同一个服务提供者上的所有服务共享
+ * 池中至少保持minConnections个连接，所有连接的请求数都达到上限的时候异步新建连接，最多maxConnections个
+ * 超过minConnections的连接空闲超过idleTimeout之后被关闭
+ *
+ * @author 西城风雨楼
+ */
+public class DrpcConnectionPool {
+    private static final Logger logger = LoggerFactory.getLogger(DrpcConnectionPool.class);
+    private static final DrpcPooledChannel[] EMPTY = new DrpcPooledChannel[0];
+
+    private final Bootstrap bootstrap;
+    private final String ip;
+    private final Integer port;
+    private final int minConnections;
+    private final int maxConnections;
+    private final int maxInFlight;
+    private final long idleTimeoutNanos;
+    /**
+     * 连接快照，修改时整体替换，获取连接时不需要加锁
+     */
+    private volatile DrpcPooledChannel[] channels = EMPTY;
+    /**
+     * 正在异步建立的连接数
+     */
+    private final AtomicInteger connecting = new AtomicInteger();
+    /**
+     * 连接池中第一个连接建立成功时完成，第一轮连接全部失败时异常结束
+     */
+    private final CompletableFuture<DrpcConnectionPool> readyFuture = new CompletableFuture<>();
+    /**
+     * 连接池是否已经关闭，关闭之后才建立成功的连接会被直接关闭
+     */
+    private volatile boolean closed;
+    /**
+     * 服务提供者支持的协议版本，写入每个连接的属性中，心跳处理器据此判断对端是否支持心跳
+     */
+    private volatile byte protocolVersion = DrpcTransferProtocol.CURRENT_VERSION;
+    /**
+     * 连接意外关闭之后的回调，由连接管理器负责补充连接
+     */
+    private volatile Consumer<DrpcConnectionPool> channelClosedListener;
+    /**
+     * 服务提供者的熔断器，没有开启熔断时为null
+     */
+    private volatile DrpcCircuitBreaker circuitBreaker;
+    /**
+     * 使用该连接池的服务连接数，由连接管理器维护
+     */
+    private final AtomicInteger referenceCount = new AtomicInteger();
+
+    public DrpcConnectionPool(Bootstrap bootstrap, String ip, Integer port, int minConnections,
+                              int maxConnections, int maxInFlight, long idleTimeout) {
+        this.bootstrap = bootstrap;
+        this.ip = ip;
+        this.port = port;
+        this.minConnections = Math.max(minConnections, 1);
+        this.maxConnections = Math.max(maxConnections, this.minConnections);
+        this.maxInFlight = maxInFlight;
+        this.idleTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(idleTimeout);
+    }
+
+    /**
+     * 从池中获取一个连接并占用一个请求名额，优先选择未完成请求最少的连接
+     *
+     * @return 所有连接的请求数都达到上限或者没有可用的连接时返回null
+     */
+    public DrpcPooledChannel acquire() {
+        DrpcPooledChannel[] snapshot = channels;
+        DrpcPooledChannel best = null;
+        for (DrpcPooledChannel channel : snapshot) {
+            if (channel.isActive() && !channel.isDraining() && (best == null || channel.getInFlight() < best.getInFlight())) {
+                best = channel;
+            }
+        }
+        if (best != null && best.tryAcquire(maxInFlight)) {
+            if (maxInFlight > 0 && best.getInFlight() >= maxInFlight) {
+                // 负载最低的连接也已经占满，提前扩容
+                grow();
+            }
+            return best;
+        }
+        // 选中的连接被其他线程抢先占满，依次尝试剩余的连接
+        for (DrpcPooledChannel channel : snapshot) {
+            if (channel != best && channel.isActive() && channel.tryAcquire(maxInFlight)) {
+                return channel;
+            }
+        }
+        if (best != null) {
+            // 不突破单个连接的请求数上限，本次请求以未发送失败，可以安全地重试，新连接建立之后恢复
+            grow();
+        }
+        return null;
+    }
+
+    /**
+     * 判断池中是否还有能承载新请求的连接，连接池还在扩容时不算饱和
+     *
+     * @return
+     */
+    public boolean isSaturated() {
+        if (maxInFlight <= 0 || connecting.get() > 0 || channels.length < maxConnections) {
+            return false;
+        }
+        for (DrpcPooledChannel channel : channels) {
+            if (channel.isActive() && channel.getInFlight() < maxInFlight) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 判断池中是否存在正常的连接
+     *
+     * @return
+     */
+    public boolean isOk() {
+        for (DrpcPooledChannel channel : channels) {
+            if (channel.isActive()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 将一个已经建立的连接加入连接池，连接关闭之后自动从池中移除
+     *
+     * @param channel
+     */
+    public void addChannel(Channel channel) {
+        if (closed) {
+            channel.close();
+            return;
+        }
+        DrpcPooledChannel pooledChannel = new DrpcPooledChannel(channel);
+        channel.attr(DrpcHeartbeatHandler.PROTOCOL_VERSION_KEY).set(protocolVersion);
+        synchronized (this) {
+            DrpcPooledChannel[] newChannels = new DrpcPooledChannel[channels.length + 1];
+            System.arraycopy(channels, 0, newChannels, 0, channels.length);
+            newChannels[channels.length] = pooledChannel;
+            channels = newChannels;
+        }
+        channel.closeFuture().addListener(future -> onChannelClosed(pooledChannel));
+    }
+
+    private void onChannelClosed(DrpcPooledChannel pooledChannel) {
+        removeChannel(pooledChannel);
+        pooledChannel.failPendingRequests(new DrpcRequestException("connection closed"));
+        Consumer<DrpcConnectionPool> listener = channelClosedListener;
+        if (!closed && listener != null) {
+            listener.accept(this);
+        }
+    }
+
+    private synchronized void removeChannel(DrpcPooledChannel pooledChannel) {
+        DrpcPooledChannel[] snapshot = channels;
+        for (int i = 0; i < snapshot.length; i++) {
+            if (snapshot[i] == pooledChannel) {
+                DrpcPooledChannel[] newChannels = new DrpcPooledChannel[snapshot.length - 1];
+                System.arraycopy(snapshot, 0, newChannels, 0, i);
+                System.arraycopy(snapshot, i + 1, newChannels, i, snapshot.length - i - 1);
+                channels = newChannels;
+                return;
+            }
+        }
+    }
+
+    /**
+     * 设置服务提供者支持的协议版本，同时更新已经建立的连接
+     *
+     * @param protocolVersion
+     */
+    public void setProtocolVersion(byte protocolVersion) {
+        this.protocolVersion = protocolVersion;
+        for (DrpcPooledChannel channel : channels) {
+            channel.getChannel().attr(DrpcHeartbeatHandler.PROTOCOL_VERSION_KEY).set(protocolVersion);
+        }
+    }
+
+    public DrpcCircuitBreaker getCircuitBreaker() {
+        return circuitBreaker;
+    }
+
+    public void setCircuitBreaker(DrpcCircuitBreaker circuitBreaker) {
+        this.circuitBreaker = circuitBreaker;
+    }
+
+    public void setChannelClosedListener(Consumer<DrpcConnectionPool> channelClosedListener) {
+        this.channelClosedListener = channelClosedListener;
+    }
+
+    /**
+     * 异步新建一个连接，同一时间最多只有一个连接正在建立，已经达到最大连接数时什么也不做
+     *
+     * @return 连接池是否正在扩容
+     */
+    private boolean grow() {
+        if (connecting.get() > 0) {
+            return true;
+        }
+        if (channels.length >= maxConnections || !connecting.compareAndSet(0, 1)) {
+            return connecting.get() > 0;
+        }
+        bootstrap.connect(ip, port).addListener((ChannelFutureListener) future -> {
+            if (future.isSuccess()) {
+                connectFinished(future.channel(), null);
+                if (logger.isDebugEnabled()) {
+                    logger.debug("connection pool of {}:{} grows to {}", ip, port, channels.length);
+                }
+            } else {
+                connectFinished(null, future.cause());
+                logger.error("connection pool of {}:{} grow failure, exception is {}",
+                        ip, port, future.cause().getMessage());
+            }
+        });
+        return true;
+    }
+
+    /**
+     * 开始异步建立一个连接，在连接结束之前不会重复补充
+     */
+    void connectStarted() {
+        connecting.incrementAndGet();
+    }
+
+    /**
+     * 异步建立的连接结束，成功时加入连接池
+     *
+     * @param channel 建立成功的连接，失败时为null
+     * @param cause   失败原因
+     */
+    void connectFinished(Channel channel, Throwable cause) {
+        if (channel != null) {
+            addChannel(channel);
+        }
+        int remain = connecting.decrementAndGet();
+        if (channel != null) {
+            readyFuture.complete(this);
+        } else if (remain == 0 && channels.length == 0) {
+            readyFuture.completeExceptionally(cause);
+        }
+    }
+
+    /**
+     * 获取连接池就绪的future，第一个连接建立成功之后完成
+     *
+     * @return
+     */
+    public CompletableFuture<DrpcConnectionPool> getReadyFuture() {
+        return readyFuture;
+    }
+
+    /**
+     * 关闭超过最少连接数并且空闲超过idleTimeout的连接，后建立的连接优先关闭
+     */
+    public synchronized void shrink() {
+        DrpcPooledChannel[] snapshot = channels;
+        int remain = snapshot.length;
+        long now = System.nanoTime();
+        for (int i = snapshot.length - 1; i >= 0 && remain > minConnections; i--) {
+            DrpcPooledChannel channel = snapshot[i];
+            if (channel.getInFlight() == 0 && now - channel.getLastUsedTime() > idleTimeoutNanos) {
+                // 先从连接池中摘除，避免并发的acquire选中正在关闭的连接
+                removeChannel(channel);
+                channel.drain();
+                remain--;
+                if (logger.isDebugEnabled()) {
+                    logger.debug("close idle connection {} of {}:{}", channel.getChannel(), ip, port);
+                }
+            }
+        }
+    }
+
+    /**
+     * 关闭池中所有的连接
+     */
+    public void close() {
+        closed = true;
+        for (DrpcPooledChannel channel : channels) {
+            channel.getChannel().close();
+        }
+    }
+
+    /**
+     * 池中还需要建立多少个连接才能达到最少连接数
+     *
+     * @return
+     */
+    public int getMissingConnections() {
+        return Math.max(minConnections - channels.length - connecting.get(), 0);
+    }
+
+    int retain() {
+        return referenceCount.incrementAndGet();
+    }
+
+    int release() {
+        return referenceCount.decrementAndGet();
+    }
+
+    public int getReferenceCount() {
+        return referenceCount.get();
+    }
+
+    public int getSize() {
+        return channels.length;
+    }
+
+    public String getIp() {
+        return ip;
+    }
+
+    public Integer getPort() {
+        return port;
+    }
+
+    @Override
+    public String toString() {
+        return "DrpcConnectionPool{" +
+                "ip='" + ip + '\'' +
+                ", port=" + port +
+                ", size=" + channels.length +
+                ", referenceCount=" + referenceCount +
+                '}';
+    }
+}
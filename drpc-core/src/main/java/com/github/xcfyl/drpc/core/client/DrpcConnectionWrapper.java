@@ -1,11 +1,14 @@
 package com.github.xcfyl.drpc.core.client;
 
-import io.netty.channel.ChannelFuture;
+import com.github.xcfyl.drpc.core.protocol.DrpcTransferProtocol;
+import com.github.xcfyl.drpc.core.router.DrpcPeakEwma;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.math.BigDecimal;
 import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * 封装了连接对象
@@ -15,11 +18,15 @@ import java.util.Objects;
  */
 public class DrpcConnectionWrapper {
     private static final Logger logger = LoggerFactory.getLogger(DrpcConnectionWrapper.class);
+    /**
+     * 服务提供者没有配置权重时使用的默认权重
+     */
+    public static final int DEFAULT_WEIGHT = 100;
 
     /**
-     * 代表连接的channelFuture对象
+     * 服务提供者的连接池，同一个服务提供者上的所有服务共享
      */
-    private ChannelFuture channelFuture;
+    private DrpcConnectionPool connectionPool;
     /**
      * IP地址
      */
@@ -37,6 +44,22 @@ public class DrpcConnectionWrapper {
      * 属于哪个服务的连接
      */
     private String serviceName;
+    /**
+     * 服务提供者支持的传输协议版本
+     */
+    private byte protocolVersion = DrpcTransferProtocol.CURRENT_VERSION;
+    /**
+     * 当前连接上已经发出但是还没有完成的请求数
+     */
+    private final AtomicInteger activeCount = new AtomicInteger();
+    /**
+     * 当前连接的响应延迟估计
+     */
+    private final DrpcPeakEwma latency = new DrpcPeakEwma();
+    /**
+     * 服务提供者返回过载之后，在这个时间之前不再向其路由请求，单位纳秒，0表示没有过载
+     */
+    private volatile long overloadedUntil;
 
     public DrpcConnectionWrapper() {
 
@@ -48,17 +71,66 @@ public class DrpcConnectionWrapper {
      * @return
      */
     public boolean isOk() {
-        return channelFuture != null && channelFuture.channel() != null
-                && (channelFuture.channel().isActive() || channelFuture.channel().isOpen());
+        return connectionPool != null && connectionPool.isOk();
+    }
+
+    /**
+     * 判断当前连接是否正常、没有被熔断并且还能承载新的请求
+     *
+     * @return
+     */
+    public boolean isAvailable() {
+        if (!isOk() || connectionPool.isSaturated()) {
+            return false;
+        }
+        DrpcCircuitBreaker circuitBreaker = connectionPool.getCircuitBreaker();
+        return circuitBreaker == null || circuitBreaker.isCallPermitted();
+    }
+
+    /**
+     * 服务提供者返回过载之后调用，backoff时间内路由优先选择其他服务提供者
+     *
+     * @param backoff 单位毫秒
+     */
+    public void markOverloaded(long backoff) {
+        if (backoff > 0) {
+            overloadedUntil = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(backoff);
+        }
+    }
+
+    /**
+     * 服务提供者最近是否返回过过载，路由优先选择没有过载的服务提供者，全部过载时仍然可以选择
+     *
+     * @return
+     */
+    public boolean isOverloaded() {
+        long until = overloadedUntil;
+        if (until == 0) {
+            return false;
+        }
+        if (until - System.nanoTime() > 0) {
+            return true;
+        }
+        overloadedUntil = 0;
+        return false;
     }
 
     /**
-     * 发送数据
+     * 获取服务提供者的熔断器
      *
-     * @param data
+     * @return 没有开启熔断时返回null
      */
-    public void writeAndFlush(Object data) {
-        channelFuture.channel().writeAndFlush(data);
+    public DrpcCircuitBreaker getCircuitBreaker() {
+        return connectionPool == null ? null : connectionPool.getCircuitBreaker();
+    }
+
+    /**
+     * 从连接池中获取一个物理连接，请求结束之后需要调用release归还
+     *
+     * @return 所有连接的请求数都达到上限时返回null
+     */
+    public DrpcPooledChannel acquire() {
+        return connectionPool == null ? null : connectionPool.acquire();
     }
 
     @Override
@@ -78,12 +150,12 @@ public class DrpcConnectionWrapper {
         return Objects.hash(ip, port);
     }
 
-    public ChannelFuture getChannelFuture() {
-        return channelFuture;
+    public DrpcConnectionPool getConnectionPool() {
+        return connectionPool;
     }
 
-    public void setChannelFuture(ChannelFuture channelFuture) {
-        this.channelFuture = channelFuture;
+    public void setConnectionPool(DrpcConnectionPool connectionPool) {
+        this.connectionPool = connectionPool;
     }
 
     public String getIp() {
@@ -110,6 +182,56 @@ public class DrpcConnectionWrapper {
         this.weight = weight;
     }
 
+    public byte getProtocolVersion() {
+        return protocolVersion;
+    }
+
+    public void setProtocolVersion(byte protocolVersion) {
+        this.protocolVersion = protocolVersion;
+    }
+
+    /**
+     * 路由使用的权重，没有配置权重时返回默认权重，负数按照0处理
+     *
+     * @return
+     */
+    public double getWeightValue() {
+        if (weight == null) {
+            return DEFAULT_WEIGHT;
+        }
+        return Math.max(weight.doubleValue(), 0);
+    }
+
+    public int getActiveCount() {
+        return activeCount.get();
+    }
+
+    public void incrementActive() {
+        activeCount.incrementAndGet();
+    }
+
+    public void decrementActive() {
+        activeCount.decrementAndGet();
+    }
+
+    /**
+     * 记录一次请求的耗时，请求结束（包括超时）时调用
+     *
+     * @param nanos 请求耗时，单位纳秒
+     */
+    public void recordLatency(long nanos) {
+        latency.observe(nanos);
+    }
+
+    /**
+     * 获取延迟估计，单位纳秒
+     *
+     * @return
+     */
+    public double getLatency() {
+        return latency.get();
+    }
+
     public String getServiceName() {
         return serviceName;
     }
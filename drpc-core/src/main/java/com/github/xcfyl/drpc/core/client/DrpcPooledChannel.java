@@ -0,0 +1,145 @@
+package com.github.xcfyl.drpc.core.client;
+
+import com.github.xcfyl.drpc.core.transport.DrpcWriteBatcher;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelFuture;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 连接池中的一个物理连接，记录连接上未完成的请求数
+ *
+ * @author 西城风雨楼
+ */
+public class DrpcPooledChannel {
+    private final Channel channel;
+    /**
+     * 当前连接上已经发出但是还没有完成的请求数
+     */
+    private final AtomicInteger inFlight = new AtomicInteger();
+    /**
+     * 当前连接上等待响应的请求，连接关闭时立即失败，不必等到超时
+     */
+    private final Map<Long, CompletableFuture<?>> pendingRequests = new ConcurrentHashMap<>();
+    /**
+     * 最近一次被使用的时间，单位纳秒，用于回收空闲连接
+     */
+    private volatile long lastUsedTime = System.nanoTime();
+    /**
+     * 连接已经从连接池中摘除，不再承载新的请求，未完成的请求结束之后关闭
+     */
+    private volatile boolean draining;
+
+    public DrpcPooledChannel(Channel channel) {
+        this.channel = channel;
+    }
+
+    /**
+     * 尝试在当前连接上占用一个请求名额
+     *
+     * @param maxInFlight 每个连接上最多同时未完成的请求数，小于等于0表示不限制
+     * @return 连接已经达到上限时返回false
+     */
+    boolean tryAcquire(int maxInFlight) {
+        for (; ; ) {
+            if (draining) {
+                return false;
+            }
+            int current = inFlight.get();
+            if (maxInFlight > 0 && current >= maxInFlight) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                if (draining) {
+                    // 占用名额的同时连接开始摘除，撤销本次占用
+                    release();
+                    return false;
+                }
+                lastUsedTime = System.nanoTime();
+                return true;
+            }
+        }
+    }
+
+    /**
+     * 请求结束（包括超时和失败）之后归还占用的名额
+     */
+    public void release() {
+        int current = inFlight.decrementAndGet();
+        lastUsedTime = System.nanoTime();
+        if (current == 0 && draining) {
+            channel.close();
+        }
+    }
+
+    /**
+     * 停止在当前连接上分配新的请求，等所有未完成的请求结束之后关闭连接
+     */
+    void drain() {
+        draining = true;
+        if (inFlight.get() == 0) {
+            channel.close();
+        }
+    }
+
+    public boolean isDraining() {
+        return draining;
+    }
+
+    public void addPendingRequest(long requestId, CompletableFuture<?> future) {
+        pendingRequests.put(requestId, future);
+    }
+
+    public void removePendingRequest(long requestId) {
+        pendingRequests.remove(requestId);
+    }
+
+    /**
+     * 连接关闭之后，让所有还在等待响应的请求失败
+     *
+     * @param cause
+     */
+    void failPendingRequests(Throwable cause) {
+        for (CompletableFuture<?> future : pendingRequests.values()) {
+            future.completeExceptionally(cause);
+        }
+        pendingRequests.clear();
+    }
+
+    /**
+     * 发送数据
+     *
+     * @param data
+     * @return 写操作的结果
+     */
+    public ChannelFuture writeAndFlush(Object data) {
+        return DrpcWriteBatcher.writeAndFlush(channel, data);
+    }
+
+    public boolean isActive() {
+        return channel.isActive();
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    public long getLastUsedTime() {
+        return lastUsedTime;
+    }
+
+    public Channel getChannel() {
+        return channel;
+    }
+
+    @Override
+    public String toString() {
+        return "DrpcPooledChannel{" +
+                "channel=" + channel +
+                ", inFlight=" + inFlight +
+                '}';
+    }
+}
@@ -0,0 +1,26 @@
+package com.github.xcfyl.drpc.core.client;
+
+import com.github.xcfyl.drpc.core.protocol.DrpcResponse;
+
+import java.lang.reflect.Type;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * 等待响应的future，同时记录响应体的类型，收到响应之后直接按照该类型解码
+ *
+ * @author 西城风雨楼
+ */
+public class DrpcResponseFuture extends CompletableFuture<DrpcResponse> {
+    /**
+     * 响应体的类型，为null时按照序列化方式的默认规则解码
+     */
+    private final Type bodyType;
+
+    public DrpcResponseFuture(Type bodyType) {
+        this.bodyType = bodyType;
+    }
+
+    public Type getBodyType() {
+        return bodyType;
+    }
+}
@@ -1,107 +1,122 @@
 package com.github.xcfyl.drpc.core.client;
 
+import com.github.xcfyl.drpc.core.exception.DrpcRequestTimeoutException;
 import com.github.xcfyl.drpc.core.protocol.DrpcResponse;
+import io.netty.util.HashedWheelTimer;
+import io.netty.util.Timeout;
+import io.netty.util.Timer;
+import io.netty.util.concurrent.DefaultThreadFactory;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.Objects;
+import java.lang.reflect.Type;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
-import java.util.concurrent.locks.Condition;
-import java.util.concurrent.locks.Lock;
-import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
+ * 维护客户端所有未完成的请求，每个请求对应一个CompletableFuture
+ * 响应到达时由DrpcClientHandler直接完成对应的future，超时由共享的时间轮负责
+ *
  * @author 西城风雨楼
  * @date create at 2023/7/17 13:57
  */
 public class DrpcResponseGuardedObject {
     private static final Logger logger = LoggerFactory.getLogger(DrpcResponseGuardedObject.class);
 
-    private int length;
-    private final Lock[] locks;
-    private final Condition[] conditions;
-    private final ConcurrentHashMap<String, DrpcResponse>[] responses;
     /**
-     * 标识当前客户端还在等待请求
+     * 未完成的请求，key是请求id
      */
-    private static final DrpcResponse STILL_WAIT = new DrpcResponse("-1", null);
+    private final ConcurrentHashMap<Long, DrpcResponseFuture> pendingRequests = new ConcurrentHashMap<>();
+    /**
+     * 单调递增的请求id生成器
+     */
+    private final AtomicLong requestIdGenerator = new AtomicLong();
+    /**
+     * 所有请求共享的超时时间轮
+     */
+    private final Timer timer;
 
-    @SuppressWarnings("unchecked")
-    public DrpcResponseGuardedObject(int length) {
-        this.length = length;
-        locks = new Lock[length];
-        conditions = new Condition[length];
-        responses = new ConcurrentHashMap[length];
-        for (int i = 0; i < length; i++) {
-            locks[i] = new ReentrantLock();
-            conditions[i] = locks[i].newCondition();
-            responses[i] = new ConcurrentHashMap<>();
-        }
+    public DrpcResponseGuardedObject(long tickDuration) {
+        timer = new HashedWheelTimer(new DefaultThreadFactory("drpc-response-timer", true),
+                tickDuration, TimeUnit.MILLISECONDS);
     }
 
     public DrpcResponseGuardedObject() {
-        this(128);
+        this(10);
     }
 
-    public int getLength() {
-        return length;
+    /**
+     * 生成一个新的请求id
+     *
+     * @return 当前客户端内唯一的请求id
+     */
+    public long nextRequestId() {
+        return requestIdGenerator.incrementAndGet();
     }
 
-    public void setLength(int length) {
-        this.length = length;
+    /**
+     * 登记一个新的请求，必须在请求发送之前调用，否则可能丢失响应
+     *
+     * @param requestId 请求id
+     * @param timeout   超时时间，单位毫秒，超时后future以DrpcRequestTimeoutException异常结束
+     * @param bodyType  响应体的类型，为null时按照序列化方式的默认规则解码
+     * @return 响应到达时完成的future
+     */
+    public CompletableFuture<DrpcResponse> newFuture(long requestId, long timeout, Type bodyType) {
+        DrpcResponseFuture future = new DrpcResponseFuture(bodyType);
+        pendingRequests.put(requestId, future);
+        Timeout timeoutTask = timer.newTimeout(t -> {
+            if (pendingRequests.remove(requestId, future)) {
+                future.completeExceptionally(new DrpcRequestTimeoutException("request timeout"));
+            }
+        }, timeout, TimeUnit.MILLISECONDS);
+        // 完成之后取消超时任务，避免时间轮中堆积无用的任务，future也可能在连接关闭时由其他地方结束
+        future.whenComplete((response, throwable) -> {
+            timeoutTask.cancel();
+            pendingRequests.remove(requestId, future);
+        });
+        return future;
     }
 
-    public DrpcResponse getDrpcResponse(String requestId, long timeout) {
-        int index = getIndex(requestId);
-        locks[index].lock();
-        // 先添加一个标记，标识当前自己还在等待结果
-        responses[index].put(requestId, STILL_WAIT);
-        long now = System.currentTimeMillis();
-        long futureTime = now + timeout;
-        try {
-            // 跳出该循环有两种可能，一种是response被添加到了response中，此时requestId的数据就不是STILL_WAIT状态了
-            // 或者是超时了
-            while (responses[index].get(requestId) == STILL_WAIT && now <= futureTime) {
-                boolean res = conditions[index].await(timeout, TimeUnit.MILLISECONDS);
-                if (!res) {
-                    break;
-                }
-                now = System.currentTimeMillis();
-            }
-            if (responses[index].get(requestId) != STILL_WAIT) {
-                // 如果不是因为超时结束等待，那么获取response
-                DrpcResponse drpcResponse = responses[index].get(requestId);
-                // 将该请求从缓存中移除，否则将导致内存泄漏
-                responses[index].remove(requestId);
-                return drpcResponse;
-            }
-        } catch (InterruptedException e) {
-            logger.debug("wait response interrupted {}", e.getMessage());
-        } finally {
-            // 当要退出get方法时，不论是否获取成功，都需要将response[index]对应位置的数据进行清除
-            responses[index].remove(requestId);
-            locks[index].unlock();
+    /**
+     * 取出某个请求对应的future，响应帧头部携带了请求id，因此可以在反序列化body之前完成匹配
+     *
+     * @param requestId 请求id
+     * @return 请求对应的future，如果请求已经超时或者不存在，返回null
+     */
+    public DrpcResponseFuture remove(long requestId) {
+        DrpcResponseFuture future = pendingRequests.remove(requestId);
+        if (future == null && logger.isDebugEnabled()) {
+            logger.debug("discard response {}, request already timeout", requestId);
         }
-        return null;
+        return future;
     }
 
-    public void setDrpcResponse(DrpcResponse response) {
-        int index = getIndex(response.getId());
-        locks[index].lock();
-        try {
-            if (responses[index].get(response.getId()) != STILL_WAIT) {
-                return;
-            }
-            responses[index].put(response.getId(), response);
-            conditions[index].signalAll();
-        } finally {
-            locks[index].unlock();
+    /**
+     * 请求还未发送就失败的时候，移除对应的future
+     *
+     * @param requestId 请求id
+     * @param cause     失败原因
+     */
+    public void fail(long requestId, Throwable cause) {
+        DrpcResponseFuture future = pendingRequests.remove(requestId);
+        if (future != null) {
+            future.completeExceptionally(cause);
         }
     }
 
-    private int getIndex(String requestId) {
-        int hash = Objects.hash(requestId);
-        return hash & (length - 1);
+    /**
+     * 获取共享的时间轮，其他需要延迟执行的轻量任务（例如重试）也可以复用
+     *
+     * @return
+     */
+    public Timer getTimer() {
+        return timer;
+    }
+
+    public int getPendingCount() {
+        return pendingRequests.size();
     }
 }
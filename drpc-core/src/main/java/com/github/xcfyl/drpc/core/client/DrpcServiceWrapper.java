@@ -1,5 +1,8 @@
 package com.github.xcfyl.drpc.core.client;
 
+import com.github.xcfyl.drpc.core.common.enums.DrpcClusterType;
+import com.github.xcfyl.drpc.core.common.enums.DrpcCompressType;
+
 /**
  * 包装客户端的订阅服务，给客户端订阅的服务增加额外的属性
  *
@@ -18,7 +21,7 @@ public class DrpcServiceWrapper<T> {
      */
     private Boolean isSync;
     /**
-     * 如果因为超时导致发送失败，那么尝试的次数
+     * 请求失败之后重试的次数，forking策略下为额外并行发送的请求数
      */
     private Integer retryTimes;
     /**
@@ -29,6 +32,22 @@ public class DrpcServiceWrapper<T> {
      * 超时时间
      */
     private Long timeout;
+    /**
+     * 一次调用（包括所有重试）的总耗时上限，小于等于0表示不限制
+     */
+    private Long deadline;
+    /**
+     * 调用失败之后的集群容错策略
+     */
+    private DrpcClusterType clusterType;
+    /**
+     * 请求使用的压缩方式，响应也会按照该方式压缩
+     */
+    private DrpcCompressType compressType;
+    /**
+     * 请求的body达到多少字节时才压缩
+     */
+    private Integer compressThreshold;
 
     public DrpcServiceWrapper() {
     }
@@ -73,6 +92,38 @@ public class DrpcServiceWrapper<T> {
         this.retryInterval = retryInterval;
     }
 
+    public Long getDeadline() {
+        return deadline;
+    }
+
+    public void setDeadline(Long deadline) {
+        this.deadline = deadline;
+    }
+
+    public DrpcClusterType getClusterType() {
+        return clusterType;
+    }
+
+    public void setClusterType(DrpcClusterType clusterType) {
+        this.clusterType = clusterType;
+    }
+
+    public DrpcCompressType getCompressType() {
+        return compressType;
+    }
+
+    public void setCompressType(DrpcCompressType compressType) {
+        this.compressType = compressType;
+    }
+
+    public Integer getCompressThreshold() {
+        return compressThreshold;
+    }
+
+    public void setCompressThreshold(Integer compressThreshold) {
+        this.compressThreshold = compressThreshold;
+    }
+
     @Override
     public String toString() {
         return "DrpcServiceWrapper{" +
@@ -81,6 +132,10 @@ public class DrpcServiceWrapper<T> {
                 ", retryTimes=" + retryTimes +
                 ", retryInterval=" + retryInterval +
                 ", timeout=" + timeout +
+                ", deadline=" + deadline +
+                ", clusterType=" + clusterType +
+                ", compressType=" + compressType +
+                ", compressThreshold=" + compressThreshold +
                 '}';
     }
 }
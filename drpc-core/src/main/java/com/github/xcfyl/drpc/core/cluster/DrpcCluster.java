@@ -0,0 +1,20 @@
+package com.github.xcfyl.drpc.core.cluster;
+
+import com.github.xcfyl.drpc.core.protocol.DrpcResponse;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * 集群容错层，决定一次调用向哪些服务提供者发送请求以及失败之后如何处理
+ *
+ * @author 西城风雨楼
+ */
+public interface DrpcCluster {
+    /**
+     * 执行一次调用
+     *
+     * @param invocation
+     * @return 调用结束时完成的future，服务方法抛出的业务异常包含在响应中，不会被重试
+     */
+    CompletableFuture<DrpcResponse> invoke(DrpcInvocation invocation);
+}
@@ -0,0 +1,18 @@
+package com.github.xcfyl.drpc.core.cluster;
+
+import com.github.xcfyl.drpc.core.protocol.DrpcResponse;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 只发起一次请求，失败立即返回，适用于非幂等的写操作
+ *
+ * @author 西城风雨楼
+ */
+public class DrpcFailfastCluster implements DrpcCluster {
+    @Override
+    public CompletableFuture<DrpcResponse> invoke(DrpcInvocation invocation) {
+        return invocation.getInvoker().invoke(ConcurrentHashMap.newKeySet(), invocation.getRemainingTimeout());
+    }
+}
@@ -0,0 +1,77 @@
+package com.github.xcfyl.drpc.core.cluster;
+
+import com.github.xcfyl.drpc.core.client.DrpcConnectionWrapper;
+import com.github.xcfyl.drpc.core.protocol.DrpcResponse;
+import io.netty.util.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 请求失败之后换一个没有尝试过的服务提供者重新发送，所有服务提供者都尝试过之后才会重复选择
+ * 重试受到三个条件的约束：方法幂等或者请求还没有发出、客户端的重试预算、调用的截止时间
+ *
+ * @author 西城风雨楼
+ */
+public class DrpcFailoverCluster implements DrpcCluster {
+    private static final Logger logger = LoggerFactory.getLogger(DrpcFailoverCluster.class);
+
+    private final DrpcRetryBudget retryBudget;
+    /**
+     * 用于延迟执行重试，避免阻塞发起重试的线程
+     */
+    private final Timer timer;
+
+    public DrpcFailoverCluster(DrpcRetryBudget retryBudget, Timer timer) {
+        this.retryBudget = retryBudget;
+        this.timer = timer;
+    }
+
+    @Override
+    public CompletableFuture<DrpcResponse> invoke(DrpcInvocation invocation) {
+        CompletableFuture<DrpcResponse> result = new CompletableFuture<>();
+        retryBudget.deposit();
+        doInvoke(invocation, ConcurrentHashMap.newKeySet(), 0, result);
+        return result;
+    }
+
+    private void doInvoke(DrpcInvocation invocation, Set<DrpcConnectionWrapper> excluded, int retried,
+                          CompletableFuture<DrpcResponse> result) {
+        invocation.getInvoker().invoke(excluded, invocation.getRemainingTimeout()).whenComplete((response, throwable) -> {
+            if (throwable == null) {
+                result.complete(response);
+                return;
+            }
+            if (retried >= invocation.getRetryTimes() || !invocation.isRetryable(throwable)) {
+                result.completeExceptionally(throwable);
+                return;
+            }
+            long delay = invocation.getRetryInterval();
+            if (invocation.getRemainingTimeout() <= delay) {
+                // 等到重试的时候已经超过了截止时间
+                result.completeExceptionally(throwable);
+                return;
+            }
+            if (!retryBudget.tryAcquire()) {
+                logger.error("retry budget exhausted, give up retrying {}#{}",
+                        invocation.getServiceName(), invocation.getMethodName());
+                result.completeExceptionally(throwable);
+                return;
+            }
+            if (logger.isDebugEnabled()) {
+                logger.debug("invoke {}#{} failure, retry {} -> {}", invocation.getServiceName(),
+                        invocation.getMethodName(), retried + 1, throwable.getMessage());
+            }
+            if (delay > 0) {
+                timer.newTimeout(timeout -> doInvoke(invocation, excluded, retried + 1, result),
+                        delay, TimeUnit.MILLISECONDS);
+            } else {
+                doInvoke(invocation, excluded, retried + 1, result);
+            }
+        });
+    }
+}
@@ -0,0 +1,30 @@
+package com.github.xcfyl.drpc.core.cluster;
+
+import com.github.xcfyl.drpc.core.protocol.DrpcResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 只发起一次请求，失败时记录日志并返回空结果，适用于写日志等允许丢失的调用
+ *
+ * @author 西城风雨楼
+ */
+public class DrpcFailsafeCluster implements DrpcCluster {
+    private static final Logger logger = LoggerFactory.getLogger(DrpcFailsafeCluster.class);
+
+    @Override
+    public CompletableFuture<DrpcResponse> invoke(DrpcInvocation invocation) {
+        return invocation.getInvoker().invoke(ConcurrentHashMap.newKeySet(), invocation.getRemainingTimeout())
+                .handle((response, throwable) -> {
+                    if (throwable == null) {
+                        return response;
+                    }
+                    logger.error("invoke {}#{} failure, ignore it -> {}", invocation.getServiceName(),
+                            invocation.getMethodName(), throwable.getMessage());
+                    return new DrpcResponse();
+                });
+    }
+}
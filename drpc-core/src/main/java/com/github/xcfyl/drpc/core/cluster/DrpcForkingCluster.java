@@ -0,0 +1,57 @@
+package com.github.xcfyl.drpc.core.cluster;
+
+import com.github.xcfyl.drpc.core.client.DrpcConnectionWrapper;
+import com.github.xcfyl.drpc.core.protocol.DrpcResponse;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 同时向retryTimes + 1个不同的服务提供者发送请求，第一个成功的响应作为结果，全部失败时调用失败
+ * 并行数不超过服务提供者的数量，额外的请求同样消耗重试预算，非幂等方法只发送一次
+ *
+ * @author 西城风雨楼
+ */
+public class DrpcForkingCluster implements DrpcCluster {
+    private final DrpcRetryBudget retryBudget;
+
+    public DrpcForkingCluster(DrpcRetryBudget retryBudget) {
+        this.retryBudget = retryBudget;
+    }
+
+    @Override
+    public CompletableFuture<DrpcResponse> invoke(DrpcInvocation invocation) {
+        retryBudget.deposit();
+        int maxForks = invocation.isIdempotent()
+                ? Math.min(invocation.getRetryTimes() + 1, invocation.getProviderCount()) : 1;
+        int forks = 1;
+        while (forks < maxForks && retryBudget.tryAcquire()) {
+            forks++;
+        }
+        CompletableFuture<DrpcResponse> result = new CompletableFuture<>();
+        Set<DrpcConnectionWrapper> excluded = ConcurrentHashMap.newKeySet();
+        AtomicInteger remain = new AtomicInteger(forks);
+        long timeout = invocation.getRemainingTimeout();
+        List<CompletableFuture<DrpcResponse>> attempts = new ArrayList<>(forks);
+        for (int i = 0; i < forks; i++) {
+            attempts.add(invocation.getInvoker().invoke(excluded, timeout));
+        }
+        for (CompletableFuture<DrpcResponse> attempt : attempts) {
+            attempt.whenComplete((response, throwable) -> {
+                if (throwable == null) {
+                    if (result.complete(response)) {
+                        // 其余请求的结果已经没有意义，取消之后晚到的响应会被直接丢弃
+                        attempts.forEach(other -> other.cancel(false));
+                    }
+                } else if (remain.decrementAndGet() == 0) {
+                    result.completeExceptionally(throwable);
+                }
+            });
+        }
+        return result;
+    }
+}
@@ -0,0 +1,169 @@
+package com.github.xcfyl.drpc.core.cluster;
+
+import com.github.xcfyl.drpc.core.client.DrpcConnectionWrapper;
+import com.github.xcfyl.drpc.core.exception.DrpcRequestTimeoutException;
+import com.github.xcfyl.drpc.core.protocol.DrpcResponse;
+import io.netty.util.Timeout;
+import io.netty.util.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 对冲请求：第一个请求超过该方法响应时间的percentile百分位数仍未返回时，向另一个服务提供者再发送一份请求，
+ * 第一个成功的响应作为结果，其余请求被取消，取消的请求晚到的响应会被直接丢弃
+ * 请求失败时立即发送下一份请求，不再等待延迟；对冲请求同样消耗重试预算，非幂等方法只发送一次
+ * 每个方法的响应时间样本不足时不发送对冲请求，被取消和超时的请求按照已经等待的时间计入样本
+ *
+ * @author 西城风雨楼
+ */
+public class DrpcHedgingCluster implements DrpcCluster {
+    private static final Logger logger = LoggerFactory.getLogger(DrpcHedgingCluster.class);
+
+    private final DrpcRetryBudget retryBudget;
+    private final Timer timer;
+    private final int percentile;
+    private final long minDelayNanos;
+    private final int maxRequests;
+    /**
+     * 方法名称 -> 该方法最近的响应时间
+     */
+    private final Map<String, DrpcLatencyHistogram> latencies = new ConcurrentHashMap<>();
+
+    /**
+     * @param retryBudget 重试预算
+     * @param timer       用于延迟发送对冲请求
+     * @param percentile  对冲延迟取响应时间的百分位数
+     * @param minDelay    对冲延迟的最小值，单位毫秒
+     * @param maxRequests 一次调用最多发送的请求数，包括第一个请求
+     */
+    public DrpcHedgingCluster(DrpcRetryBudget retryBudget, Timer timer, int percentile, long minDelay,
+                              int maxRequests) {
+        this.retryBudget = retryBudget;
+        this.timer = timer;
+        this.percentile = Math.min(Math.max(percentile, 1), 100);
+        this.minDelayNanos = TimeUnit.MILLISECONDS.toNanos(minDelay);
+        this.maxRequests = Math.max(maxRequests, 1);
+    }
+
+    @Override
+    public CompletableFuture<DrpcResponse> invoke(DrpcInvocation invocation) {
+        retryBudget.deposit();
+        DrpcLatencyHistogram histogram = latencies.computeIfAbsent(invocation.getMethodName(),
+                key -> new DrpcLatencyHistogram());
+        int limit = invocation.isIdempotent() ? Math.min(maxRequests, invocation.getProviderCount()) : 1;
+        HedgedCall call = new HedgedCall(invocation, histogram, Math.max(limit, 1));
+        call.send(false);
+        return call.result;
+    }
+
+    /**
+     * 一次调用的所有请求
+     */
+    private final class HedgedCall {
+        private final DrpcInvocation invocation;
+        private final DrpcLatencyHistogram histogram;
+        private final int limit;
+        private final CompletableFuture<DrpcResponse> result = new CompletableFuture<>();
+        private final Set<DrpcConnectionWrapper> excluded = ConcurrentHashMap.newKeySet();
+        private final List<CompletableFuture<DrpcResponse>> attempts = new ArrayList<>();
+        private int failed;
+        private Timeout hedgeTimeout;
+
+        private HedgedCall(DrpcInvocation invocation, DrpcLatencyHistogram histogram, int limit) {
+            this.invocation = invocation;
+            this.histogram = histogram;
+            this.limit = limit;
+        }
+
+        /**
+         * 发送一份请求，并安排下一份对冲请求
+         *
+         * @param hedge 是否为对冲请求，对冲请求需要消耗重试预算
+         */
+        private synchronized void send(boolean hedge) {
+            hedgeTimeout = null;
+            if (result.isDone() || attempts.size() >= limit) {
+                return;
+            }
+            long timeout = invocation.getRemainingTimeout();
+            if (hedge && (timeout <= 0 || !retryBudget.tryAcquire())) {
+                return;
+            }
+            if (hedge && logger.isDebugEnabled()) {
+                logger.debug("send hedged request {} of {}#{}", attempts.size(), invocation.getServiceName(),
+                        invocation.getMethodName());
+            }
+            long startTime = System.nanoTime();
+            CompletableFuture<DrpcResponse> attempt = invocation.getInvoker().invoke(excluded, timeout);
+            attempts.add(attempt);
+            attempt.whenComplete((response, throwable) -> onComplete(attempt, startTime, response, throwable));
+            scheduleHedge();
+        }
+
+        private void scheduleHedge() {
+            if (result.isDone() || hedgeTimeout != null || attempts.size() >= limit) {
+                return;
+            }
+            long delay = histogram.getPercentile(percentile);
+            if (delay < 0) {
+                // 还没有足够的响应时间样本
+                return;
+            }
+            hedgeTimeout = timer.newTimeout(timeout -> send(true), Math.max(delay, minDelayNanos),
+                    TimeUnit.NANOSECONDS);
+        }
+
+        private synchronized void onComplete(CompletableFuture<DrpcResponse> attempt, long startTime,
+                                             DrpcResponse response, Throwable throwable) {
+            if (throwable == null) {
+                histogram.record(System.nanoTime() - startTime);
+                if (result.complete(response)) {
+                    cancelOthers(attempt);
+                }
+                return;
+            }
+            if (throwable instanceof CancellationException || throwable instanceof DrpcRequestTimeoutException) {
+                // 被取消或者超时的请求至少已经等待了这么久，同样计入样本，
+                // 否则慢请求永远不会出现在样本中，对冲延迟越来越小，对冲比例越来越高
+                histogram.record(System.nanoTime() - startTime);
+            }
+            if (result.isDone()) {
+                // 被取消的请求
+                return;
+            }
+            failed++;
+            if (invocation.isRetryable(throwable)) {
+                // 已有的请求失败，不再等待对冲延迟
+                if (hedgeTimeout != null) {
+                    hedgeTimeout.cancel();
+                    hedgeTimeout = null;
+                }
+                send(true);
+            }
+            if (failed == attempts.size() && result.completeExceptionally(throwable) && hedgeTimeout != null) {
+                hedgeTimeout.cancel();
+            }
+        }
+
+        private void cancelOthers(CompletableFuture<DrpcResponse> winner) {
+            if (hedgeTimeout != null) {
+                hedgeTimeout.cancel();
+                hedgeTimeout = null;
+            }
+            for (CompletableFuture<DrpcResponse> attempt : attempts) {
+                if (attempt != winner) {
+                    attempt.cancel(false);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package com.github.xcfyl.drpc.core.cluster;
+
+import com.github.xcfyl.drpc.core.exception.DrpcRequestNotSentException;
+import com.github.xcfyl.drpc.core.exception.DrpcServerOverloadedException;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 一次rpc调用，包含集群容错层需要的参数，同一次调用的所有重试共享同一个截止时间
+ *
+ * @author 西城风雨楼
+ */
+public class DrpcInvocation {
+    /**
+     * 调用的服务名称
+     */
+    private String serviceName;
+    /**
+     * 调用的方法名称
+     */
+    private String methodName;
+    /**
+     * 方法是否幂等
+     */
+    private boolean idempotent;
+    /**
+     * 当前服务的服务提供者数量
+     */
+    private int providerCount;
+    /**
+     * 最多重试的次数
+     */
+    private int retryTimes;
+    /**
+     * 两次重试之间的间隔时间，单位毫秒
+     */
+    private long retryInterval;
+    /**
+     * 每次发送的超时时间，单位毫秒
+     */
+    private long timeout;
+    /**
+     * 整个调用的截止时间，System.nanoTime()的取值，0表示没有截止时间
+     */
+    private long deadline;
+    /**
+     * 负责实际发送请求
+     */
+    private DrpcInvoker invoker;
+
+    public DrpcInvocation() {
+    }
+
+    /**
+     * 计算下一次发送可以使用的超时时间，不会超过截止时间
+     *
+     * @return 单位毫秒，小于等于0表示已经超过截止时间
+     */
+    public long getRemainingTimeout() {
+        if (deadline == 0) {
+            return timeout;
+        }
+        long remainingNanos = deadline - System.nanoTime();
+        if (remainingNanos <= 0) {
+            return 0;
+        }
+        // 不足1毫秒的剩余时间向上取整，否则会被当成没有截止时间发给服务端
+        long remaining = (remainingNanos + TimeUnit.MILLISECONDS.toNanos(1) - 1) / TimeUnit.MILLISECONDS.toNanos(1);
+        return Math.min(timeout, remaining);
+    }
+
+    /**
+     * 判断失败的请求能否再次发送，还没有发出的请求总是可以重试，已经发出的请求只有幂等方法才能重试
+     *
+     * @param cause 失败原因
+     * @return
+     */
+    public boolean isRetryable(Throwable cause) {
+        return idempotent || cause instanceof DrpcRequestNotSentException
+                || cause instanceof DrpcServerOverloadedException;
+    }
+
+    public String getServiceName() {
+        return serviceName;
+    }
+
+    public void setServiceName(String serviceName) {
+        this.serviceName = serviceName;
+    }
+
+    public String getMethodName() {
+        return methodName;
+    }
+
+    public void setMethodName(String methodName) {
+        this.methodName = methodName;
+    }
+
+    public boolean isIdempotent() {
+        return idempotent;
+    }
+
+    public void setIdempotent(boolean idempotent) {
+        this.idempotent = idempotent;
+    }
+
+    public int getProviderCount() {
+        return providerCount;
+    }
+
+    public void setProviderCount(int providerCount) {
+        this.providerCount = providerCount;
+    }
+
+    public int getRetryTimes() {
+        return retryTimes;
+    }
+
+    public void setRetryTimes(int retryTimes) {
+        this.retryTimes = retryTimes;
+    }
+
+    public long getRetryInterval() {
+        return retryInterval;
+    }
+
+    public void setRetryInterval(long retryInterval) {
+        this.retryInterval = retryInterval;
+    }
+
+    public long getTimeout() {
+        return timeout;
+    }
+
+    public void setTimeout(long timeout) {
+        this.timeout = timeout;
+    }
+
+    public long getDeadline() {
+        return deadline;
+    }
+
+    public void setDeadline(long deadline) {
+        this.deadline = deadline;
+    }
+
+    public DrpcInvoker getInvoker() {
+        return invoker;
+    }
+
+    public void setInvoker(DrpcInvoker invoker) {
+        this.invoker = invoker;
+    }
+
+    @Override
+    public String toString() {
+        return "DrpcInvocation{" +
+                "serviceName='" + serviceName + '\'' +
+                ", methodName='" + methodName + '\'' +
+                ", idempotent=" + idempotent +
+                ", retryTimes=" + retryTimes +
+                ", timeout=" + timeout +
+                '}';
+    }
+}
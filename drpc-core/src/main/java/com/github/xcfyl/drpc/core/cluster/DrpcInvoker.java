@@ -0,0 +1,24 @@
+package com.github.xcfyl.drpc.core.cluster;
+
+import com.github.xcfyl.drpc.core.client.DrpcConnectionWrapper;
+import com.github.xcfyl.drpc.core.protocol.DrpcResponse;
+
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * 向某一个服务提供者发送一次请求
+ *
+ * @author 西城风雨楼
+ */
+@FunctionalInterface
+public interface DrpcInvoker {
+    /**
+     * 选择一个服务提供者发送一次请求，每次发送都使用新的请求id
+     *
+     * @param excluded 本次调用已经尝试过的服务提供者，选择时优先避开，选中的服务提供者会被加入其中
+     * @param timeout  本次发送的超时时间，单位毫秒
+     * @return 响应到达时完成的future，请求还没有发出就失败时以DrpcRequestNotSentException结束
+     */
+    CompletableFuture<DrpcResponse> invoke(Set<DrpcConnectionWrapper> excluded, long timeout);
+}
@@ -0,0 +1,108 @@
+package com.github.xcfyl.drpc.core.cluster;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 响应时间的对数分桶直方图，用于估计最近响应时间的百分位数
+ * 桶的上界从50微秒开始按1.2倍递增，相对误差不超过20%；
+ * 样本数达到maxSamples之后所有桶减半，旧样本的权重逐渐降低，直方图能够跟上延迟的变化
+ *
+ * @author 西城风雨楼
+ */
+public class DrpcLatencyHistogram {
+    private static final long MIN_BOUND_NANOS = 50_000L;
+    private static final double GROWTH = 1.2;
+    private static final int BUCKET_COUNT = 80;
+    /**
+     * 每个桶的上界，单位纳秒，最后一个桶容纳所有更大的样本
+     */
+    private static final long[] BOUNDS = new long[BUCKET_COUNT];
+
+    static {
+        double bound = MIN_BOUND_NANOS;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            BOUNDS[i] = (long) bound;
+            bound *= GROWTH;
+        }
+        BOUNDS[BUCKET_COUNT - 1] = Long.MAX_VALUE;
+    }
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+    private final AtomicLong total = new AtomicLong();
+    private final int minSamples;
+    private final int maxSamples;
+
+    public DrpcLatencyHistogram() {
+        this(20, 1000);
+    }
+
+    /**
+     * @param minSamples 样本数少于该值时不给出百分位数
+     * @param maxSamples 样本数达到该值时衰减旧样本
+     */
+    public DrpcLatencyHistogram(int minSamples, int maxSamples) {
+        this.minSamples = minSamples;
+        this.maxSamples = maxSamples;
+    }
+
+    /**
+     * 记录一次响应时间
+     *
+     * @param latencyNanos 单位纳秒
+     */
+    public void record(long latencyNanos) {
+        counts.incrementAndGet(indexOf(latencyNanos));
+        if (total.incrementAndGet() >= maxSamples) {
+            decay();
+        }
+    }
+
+    /**
+     * 估计响应时间的百分位数
+     *
+     * @param percentile 百分位，取值1~100
+     * @return 单位纳秒，样本不足时返回-1
+     */
+    public long getPercentile(int percentile) {
+        long count = total.get();
+        if (count < minSamples) {
+            return -1;
+        }
+        long target = (count * percentile + 99) / 100;
+        long seen = 0;
+        for (int i = 0; i < BUCKET_COUNT - 1; i++) {
+            seen += counts.get(i);
+            if (seen >= target) {
+                return BOUNDS[i];
+            }
+        }
+        // 落在最后一个桶中的样本没有上界，取倒数第二个桶的上界
+        return BOUNDS[BUCKET_COUNT - 2];
+    }
+
+    private synchronized void decay() {
+        if (total.get() < maxSamples) {
+            return;
+        }
+        long sum = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            sum += counts.updateAndGet(i, value -> value / 2);
+        }
+        total.set(sum);
+    }
+
+    private static int indexOf(long latencyNanos) {
+        int low = 0;
+        int high = BUCKET_COUNT - 1;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (BOUNDS[mid] < latencyNanos) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+}
@@ -0,0 +1,76 @@
+package com.github.xcfyl.drpc.core.cluster;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 客户端级别的重试预算，避免服务提供者大面积故障时重试请求成倍放大流量
+ * 每个正常请求存入ratio/100个令牌，每次重试消耗一个令牌，最多累积capacity个令牌
+ * 长期来看重试请求数不会超过正常请求数的ratio%，同时允许少量的突发重试
+ *
+ * @author 西城风雨楼
+ */
+public class DrpcRetryBudget {
+    /**
+     * 令牌以百分之一为单位保存，避免浮点运算
+     */
+    private static final long UNIT = 100;
+
+    private final int ratio;
+    private final long capacity;
+    private final AtomicLong balance;
+
+    /**
+     * @param ratio    重试请求数最多占正常请求数的百分比，小于等于0表示不限制重试
+     * @param capacity 最多累积的重试次数
+     */
+    public DrpcRetryBudget(int ratio, int capacity) {
+        this.ratio = ratio;
+        this.capacity = Math.max(capacity, 1) * UNIT;
+        this.balance = new AtomicLong(this.capacity);
+    }
+
+    /**
+     * 每发起一次新的调用存入一次令牌
+     */
+    public void deposit() {
+        if (ratio <= 0) {
+            return;
+        }
+        for (; ; ) {
+            long current = balance.get();
+            long next = Math.min(current + ratio, capacity);
+            if (current == next || balance.compareAndSet(current, next)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * 申请一次重试
+     *
+     * @return 预算不足时返回false
+     */
+    public boolean tryAcquire() {
+        if (ratio <= 0) {
+            return true;
+        }
+        for (; ; ) {
+            long current = balance.get();
+            if (current < UNIT) {
+                return false;
+            }
+            if (balance.compareAndSet(current, current - UNIT)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * 当前还可以重试的次数
+     *
+     * @return
+     */
+    public long getAvailableRetries() {
+        return balance.get() / UNIT;
+    }
+}
@@ -0,0 +1,17 @@
+package com.github.xcfyl.drpc.core.common.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 标注在服务接口或者接口方法上，表示方法是幂等的，重复执行不会产生副作用
+ * 只有幂等方法在请求已经发出之后（例如超时、连接断开）才允许重试或者并行发送到多个服务提供者
+ *
+ * @author 西城风雨楼
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.TYPE, ElementType.METHOD})
+public @interface DrpcIdempotent {
+}
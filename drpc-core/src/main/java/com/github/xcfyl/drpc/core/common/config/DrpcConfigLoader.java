@@ -2,6 +2,7 @@ package com.github.xcfyl.drpc.core.common.config;
 
 import com.alibaba.fastjson.JSON;
 import com.github.xcfyl.drpc.core.client.DrpcClientConfig;
+import com.github.xcfyl.drpc.core.client.DrpcConnectionWrapper;
 import com.github.xcfyl.drpc.core.common.enums.*;
 import com.github.xcfyl.drpc.core.exception.DrpcConfigException;
 import com.github.xcfyl.drpc.core.server.DrpcServerConfig;
@@ -73,9 +74,60 @@ public class DrpcConfigLoader {
                 DrpcServerConfigName.SERVER_REGISTRY_ADDR.getDescription(), "127.0.0.1:2181");
         // 获取序列化器类型
         String serializeType = getString(properties,
-                DrpcServerConfigName.SERVER_SERIALIZE_TYPE.toString(), DrpcSerializeType.FASTJSON.getDescription());
+                DrpcServerConfigName.SERVER_SERIALIZE_TYPE.getDescription(), DrpcSerializeType.FASTJSON.getDescription());
         // 获取服务端口号
         Integer port = getInteger(properties, DrpcServerConfigName.SERVER_PORT.getDescription(), 1998);
+        // 响应帧是否携带校验和
+        Boolean protocolChecksum = getBoolean(properties,
+                DrpcServerConfigName.SERVER_PROTOCOL_CHECKSUM.getDescription(), false);
+        // 服务方法执行的线程模型
+        String dispatchType = getString(properties,
+                DrpcServerConfigName.SERVER_DISPATCHER.getDescription(), DrpcDispatchType.SHARED.getDescription());
+        // 业务线程数和队列长度
+        Integer businessThreads = getInteger(properties,
+                DrpcServerConfigName.SERVER_BUSINESS_THREADS.getDescription(), 200);
+        Integer businessQueueSize = getInteger(properties,
+                DrpcServerConfigName.SERVER_BUSINESS_QUEUE_SIZE.getDescription(), 3000);
+        // 服务提供者的权重
+        Integer weight = getInteger(properties,
+                DrpcServerConfigName.SERVER_WEIGHT.getDescription(), DrpcConnectionWrapper.DEFAULT_WEIGHT);
+        // 是否合并响应的flush，以及每次flush最多包含的消息数
+        Boolean flushConsolidation = getBoolean(properties,
+                DrpcServerConfigName.SERVER_FLUSH_CONSOLIDATION.getDescription(), false);
+        Integer flushMaxMessages = getInteger(properties,
+                DrpcServerConfigName.SERVER_FLUSH_MAX_MESSAGES.getDescription(), 64);
+        // 客户端连接读空闲多久之后关闭
+        Long heartbeatTimeout = getLong(properties,
+                DrpcServerConfigName.SERVER_HEARTBEAT_TIMEOUT.getDescription(), 90000L);
+        // 并发限制器，超过并发上限的请求直接以OVERLOADED拒绝
+        String limiterType = getString(properties,
+                DrpcServerConfigName.SERVER_LIMITER_TYPE.getDescription(), DrpcLimiterType.NONE.getDescription());
+        Boolean limiterPerService = getBoolean(properties,
+                DrpcServerConfigName.SERVER_LIMITER_PER_SERVICE.getDescription(), false);
+        Integer limiterMaxConcurrency = getInteger(properties,
+                DrpcServerConfigName.SERVER_LIMITER_MAX_CONCURRENCY.getDescription(), 1000);
+        Integer limiterInitialConcurrency = getInteger(properties,
+                DrpcServerConfigName.SERVER_LIMITER_INITIAL_CONCURRENCY.getDescription(), 20);
+        // 响应按照请求的压缩方式压缩，小于阈值的响应不压缩
+        Integer compressThreshold = getInteger(properties,
+                DrpcServerConfigName.SERVER_COMPRESS_THRESHOLD.getDescription(), 2048);
+        // 传输层，auto在linux上优先使用epoll
+        String transportType = getString(properties,
+                DrpcServerConfigName.SERVER_TRANSPORT.getDescription(), DrpcTransportType.AUTO.getDescription());
+        Integer bossThreads = getInteger(properties,
+                DrpcServerConfigName.SERVER_BOSS_THREADS.getDescription(), 1);
+        Integer workerThreads = getInteger(properties,
+                DrpcServerConfigName.SERVER_WORKER_THREADS.getDescription(), 0);
+        Integer acceptors = getInteger(properties,
+                DrpcServerConfigName.SERVER_ACCEPTORS.getDescription(), 1);
+        Integer sendBufferSize = getInteger(properties,
+                DrpcServerConfigName.SERVER_SEND_BUFFER.getDescription(), 0);
+        Integer receiveBufferSize = getInteger(properties,
+                DrpcServerConfigName.SERVER_RECEIVE_BUFFER.getDescription(), 0);
+        Integer writeBufferLowWaterMark = getInteger(properties,
+                DrpcServerConfigName.SERVER_WRITE_BUFFER_LOW_WATER_MARK.getDescription(), 32 * 1024);
+        Integer writeBufferHighWaterMark = getInteger(properties,
+                DrpcServerConfigName.SERVER_WRITE_BUFFER_HIGH_WATER_MARK.getDescription(), 64 * 1024);
         // 设置服务器的配置
         serverConfig.setPort(port);
         serverConfig.setApplicationName(applicationName);
@@ -83,6 +135,27 @@ public class DrpcConfigLoader {
         serverConfig.setRegistryType(DrpcRegistryType.fromDescription(registryType));
         serverConfig.setRegistryAddr(registryAddr);
         serverConfig.setSerializeType(DrpcSerializeType.fromDescription(serializeType));
+        serverConfig.setProtocolChecksum(protocolChecksum);
+        serverConfig.setDispatchType(DrpcDispatchType.fromDescription(dispatchType));
+        serverConfig.setBusinessThreads(businessThreads);
+        serverConfig.setBusinessQueueSize(businessQueueSize);
+        serverConfig.setWeight(weight);
+        serverConfig.setFlushConsolidation(flushConsolidation);
+        serverConfig.setFlushMaxMessages(flushMaxMessages);
+        serverConfig.setHeartbeatTimeout(heartbeatTimeout);
+        serverConfig.setLimiterType(DrpcLimiterType.fromDescription(limiterType));
+        serverConfig.setLimiterPerService(limiterPerService);
+        serverConfig.setLimiterMaxConcurrency(limiterMaxConcurrency);
+        serverConfig.setLimiterInitialConcurrency(limiterInitialConcurrency);
+        serverConfig.setCompressThreshold(compressThreshold);
+        serverConfig.setTransportType(DrpcTransportType.fromDescription(transportType));
+        serverConfig.setBossThreads(bossThreads);
+        serverConfig.setWorkerThreads(workerThreads);
+        serverConfig.setAcceptors(acceptors);
+        serverConfig.setSendBufferSize(sendBufferSize);
+        serverConfig.setReceiveBufferSize(receiveBufferSize);
+        serverConfig.setWriteBufferLowWaterMark(writeBufferLowWaterMark);
+        serverConfig.setWriteBufferHighWaterMark(writeBufferHighWaterMark);
         if (logger.isDebugEnabled()) {
             logger.debug("===========================DrpcClient========================");
             logger.debug("{}", JSON.toJSON(serverConfig));
@@ -116,7 +189,7 @@ public class DrpcConfigLoader {
                 DrpcClientConfigName.CLIENT_REGISTRY_ADDR.getDescription(), "127.0.0.1:2181");
         // 获取序列化器的类型
         String serializeType = getString(properties,
-                DrpcClientConfigName.CLIENT_SERIALIZE_TYPE.toString(), DrpcSerializeType.FASTJSON.getDescription());
+                DrpcClientConfigName.CLIENT_SERIALIZE_TYPE.getDescription(), DrpcSerializeType.FASTJSON.getDescription());
         // 获取请求时间
         Long requestTimeout = getLong(properties,
                 DrpcClientConfigName.CLIENT_REQUEST_TIMEOUT.getDescription(), 3000L);
@@ -133,11 +206,81 @@ public class DrpcConfigLoader {
         Integer requestRetryTimes = getInteger(properties,
                 DrpcClientConfigName.CLIENT_REQUEST_RETRY_TIMES.getDescription(), 3);
         Long requestRetryInterval = getLong(properties,
-                DrpcClientConfigName.CLIENT_REQUEST_RETRY_INTERVAL.getDescription(), 1000L);
+                DrpcClientConfigName.CLIENT_REQUEST_RETRY_INTERVAL.getDescription(), 0L);
         Integer reconnectTimes = getInteger(properties,
                 DrpcClientConfigName.CLIENT_RECONNECT_TIMES.getDescription(), 3);
         Long reconnectInterval = getLong(properties,
                 DrpcClientConfigName.CLIENT_RECONNECT_INTERVAL.getDescription(), 1000L);
+        Boolean protocolChecksum = getBoolean(properties,
+                DrpcClientConfigName.CLIENT_PROTOCOL_CHECKSUM.getDescription(), false);
+        Boolean flushConsolidation = getBoolean(properties,
+                DrpcClientConfigName.CLIENT_FLUSH_CONSOLIDATION.getDescription(), false);
+        Integer flushMaxMessages = getInteger(properties,
+                DrpcClientConfigName.CLIENT_FLUSH_MAX_MESSAGES.getDescription(), 64);
+        Integer poolMinConnections = getInteger(properties,
+                DrpcClientConfigName.CLIENT_POOL_MIN_CONNECTIONS.getDescription(), 1);
+        Integer poolMaxConnections = getInteger(properties,
+                DrpcClientConfigName.CLIENT_POOL_MAX_CONNECTIONS.getDescription(), 1);
+        Integer poolMaxInFlight = getInteger(properties,
+                DrpcClientConfigName.CLIENT_POOL_MAX_IN_FLIGHT.getDescription(), 0);
+        Long poolIdleTimeout = getLong(properties,
+                DrpcClientConfigName.CLIENT_POOL_IDLE_TIMEOUT.getDescription(), 60000L);
+        Long heartbeatInterval = getLong(properties,
+                DrpcClientConfigName.CLIENT_HEARTBEAT_INTERVAL.getDescription(), 30000L);
+        Long heartbeatTimeout = getLong(properties,
+                DrpcClientConfigName.CLIENT_HEARTBEAT_TIMEOUT.getDescription(), 90000L);
+        Boolean breakerEnabled = getBoolean(properties,
+                DrpcClientConfigName.CLIENT_BREAKER_ENABLED.getDescription(), false);
+        Integer breakerWindowSize = getInteger(properties,
+                DrpcClientConfigName.CLIENT_BREAKER_WINDOW_SIZE.getDescription(), 100);
+        Integer breakerMinimumCalls = getInteger(properties,
+                DrpcClientConfigName.CLIENT_BREAKER_MINIMUM_CALLS.getDescription(), 20);
+        Integer breakerFailureRate = getInteger(properties,
+                DrpcClientConfigName.CLIENT_BREAKER_FAILURE_RATE.getDescription(), 50);
+        Integer breakerSlowCallRate = getInteger(properties,
+                DrpcClientConfigName.CLIENT_BREAKER_SLOW_CALL_RATE.getDescription(), 100);
+        Long breakerSlowCallDuration = getLong(properties,
+                DrpcClientConfigName.CLIENT_BREAKER_SLOW_CALL_DURATION.getDescription(), 3000L);
+        Long breakerOpenDuration = getLong(properties,
+                DrpcClientConfigName.CLIENT_BREAKER_OPEN_DURATION.getDescription(), 10000L);
+        Integer breakerHalfOpenCalls = getInteger(properties,
+                DrpcClientConfigName.CLIENT_BREAKER_HALF_OPEN_CALLS.getDescription(), 5);
+        String clusterType = getString(properties,
+                DrpcClientConfigName.CLIENT_CLUSTER_TYPE.getDescription(), DrpcClusterType.FAILOVER.getDescription());
+        Long requestDeadline = getLong(properties,
+                DrpcClientConfigName.CLIENT_REQUEST_DEADLINE.getDescription(), 0L);
+        Integer retryBudgetRatio = getInteger(properties,
+                DrpcClientConfigName.CLIENT_RETRY_BUDGET_RATIO.getDescription(), 20);
+        Integer retryBudgetCapacity = getInteger(properties,
+                DrpcClientConfigName.CLIENT_RETRY_BUDGET_CAPACITY.getDescription(), 10);
+        Integer hedgePercentile = getInteger(properties,
+                DrpcClientConfigName.CLIENT_HEDGE_PERCENTILE.getDescription(), 95);
+        Long hedgeMinDelay = getLong(properties,
+                DrpcClientConfigName.CLIENT_HEDGE_MIN_DELAY.getDescription(), 10L);
+        Integer hedgeMaxRequests = getInteger(properties,
+                DrpcClientConfigName.CLIENT_HEDGE_MAX_REQUESTS.getDescription(), 2);
+        Long overloadBackoff = getLong(properties,
+                DrpcClientConfigName.CLIENT_OVERLOAD_BACKOFF.getDescription(), 1000L);
+        // 请求的压缩方式和阈值，可以被每个服务的配置覆盖
+        String compressType = getString(properties,
+                DrpcClientConfigName.CLIENT_COMPRESS_TYPE.getDescription(), DrpcCompressType.NONE.getDescription());
+        Integer compressThreshold = getInteger(properties,
+                DrpcClientConfigName.CLIENT_COMPRESS_THRESHOLD.getDescription(), 2048);
+        // 传输层，auto在linux上优先使用epoll
+        String transportType = getString(properties,
+                DrpcClientConfigName.CLIENT_TRANSPORT.getDescription(), DrpcTransportType.AUTO.getDescription());
+        Integer ioThreads = getInteger(properties,
+                DrpcClientConfigName.CLIENT_IO_THREADS.getDescription(), 0);
+        Integer connectTimeout = getInteger(properties,
+                DrpcClientConfigName.CLIENT_CONNECT_TIMEOUT.getDescription(), 3000);
+        Integer sendBufferSize = getInteger(properties,
+                DrpcClientConfigName.CLIENT_SEND_BUFFER.getDescription(), 0);
+        Integer receiveBufferSize = getInteger(properties,
+                DrpcClientConfigName.CLIENT_RECEIVE_BUFFER.getDescription(), 0);
+        Integer writeBufferLowWaterMark = getInteger(properties,
+                DrpcClientConfigName.CLIENT_WRITE_BUFFER_LOW_WATER_MARK.getDescription(), 32 * 1024);
+        Integer writeBufferHighWaterMark = getInteger(properties,
+                DrpcClientConfigName.CLIENT_WRITE_BUFFER_HIGH_WATER_MARK.getDescription(), 64 * 1024);
         // 设置客户端的配置
         clientConfig.setRequestTimeout(requestTimeout);
         clientConfig.setProxyType(DrpcProxyType.fromDescription(proxyType));
@@ -153,6 +296,40 @@ public class DrpcConfigLoader {
         clientConfig.setRequestRetryInterval(requestRetryInterval);
         clientConfig.setReconnectTimes(reconnectTimes);
         clientConfig.setReconnectInterval(reconnectInterval);
+        clientConfig.setProtocolChecksum(protocolChecksum);
+        clientConfig.setFlushConsolidation(flushConsolidation);
+        clientConfig.setFlushMaxMessages(flushMaxMessages);
+        clientConfig.setPoolMinConnections(poolMinConnections);
+        clientConfig.setPoolMaxConnections(poolMaxConnections);
+        clientConfig.setPoolMaxInFlight(poolMaxInFlight);
+        clientConfig.setPoolIdleTimeout(poolIdleTimeout);
+        clientConfig.setHeartbeatInterval(heartbeatInterval);
+        clientConfig.setHeartbeatTimeout(heartbeatTimeout);
+        clientConfig.setBreakerEnabled(breakerEnabled);
+        clientConfig.setBreakerWindowSize(breakerWindowSize);
+        clientConfig.setBreakerMinimumCalls(breakerMinimumCalls);
+        clientConfig.setBreakerFailureRate(breakerFailureRate);
+        clientConfig.setBreakerSlowCallRate(breakerSlowCallRate);
+        clientConfig.setBreakerSlowCallDuration(breakerSlowCallDuration);
+        clientConfig.setBreakerOpenDuration(breakerOpenDuration);
+        clientConfig.setBreakerHalfOpenCalls(breakerHalfOpenCalls);
+        clientConfig.setClusterType(DrpcClusterType.fromDescription(clusterType));
+        clientConfig.setRequestDeadline(requestDeadline);
+        clientConfig.setRetryBudgetRatio(retryBudgetRatio);
+        clientConfig.setRetryBudgetCapacity(retryBudgetCapacity);
+        clientConfig.setHedgePercentile(hedgePercentile);
+        clientConfig.setHedgeMinDelay(hedgeMinDelay);
+        clientConfig.setHedgeMaxRequests(hedgeMaxRequests);
+        clientConfig.setOverloadBackoff(overloadBackoff);
+        clientConfig.setCompressType(DrpcCompressType.fromDescription(compressType));
+        clientConfig.setCompressThreshold(compressThreshold);
+        clientConfig.setTransportType(DrpcTransportType.fromDescription(transportType));
+        clientConfig.setIoThreads(ioThreads);
+        clientConfig.setConnectTimeout(connectTimeout);
+        clientConfig.setSendBufferSize(sendBufferSize);
+        clientConfig.setReceiveBufferSize(receiveBufferSize);
+        clientConfig.setWriteBufferLowWaterMark(writeBufferLowWaterMark);
+        clientConfig.setWriteBufferHighWaterMark(writeBufferHighWaterMark);
         if (logger.isDebugEnabled()) {
             logger.debug("===========================DrpcClient========================");
             logger.debug("{}", JSON.toJSON(clientConfig));
@@ -173,6 +350,14 @@ public class DrpcConfigLoader {
         return Integer.parseInt(property);
     }
 
+    private Boolean getBoolean(Properties properties, String key, Boolean defaultValue) {
+        String property = properties.getProperty(key);
+        if (property == null) {
+            return defaultValue;
+        }
+        return Boolean.parseBoolean(property);
+    }
+
     private Long getLong(Properties properties, String key, Long defaultValue) {
         String property = properties.getProperty(key);
         if (property == null) {
@@ -0,0 +1,64 @@
+package com.github.xcfyl.drpc.core.common.context;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 当前线程正在处理的rpc请求的上下文，由服务端在执行服务方法之前设置，执行结束之后清除
+ * 服务方法中发起的嵌套rpc调用会自动继承请求的截止时间，调用方放弃等待之后下游也不再继续执行
+ *
+ * @author 西城风雨楼
+ */
+public class DrpcContext {
+    private static final ThreadLocal<DrpcContext> CURRENT = new ThreadLocal<>();
+
+    /**
+     * 请求的截止时间，System.nanoTime()的取值，0表示没有截止时间
+     */
+    private final long deadline;
+
+    public DrpcContext(long deadline) {
+        this.deadline = deadline;
+    }
+
+    /**
+     * 获取当前线程的上下文
+     *
+     * @return 当前线程没有在处理rpc请求时返回null
+     */
+    public static DrpcContext getCurrent() {
+        return CURRENT.get();
+    }
+
+    public static void setCurrent(DrpcContext context) {
+        CURRENT.set(context);
+    }
+
+    public static void removeCurrent() {
+        CURRENT.remove();
+    }
+
+    public long getDeadline() {
+        return deadline;
+    }
+
+    /**
+     * 请求是否已经超过截止时间
+     *
+     * @return
+     */
+    public boolean isExpired() {
+        return deadline != 0 && System.nanoTime() - deadline >= 0;
+    }
+
+    /**
+     * 距离截止时间还剩多少时间
+     *
+     * @return 单位毫秒，没有截止时间时返回Long.MAX_VALUE
+     */
+    public long getRemainingTime() {
+        if (deadline == 0) {
+            return Long.MAX_VALUE;
+        }
+        return TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+    }
+}
@@ -9,7 +9,11 @@ package com.github.xcfyl.drpc.core.common.enums;
 public enum DrpcAttributeName implements DrpcEnum {
     CREATE_TIME(0, "createTime"),
     WEIGHT(1, "weight"),
-    TYPE(2, "type");
+    TYPE(2, "type"),
+    /**
+     * 服务提供者支持的传输协议版本，旧版本的服务提供者没有该属性
+     */
+    PROTOCOL_VERSION(3, "protocolVersion");
 
     private final int code;
     private final String description;
@@ -0,0 +1,57 @@
+package com.github.xcfyl.drpc.core.common.enums;
+
+/**
+ * 熔断器的状态
+ *
+ * @author 西城风雨楼
+ */
+public enum DrpcCircuitBreakerState implements DrpcEnum {
+    /**
+     * 正常放行所有请求，同时统计错误率和慢调用比例
+     */
+    CLOSED(0, "closed"),
+    /**
+     * 拒绝所有请求，经过一段时间之后进入半开状态
+     */
+    OPEN(1, "open"),
+    /**
+     * 只放行少量探测请求，根据探测结果决定恢复还是重新熔断
+     */
+    HALF_OPEN(2, "half_open");
+
+    private final int code;
+    private final String description;
+
+    DrpcCircuitBreakerState(int code, String description) {
+        this.code = code;
+        this.description = description;
+    }
+
+    @Override
+    public int getCode() {
+        return code;
+    }
+
+    @Override
+    public String getDescription() {
+        return description;
+    }
+
+    public static DrpcCircuitBreakerState fromCode(int code) {
+        for (DrpcCircuitBreakerState state : values()) {
+            if (state.code == code) {
+                return state;
+            }
+        }
+        throw new RuntimeException("code转DrpcCircuitBreakerState失败");
+    }
+
+    public static DrpcCircuitBreakerState fromDescription(String description) {
+        for (DrpcCircuitBreakerState state : values()) {
+            if (state.description.equals(description)) {
+                return state;
+            }
+        }
+        throw new RuntimeException("description转DrpcCircuitBreakerState失败");
+    }
+}
@@ -36,7 +36,143 @@ public enum DrpcClientConfigName implements DrpcEnum {
     /**
      * 客户端连接和远程断连之后，尝试重连的次数
      */
-    CLIENT_RECONNECT_TIMES(13, "client.reconnect.times");
+    CLIENT_RECONNECT_TIMES(13, "client.reconnect.times"),
+    /**
+     * 发送的协议帧是否携带校验和
+     */
+    CLIENT_PROTOCOL_CHECKSUM(14, "client.protocol.checksum"),
+    /**
+     * 是否合并请求的flush
+     */
+    CLIENT_FLUSH_CONSOLIDATION(15, "client.flush.consolidation"),
+    /**
+     * 合并flush时，每次flush最多包含的消息数
+     */
+    CLIENT_FLUSH_MAX_MESSAGES(16, "client.flush.max.messages"),
+    /**
+     * 每个服务提供者至少保持的连接数
+     */
+    CLIENT_POOL_MIN_CONNECTIONS(17, "client.pool.min.connections"),
+    /**
+     * 每个服务提供者最多建立的连接数
+     */
+    CLIENT_POOL_MAX_CONNECTIONS(18, "client.pool.max.connections"),
+    /**
+     * 每个连接上最多同时未完成的请求数，0表示不限制
+     */
+    CLIENT_POOL_MAX_IN_FLIGHT(19, "client.pool.max.inflight"),
+    /**
+     * 超过最少连接数的连接空闲多久之后关闭，单位毫秒
+     */
+    CLIENT_POOL_IDLE_TIMEOUT(20, "client.pool.idle.timeout"),
+    /**
+     * 写空闲多久之后发送心跳，单位毫秒，0表示不发送心跳
+     */
+    CLIENT_HEARTBEAT_INTERVAL(21, "client.heartbeat.interval"),
+    /**
+     * 读空闲多久之后认为连接失效，单位毫秒，0表示不检测
+     */
+    CLIENT_HEARTBEAT_TIMEOUT(22, "client.heartbeat.timeout"),
+    /**
+     * 是否开启服务提供者熔断
+     */
+    CLIENT_BREAKER_ENABLED(23, "client.breaker.enabled"),
+    /**
+     * 熔断器统计最近多少次调用
+     */
+    CLIENT_BREAKER_WINDOW_SIZE(24, "client.breaker.window.size"),
+    /**
+     * 窗口内至少有多少次调用才开始计算错误率
+     */
+    CLIENT_BREAKER_MINIMUM_CALLS(25, "client.breaker.minimum.calls"),
+    /**
+     * 触发熔断的错误率，单位百分比
+     */
+    CLIENT_BREAKER_FAILURE_RATE(26, "client.breaker.failure.rate"),
+    /**
+     * 触发熔断的慢调用比例，单位百分比，大于100表示不统计慢调用
+     */
+    CLIENT_BREAKER_SLOW_CALL_RATE(27, "client.breaker.slow.call.rate"),
+    /**
+     * 超过多久的调用计为慢调用，单位毫秒
+     */
+    CLIENT_BREAKER_SLOW_CALL_DURATION(28, "client.breaker.slow.call.duration"),
+    /**
+     * 熔断之后多久进入半开状态，单位毫秒
+     */
+    CLIENT_BREAKER_OPEN_DURATION(29, "client.breaker.open.duration"),
+    /**
+     * 半开状态下放行的探测请求数
+     */
+    CLIENT_BREAKER_HALF_OPEN_CALLS(30, "client.breaker.half.open.calls"),
+    /**
+     * 集群容错策略：failover、failfast、failsafe、forking、hedging
+     */
+    CLIENT_CLUSTER_TYPE(31, "client.cluster.type"),
+    /**
+     * 一次调用（包括所有重试）的总耗时上限，单位毫秒，小于等于0表示不限制
+     */
+    CLIENT_REQUEST_DEADLINE(32, "client.request.deadline"),
+    /**
+     * 重试预算，重试请求数最多占正常请求数的百分比，小于等于0表示不限制
+     */
+    CLIENT_RETRY_BUDGET_RATIO(33, "client.retry.budget.ratio"),
+    /**
+     * 重试预算最多累积的重试次数
+     */
+    CLIENT_RETRY_BUDGET_CAPACITY(34, "client.retry.budget.capacity"),
+    /**
+     * 对冲请求的延迟取该方法最近响应时间的百分位数
+     */
+    CLIENT_HEDGE_PERCENTILE(35, "client.hedge.percentile"),
+    /**
+     * 对冲请求的最小延迟，单位毫秒
+     */
+    CLIENT_HEDGE_MIN_DELAY(36, "client.hedge.min.delay"),
+    /**
+     * 一次调用最多发送的请求数，包括第一个请求
+     */
+    CLIENT_HEDGE_MAX_REQUESTS(37, "client.hedge.max.requests"),
+    /**
+     * 服务提供者返回过载之后，多长时间内不再向其路由请求，单位毫秒
+     */
+    CLIENT_OVERLOAD_BACKOFF(38, "client.overload.backoff"),
+    /**
+     * 请求使用的压缩方式：none、deflate、snappy、lz4
+     */
+    CLIENT_COMPRESS_TYPE(39, "client.compress.type"),
+    /**
+     * 请求的body达到多少字节时才压缩
+     */
+    CLIENT_COMPRESS_THRESHOLD(40, "client.compress.threshold"),
+    /**
+     * 传输层的实现：auto、nio、epoll，auto表示能够使用epoll时使用epoll
+     */
+    CLIENT_TRANSPORT(41, "client.transport"),
+    /**
+     * 负责读写的io线程数，0表示使用netty的默认值
+     */
+    CLIENT_IO_THREADS(42, "client.io.threads"),
+    /**
+     * 建立连接的超时时间，单位毫秒
+     */
+    CLIENT_CONNECT_TIMEOUT(43, "client.connect.timeout"),
+    /**
+     * 连接的SO_SNDBUF，单位字节，0表示使用操作系统的默认值
+     */
+    CLIENT_SEND_BUFFER(44, "client.socket.send.buffer"),
+    /**
+     * 连接的SO_RCVBUF，单位字节，0表示使用操作系统的默认值
+     */
+    CLIENT_RECEIVE_BUFFER(45, "client.socket.receive.buffer"),
+    /**
+     * 写缓冲区的低水位线，单位字节，待写数据回落到该值以下之后连接恢复为可写
+     */
+    CLIENT_WRITE_BUFFER_LOW_WATER_MARK(46, "client.write.buffer.low.water.mark"),
+    /**
+     * 写缓冲区的高水位线，单位字节，待写数据超过该值之后连接变为不可写
+     */
+    CLIENT_WRITE_BUFFER_HIGH_WATER_MARK(47, "client.write.buffer.high.water.mark");
 
     private final int code;
     private final String description;
@@ -0,0 +1,65 @@
+package com.github.xcfyl.drpc.core.common.enums;
+
+/**
+ * 集群容错策略，决定一次调用失败之后如何处理
+ *
+ * @author 西城风雨楼
+ */
+public enum DrpcClusterType implements DrpcEnum {
+    /**
+     * 失败之后换一个服务提供者重试，非幂等方法只有在请求还未发出时才重试
+     */
+    FAILOVER(0, "failover"),
+    /**
+     * 只发起一次请求，失败立即返回
+     */
+    FAILFAST(1, "failfast"),
+    /**
+     * 只发起一次请求，失败时记录日志并返回空结果
+     */
+    FAILSAFE(2, "failsafe"),
+    /**
+     * 同时向多个服务提供者发起请求，第一个成功的响应作为结果，只对幂等方法生效
+     */
+    FORKING(3, "forking"),
+    /**
+     * 第一个请求超过该方法响应时间的百分位数仍未返回时，向另一个服务提供者发送对冲请求，只对幂等方法生效
+     */
+    HEDGING(4, "hedging");
+
+    private final int code;
+    private final String description;
+
+    DrpcClusterType(int code, String description) {
+        this.code = code;
+        this.description = description;
+    }
+
+    @Override
+    public int getCode() {
+        return code;
+    }
+
+    @Override
+    public String getDescription() {
+        return description;
+    }
+
+    public static DrpcClusterType fromCode(int code) {
+        for (DrpcClusterType clusterType : values()) {
+            if (clusterType.code == code) {
+                return clusterType;
+            }
+        }
+        throw new RuntimeException("code转DrpcClusterType失败");
+    }
+
+    public static DrpcClusterType fromDescription(String description) {
+        for (DrpcClusterType clusterType : values()) {
+            if (clusterType.description.equals(description)) {
+                return clusterType;
+            }
+        }
+        throw new RuntimeException("description转DrpcClusterType失败");
+    }
+}
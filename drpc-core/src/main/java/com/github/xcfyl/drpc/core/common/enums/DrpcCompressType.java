@@ -0,0 +1,61 @@
+package com.github.xcfyl.drpc.core.common.enums;
+
+/**
+ * body的压缩方式，对应协议头部的compressType
+ *
+ * @author 西城风雨楼
+ */
+public enum DrpcCompressType implements DrpcEnum {
+    /**
+     * 不压缩
+     */
+    NONE(0, "none"),
+    /**
+     * jdk自带的deflate，压缩率最高，cpu开销也最大
+     */
+    DEFLATE(1, "deflate"),
+    /**
+     * snappy格式，使用netty自带的实现
+     */
+    SNAPPY(2, "snappy"),
+    /**
+     * lz4，压缩和解压速度最快
+     */
+    LZ4(3, "lz4");
+
+    private final int code;
+    private final String description;
+
+    DrpcCompressType(int code, String description) {
+        this.code = code;
+        this.description = description;
+    }
+
+    @Override
+    public int getCode() {
+        return code;
+    }
+
+    @Override
+    public String getDescription() {
+        return description;
+    }
+
+    public static DrpcCompressType fromCode(int code) {
+        for (DrpcCompressType compressType : values()) {
+            if (compressType.code == code) {
+                return compressType;
+            }
+        }
+        throw new RuntimeException("code转DrpcCompressType失败");
+    }
+
+    public static DrpcCompressType fromDescription(String description) {
+        for (DrpcCompressType compressType : values()) {
+            if (compressType.description.equals(description)) {
+                return compressType;
+            }
+        }
+        throw new RuntimeException("description转DrpcCompressType失败");
+    }
+}
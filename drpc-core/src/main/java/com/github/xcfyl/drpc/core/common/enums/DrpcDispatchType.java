@@ -0,0 +1,61 @@
+package com.github.xcfyl.drpc.core.common.enums;
+
+/**
+ * 服务端执行服务方法的线程模型
+ *
+ * @author 西城风雨楼
+ */
+public enum DrpcDispatchType implements DrpcEnum {
+    /**
+     * 直接在IO线程中执行，只适用于非常轻量、不会阻塞的服务方法
+     */
+    IO(0, "io"),
+    /**
+     * 所有服务共享一个有界线程池
+     */
+    SHARED(1, "shared"),
+    /**
+     * 每个服务使用独立的有界线程池，避免某个服务占满线程影响其他服务
+     */
+    ISOLATED(2, "isolated"),
+    /**
+     * 每个请求一个虚拟线程，需要JDK21及以上版本
+     */
+    VIRTUAL(3, "virtual");
+
+    private final int code;
+    private final String description;
+
+    DrpcDispatchType(int code, String description) {
+        this.code = code;
+        this.description = description;
+    }
+
+    @Override
+    public int getCode() {
+        return code;
+    }
+
+    @Override
+    public String getDescription() {
+        return description;
+    }
+
+    public static DrpcDispatchType fromCode(int code) {
+        for (DrpcDispatchType dispatchType : values()) {
+            if (dispatchType.code == code) {
+                return dispatchType;
+            }
+        }
+        throw new RuntimeException("code转DrpcDispatchType失败");
+    }
+
+    public static DrpcDispatchType fromDescription(String description) {
+        for (DrpcDispatchType dispatchType : values()) {
+            if (dispatchType.description.equals(description)) {
+                return dispatchType;
+            }
+        }
+        throw new RuntimeException("description转DrpcDispatchType失败");
+    }
+}
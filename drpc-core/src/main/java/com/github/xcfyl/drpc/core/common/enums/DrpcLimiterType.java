@@ -0,0 +1,61 @@
+package com.github.xcfyl.drpc.core.common.enums;
+
+/**
+ * 服务端并发限制器的类型
+ *
+ * @author 西城风雨楼
+ */
+public enum DrpcLimiterType implements DrpcEnum {
+    /**
+     * 不限制并发
+     */
+    NONE(0, "none"),
+    /**
+     * 固定的并发上限
+     */
+    FIXED(1, "fixed"),
+    /**
+     * 根据排队造成的延迟增长调整并发上限，参考TCP Vegas
+     */
+    VEGAS(2, "vegas"),
+    /**
+     * 根据长期延迟和短期延迟的比值调整并发上限
+     */
+    GRADIENT(3, "gradient");
+
+    private final int code;
+    private final String description;
+
+    DrpcLimiterType(int code, String description) {
+        this.code = code;
+        this.description = description;
+    }
+
+    @Override
+    public int getCode() {
+        return code;
+    }
+
+    @Override
+    public String getDescription() {
+        return description;
+    }
+
+    public static DrpcLimiterType fromCode(int code) {
+        for (DrpcLimiterType limiterType : values()) {
+            if (limiterType.code == code) {
+                return limiterType;
+            }
+        }
+        throw new RuntimeException("code转DrpcLimiterType失败");
+    }
+
+    public static DrpcLimiterType fromDescription(String description) {
+        for (DrpcLimiterType limiterType : values()) {
+            if (limiterType.description.equals(description)) {
+                return limiterType;
+            }
+        }
+        throw new RuntimeException("description转DrpcLimiterType失败");
+    }
+}
@@ -0,0 +1,52 @@
+package com.github.xcfyl.drpc.core.common.enums;
+
+/**
+ * 传输协议中携带的消息类型
+ *
+ * @author 西城风雨楼
+ */
+public enum DrpcMessageType implements DrpcEnum {
+    REQUEST(0, "request"),
+    RESPONSE(1, "response"),
+    HEARTBEAT(2, "heartbeat"),
+    /**
+     * 单向请求，服务端执行之后不需要写回响应
+     */
+    ONEWAY(3, "oneway");
+
+    private final int code;
+    private final String description;
+
+    DrpcMessageType(int code, String description) {
+        this.code = code;
+        this.description = description;
+    }
+
+    @Override
+    public int getCode() {
+        return code;
+    }
+
+    @Override
+    public String getDescription() {
+        return description;
+    }
+
+    public static DrpcMessageType fromCode(int code) {
+        for (DrpcMessageType messageType : values()) {
+            if (messageType.code == code) {
+                return messageType;
+            }
+        }
+        throw new RuntimeException("code转MessageType失败");
+    }
+
+    public static DrpcMessageType fromDescription(String description) {
+        for (DrpcMessageType messageType : values()) {
+            if (messageType.description.equals(description)) {
+                return messageType;
+            }
+        }
+        throw new RuntimeException("description转MessageType失败");
+    }
+}
@@ -0,0 +1,70 @@
+package com.github.xcfyl.drpc.core.common.enums;
+
+/**
+ * 响应帧头部携带的状态码，除了SUCCESS和FAILURE之外，其余状态的响应不携带body
+ *
+ * @author 西城风雨楼
+ */
+public enum DrpcResponseStatus implements DrpcEnum {
+    SUCCESS(0, "success"),
+    /**
+     * 服务方法执行失败，body中携带了异常信息
+     */
+    FAILURE(1, "failure"),
+    /**
+     * 请求无法解析
+     */
+    BAD_REQUEST(2, "bad request"),
+    /**
+     * 服务端没有找到对应的服务或者方法
+     */
+    NOT_FOUND(3, "service or method not found"),
+    /**
+     * 服务端无法编码响应，例如返回值不能被序列化
+     */
+    SERVER_ERROR(4, "server error"),
+    /**
+     * 请求在执行之前已经超过了调用方的截止时间，服务端没有执行服务方法
+     */
+    DEADLINE_EXCEEDED(5, "deadline exceeded"),
+    /**
+     * 服务端过载，请求没有被执行，调用方可以换一个服务提供者重试
+     */
+    OVERLOADED(6, "server overloaded");
+
+    private final int code;
+    private final String description;
+
+    DrpcResponseStatus(int code, String description) {
+        this.code = code;
+        this.description = description;
+    }
+
+    @Override
+    public int getCode() {
+        return code;
+    }
+
+    @Override
+    public String getDescription() {
+        return description;
+    }
+
+    public static DrpcResponseStatus fromCode(int code) {
+        for (DrpcResponseStatus status : values()) {
+            if (status.code == code) {
+                return status;
+            }
+        }
+        throw new RuntimeException("code转ResponseStatus失败");
+    }
+
+    public static DrpcResponseStatus fromDescription(String description) {
+        for (DrpcResponseStatus status : values()) {
+            if (status.description.equals(description)) {
+                return status;
+            }
+        }
+        throw new RuntimeException("description转ResponseStatus失败");
+    }
+}
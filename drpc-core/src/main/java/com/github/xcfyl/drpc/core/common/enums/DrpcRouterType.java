@@ -6,7 +6,23 @@ package com.github.xcfyl.drpc.core.common.enums;
  */
 public enum DrpcRouterType implements DrpcEnum {
     RANDOM(0, "random"),
-    ROUND_ROBIN(1, "roundrobin");
+    ROUND_ROBIN(1, "roundrobin"),
+    /**
+     * 平滑加权轮询
+     */
+    WEIGHTED_ROUND_ROBIN(2, "weightedroundrobin"),
+    /**
+     * 加权随机
+     */
+    WEIGHTED_RANDOM(3, "weightedrandom"),
+    /**
+     * 最少未完成请求
+     */
+    LEAST_ACTIVE(4, "leastactive"),
+    /**
+     * 基于峰值EWMA延迟的二选一路由
+     */
+    PEAK_EWMA(5, "peakewma");
 
     private final int code;
     private final String description;
@@ -5,7 +5,11 @@ package com.github.xcfyl.drpc.core.common.enums;
  */
 public enum DrpcSerializeType implements DrpcEnum {
     JDK(0, "jdk"),
-    FASTJSON(1, "fastjson");
+    FASTJSON(1, "fastjson"),
+    /**
+     * 基于protostuff的二进制序列化
+     */
+    PROTOSTUFF(2, "protostuff");
 
     private final int code;
     private final String description;
@@ -10,7 +10,91 @@ public enum DrpcServerConfigName implements DrpcEnum {
     SERVER_REGISTRY_ADDR(2, "server.registry.addr"),
     SERVER_APPLICATION_NAME(3, "server.application.name"),
     SERVER_SERIALIZE_TYPE(4, "server.serializer"),
-    SERVER_PORT(5, "server.port");
+    SERVER_PORT(5, "server.port"),
+    /**
+     * 发送的协议帧是否携带校验和
+     */
+    SERVER_PROTOCOL_CHECKSUM(6, "server.protocol.checksum"),
+    /**
+     * 服务方法执行的线程模型，对应DrpcDispatchType
+     */
+    SERVER_DISPATCHER(7, "server.dispatcher"),
+    /**
+     * 业务线程池的线程数，isolated模式下是每个服务的线程数
+     */
+    SERVER_BUSINESS_THREADS(8, "server.business.threads"),
+    /**
+     * 业务线程池的队列长度
+     */
+    SERVER_BUSINESS_QUEUE_SIZE(9, "server.business.queue.size"),
+    /**
+     * 服务提供者的权重，写入注册中心供客户端的加权路由使用
+     */
+    SERVER_WEIGHT(10, "server.weight"),
+    /**
+     * 是否合并响应的flush
+     */
+    SERVER_FLUSH_CONSOLIDATION(11, "server.flush.consolidation"),
+    /**
+     * 合并flush时，每次flush最多包含的消息数
+     */
+    SERVER_FLUSH_MAX_MESSAGES(12, "server.flush.max.messages"),
+    /**
+     * 读空闲多久之后认为连接失效，单位毫秒，0表示不检测
+     */
+    SERVER_HEARTBEAT_TIMEOUT(13, "server.heartbeat.timeout"),
+    /**
+     * 并发限制器的类型：none、fixed、vegas、gradient
+     */
+    SERVER_LIMITER_TYPE(14, "server.limiter.type"),
+    /**
+     * 是否每个服务使用独立的并发限制器
+     */
+    SERVER_LIMITER_PER_SERVICE(15, "server.limiter.per.service"),
+    /**
+     * 最大并发数，fixed限制器的并发上限，自适应限制器调整的上限
+     */
+    SERVER_LIMITER_MAX_CONCURRENCY(16, "server.limiter.max.concurrency"),
+    /**
+     * 自适应限制器的初始并发数
+     */
+    SERVER_LIMITER_INITIAL_CONCURRENCY(17, "server.limiter.initial.concurrency"),
+    /**
+     * 响应的body达到多少字节时才压缩，压缩方式和请求相同
+     */
+    SERVER_COMPRESS_THRESHOLD(18, "server.compress.threshold"),
+    /**
+     * 传输层的实现：auto、nio、epoll，auto表示能够使用epoll时使用epoll
+     */
+    SERVER_TRANSPORT(19, "server.transport"),
+    /**
+     * 负责accept的线程数
+     */
+    SERVER_BOSS_THREADS(20, "server.boss.threads"),
+    /**
+     * 负责读写的io线程数，0表示使用netty的默认值
+     */
+    SERVER_WORKER_THREADS(21, "server.worker.threads"),
+    /**
+     * 监听socket的个数，大于1时通过SO_REUSEPORT绑定同一个端口，只在epoll下生效
+     */
+    SERVER_ACCEPTORS(22, "server.acceptors"),
+    /**
+     * 连接的SO_SNDBUF，单位字节，0表示使用操作系统的默认值
+     */
+    SERVER_SEND_BUFFER(23, "server.socket.send.buffer"),
+    /**
+     * 连接的SO_RCVBUF，单位字节，0表示使用操作系统的默认值
+     */
+    SERVER_RECEIVE_BUFFER(24, "server.socket.receive.buffer"),
+    /**
+     * 写缓冲区的低水位线，单位字节，待写数据回落到该值以下之后连接恢复为可写
+     */
+    SERVER_WRITE_BUFFER_LOW_WATER_MARK(25, "server.write.buffer.low.water.mark"),
+    /**
+     * 写缓冲区的高水位线，单位字节，待写数据超过该值之后连接变为不可写
+     */
+    SERVER_WRITE_BUFFER_HIGH_WATER_MARK(26, "server.write.buffer.high.water.mark");
 
     private final int code;
     private final String description;
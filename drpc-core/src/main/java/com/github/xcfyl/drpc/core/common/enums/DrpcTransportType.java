@@ -0,0 +1,57 @@
+package com.github.xcfyl.drpc.core.common.enums;
+
+/**
+ * 网络传输层的实现方式
+ *
+ * @author 西城风雨楼
+ */
+public enum DrpcTransportType implements DrpcEnum {
+    /**
+     * 能够使用epoll时使用epoll，否则使用nio
+     */
+    AUTO(0, "auto"),
+    /**
+     * jdk nio，所有平台都可用
+     */
+    NIO(1, "nio"),
+    /**
+     * linux上的本地epoll，延迟和gc压力都比nio小
+     */
+    EPOLL(2, "epoll");
+
+    private final int code;
+    private final String description;
+
+    DrpcTransportType(int code, String description) {
+        this.code = code;
+        this.description = description;
+    }
+
+    @Override
+    public int getCode() {
+        return code;
+    }
+
+    @Override
+    public String getDescription() {
+        return description;
+    }
+
+    public static DrpcTransportType fromCode(int code) {
+        for (DrpcTransportType transportType : values()) {
+            if (transportType.code == code) {
+                return transportType;
+            }
+        }
+        throw new RuntimeException("code转DrpcTransportType失败");
+    }
+
+    public static DrpcTransportType fromDescription(String description) {
+        for (DrpcTransportType transportType : values()) {
+            if (transportType.description.equals(description)) {
+                return transportType;
+            }
+        }
+        throw new RuntimeException("description转DrpcTransportType失败");
+    }
+}
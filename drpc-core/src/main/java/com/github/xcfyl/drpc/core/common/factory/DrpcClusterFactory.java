@@ -0,0 +1,33 @@
+package com.github.xcfyl.drpc.core.common.factory;
+
+import com.github.xcfyl.drpc.core.client.DrpcClientConfig;
+import com.github.xcfyl.drpc.core.client.DrpcClientContext;
+import com.github.xcfyl.drpc.core.cluster.DrpcCluster;
+import com.github.xcfyl.drpc.core.cluster.DrpcFailfastCluster;
+import com.github.xcfyl.drpc.core.cluster.DrpcFailoverCluster;
+import com.github.xcfyl.drpc.core.cluster.DrpcFailsafeCluster;
+import com.github.xcfyl.drpc.core.cluster.DrpcForkingCluster;
+import com.github.xcfyl.drpc.core.cluster.DrpcHedgingCluster;
+import com.github.xcfyl.drpc.core.common.enums.DrpcClusterType;
+
+/**
+ * @author 西城风雨楼
+ */
+public class DrpcClusterFactory {
+    public static DrpcCluster createCluster(DrpcClusterType type, DrpcClientContext context) {
+        if (type == DrpcClusterType.FAILOVER) {
+            return new DrpcFailoverCluster(context.getRetryBudget(), context.getResponseGuardedObject().getTimer());
+        } else if (type == DrpcClusterType.FAILFAST) {
+            return new DrpcFailfastCluster();
+        } else if (type == DrpcClusterType.FAILSAFE) {
+            return new DrpcFailsafeCluster();
+        } else if (type == DrpcClusterType.FORKING) {
+            return new DrpcForkingCluster(context.getRetryBudget());
+        } else if (type == DrpcClusterType.HEDGING) {
+            DrpcClientConfig config = context.getClientConfig();
+            return new DrpcHedgingCluster(context.getRetryBudget(), context.getResponseGuardedObject().getTimer(),
+                    config.getHedgePercentile(), config.getHedgeMinDelay(), config.getHedgeMaxRequests());
+        }
+        throw new RuntimeException("暂不支持的集群容错类型");
+    }
+}
@@ -0,0 +1,46 @@
+package com.github.xcfyl.drpc.core.common.factory;
+
+import com.github.xcfyl.drpc.core.common.enums.DrpcCompressType;
+import com.github.xcfyl.drpc.core.compress.DrpcCompressor;
+import com.github.xcfyl.drpc.core.compress.DrpcDeflateCompressor;
+import com.github.xcfyl.drpc.core.compress.DrpcLz4Compressor;
+import com.github.xcfyl.drpc.core.compress.DrpcSnappyCompressor;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * @author 西城风雨楼
+ */
+public class DrpcCompressorFactory {
+    /**
+     * 压缩器都是线程安全的，按照压缩类型的code缓存，供编解码器使用
+     */
+    private static final Map<Integer, DrpcCompressor> COMPRESSOR_CACHE = new ConcurrentHashMap<>();
+
+    public static DrpcCompressor createCompressor(DrpcCompressType type) {
+        if (type == DrpcCompressType.DEFLATE) {
+            return new DrpcDeflateCompressor();
+        } else if (type == DrpcCompressType.SNAPPY) {
+            return new DrpcSnappyCompressor();
+        } else if (type == DrpcCompressType.LZ4) {
+            return new DrpcLz4Compressor();
+        }
+        throw new RuntimeException("暂不支持的压缩类型");
+    }
+
+    /**
+     * 根据协议帧中携带的压缩类型获取压缩器
+     *
+     * @param code 压缩类型的code
+     * @return 对应的压缩器
+     */
+    public static DrpcCompressor getCompressor(int code) {
+        DrpcCompressor compressor = COMPRESSOR_CACHE.get(code);
+        if (compressor != null) {
+            return compressor;
+        }
+        return COMPRESSOR_CACHE.computeIfAbsent(code,
+                key -> createCompressor(DrpcCompressType.fromCode(key)));
+    }
+}
@@ -0,0 +1,34 @@
+package com.github.xcfyl.drpc.core.common.factory;
+
+import com.github.xcfyl.drpc.core.common.enums.DrpcDispatchType;
+import com.github.xcfyl.drpc.core.dispatcher.DrpcDispatcher;
+import com.github.xcfyl.drpc.core.dispatcher.DrpcIoDispatcher;
+import com.github.xcfyl.drpc.core.dispatcher.DrpcIsolatedDispatcher;
+import com.github.xcfyl.drpc.core.dispatcher.DrpcSharedDispatcher;
+import com.github.xcfyl.drpc.core.dispatcher.DrpcVirtualThreadDispatcher;
+import com.github.xcfyl.drpc.core.server.DrpcServerConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * @author 西城风雨楼
+ */
+public class DrpcDispatcherFactory {
+    private static final Logger logger = LoggerFactory.getLogger(DrpcDispatcherFactory.class);
+
+    public static DrpcDispatcher createDispatcher(DrpcServerConfig config) {
+        DrpcDispatchType type = config.getDispatchType();
+        if (type == DrpcDispatchType.IO) {
+            return new DrpcIoDispatcher();
+        } else if (type == DrpcDispatchType.ISOLATED) {
+            return new DrpcIsolatedDispatcher(config.getBusinessThreads(), config.getBusinessQueueSize());
+        } else if (type == DrpcDispatchType.VIRTUAL) {
+            try {
+                return new DrpcVirtualThreadDispatcher();
+            } catch (ReflectiveOperationException e) {
+                logger.warn("virtual thread is not supported by current jdk, fallback to shared dispatcher");
+            }
+        }
+        return new DrpcSharedDispatcher(config.getBusinessThreads(), config.getBusinessQueueSize());
+    }
+}
@@ -0,0 +1,33 @@
+package com.github.xcfyl.drpc.core.common.factory;
+
+import com.github.xcfyl.drpc.core.common.enums.DrpcLimiterType;
+import com.github.xcfyl.drpc.core.limiter.DrpcConcurrencyLimiter;
+import com.github.xcfyl.drpc.core.limiter.DrpcFixedLimiter;
+import com.github.xcfyl.drpc.core.limiter.DrpcGradientLimiter;
+import com.github.xcfyl.drpc.core.limiter.DrpcVegasLimiter;
+import com.github.xcfyl.drpc.core.server.DrpcServerConfig;
+
+/**
+ * @author 西城风雨楼
+ */
+public class DrpcLimiterFactory {
+    /**
+     * 创建并发限制器
+     *
+     * @param config
+     * @return 不限制并发时返回null
+     */
+    public static DrpcConcurrencyLimiter createLimiter(DrpcServerConfig config) {
+        DrpcLimiterType type = config.getLimiterType();
+        if (type == DrpcLimiterType.NONE) {
+            return null;
+        } else if (type == DrpcLimiterType.FIXED) {
+            return new DrpcFixedLimiter(config.getLimiterMaxConcurrency());
+        } else if (type == DrpcLimiterType.VEGAS) {
+            return new DrpcVegasLimiter(config.getLimiterInitialConcurrency(), config.getLimiterMaxConcurrency());
+        } else if (type == DrpcLimiterType.GRADIENT) {
+            return new DrpcGradientLimiter(config.getLimiterInitialConcurrency(), config.getLimiterMaxConcurrency());
+        }
+        throw new RuntimeException("暂不支持的并发限制器类型");
+    }
+}
@@ -2,9 +2,13 @@ package com.github.xcfyl.drpc.core.common.factory;
 
 import com.github.xcfyl.drpc.core.client.DrpcConnectionManager;
 import com.github.xcfyl.drpc.core.common.enums.DrpcRouterType;
+import com.github.xcfyl.drpc.core.router.DrpcLeastActiveRouter;
+import com.github.xcfyl.drpc.core.router.DrpcPeakEwmaRouter;
 import com.github.xcfyl.drpc.core.router.DrpcRandomRouter;
 import com.github.xcfyl.drpc.core.router.DrpcRoundRobinRouter;
 import com.github.xcfyl.drpc.core.router.DrpcRouter;
+import com.github.xcfyl.drpc.core.router.DrpcWeightedRandomRouter;
+import com.github.xcfyl.drpc.core.router.DrpcWeightedRoundRobinRouter;
 import lombok.extern.slf4j.Slf4j;
 
 /**
@@ -18,6 +22,14 @@ public class DrpcRouterFactory {
             return new DrpcRandomRouter(connectionManager);
         } else if (type == DrpcRouterType.ROUND_ROBIN) {
             return new DrpcRoundRobinRouter(connectionManager);
+        } else if (type == DrpcRouterType.WEIGHTED_ROUND_ROBIN) {
+            return new DrpcWeightedRoundRobinRouter(connectionManager);
+        } else if (type == DrpcRouterType.WEIGHTED_RANDOM) {
+            return new DrpcWeightedRandomRouter(connectionManager);
+        } else if (type == DrpcRouterType.LEAST_ACTIVE) {
+            return new DrpcLeastActiveRouter(connectionManager);
+        } else if (type == DrpcRouterType.PEAK_EWMA) {
+            return new DrpcPeakEwmaRouter(connectionManager);
         }
         throw new RuntimeException("暂不支持的路由类型");
     }
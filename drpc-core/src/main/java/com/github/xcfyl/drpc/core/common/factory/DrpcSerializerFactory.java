@@ -4,17 +4,44 @@ import com.github.xcfyl.drpc.core.common.enums.DrpcSerializeType;
 import com.github.xcfyl.drpc.core.serializer.DrpcSerializer;
 import com.github.xcfyl.drpc.core.serializer.fastjson.DrpcFastJsonSerializer;
 import com.github.xcfyl.drpc.core.serializer.jdk.DrpcJdkSerializer;
+import com.github.xcfyl.drpc.core.serializer.protostuff.DrpcProtostuffSerializer;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * @author 西城风雨楼
  * @date create at 2023/6/24 16:28
  */
 public class DrpcSerializerFactory {
+    /**
+     * 序列化器都是无状态的，按照序列化类型的code缓存，供解码协议帧时使用
+     */
+    private static final Map<Integer, DrpcSerializer> SERIALIZER_CACHE = new ConcurrentHashMap<>();
+
     public static DrpcSerializer createRpcSerializer(DrpcSerializeType type) {
-        if (type.getCode() == DrpcSerializeType.JDK.getCode()) {
+        if (type == DrpcSerializeType.JDK) {
             return new DrpcJdkSerializer();
-        } else {
+        } else if (type == DrpcSerializeType.FASTJSON) {
             return new DrpcFastJsonSerializer();
+        } else if (type == DrpcSerializeType.PROTOSTUFF) {
+            return new DrpcProtostuffSerializer();
+        }
+        throw new RuntimeException("暂不支持的序列化类型");
+    }
+
+    /**
+     * 根据协议帧中携带的序列化类型获取序列化器
+     *
+     * @param code 序列化类型的code
+     * @return 对应的序列化器
+     */
+    public static DrpcSerializer getRpcSerializer(int code) {
+        DrpcSerializer serializer = SERIALIZER_CACHE.get(code);
+        if (serializer != null) {
+            return serializer;
         }
+        return SERIALIZER_CACHE.computeIfAbsent(code,
+                key -> createRpcSerializer(DrpcSerializeType.fromCode(key)));
     }
 }
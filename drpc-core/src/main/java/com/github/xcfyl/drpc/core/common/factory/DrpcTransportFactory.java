@@ -0,0 +1,38 @@
+package com.github.xcfyl.drpc.core.common.factory;
+
+import com.github.xcfyl.drpc.core.common.enums.DrpcTransportType;
+import com.github.xcfyl.drpc.core.transport.DrpcEpollTransport;
+import com.github.xcfyl.drpc.core.transport.DrpcNioTransport;
+import com.github.xcfyl.drpc.core.transport.DrpcTransport;
+import io.netty.channel.epoll.Epoll;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * @author 西城风雨楼
+ */
+public class DrpcTransportFactory {
+    private static final Logger logger = LoggerFactory.getLogger(DrpcTransportFactory.class);
+
+    /**
+     * 创建传输层，epoll不可用（非linux或者本地库加载失败）时退回nio
+     *
+     * @param type 配置的传输层类型
+     * @return
+     */
+    public static DrpcTransport createTransport(DrpcTransportType type) {
+        if (type == DrpcTransportType.NIO) {
+            return new DrpcNioTransport();
+        } else if (type == DrpcTransportType.AUTO || type == DrpcTransportType.EPOLL) {
+            if (Epoll.isAvailable()) {
+                return new DrpcEpollTransport();
+            }
+            if (type == DrpcTransportType.EPOLL) {
+                logger.error("epoll transport is not available, fall back to nio, cause is {}",
+                        Epoll.unavailabilityCause().toString());
+            }
+            return new DrpcNioTransport();
+        }
+        throw new RuntimeException("暂不支持的传输层类型");
+    }
+}
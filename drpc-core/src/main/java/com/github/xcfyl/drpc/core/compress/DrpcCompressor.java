@@ -0,0 +1,30 @@
+package com.github.xcfyl.drpc.core.compress;
+
+import io.netty.buffer.ByteBuf;
+
+/**
+ * body的压缩器，编码器在序列化之后压缩body，解码器在校验之后解压body
+ * 压缩之前的长度由编码器写在压缩数据之前，压缩器只负责数据本身
+ *
+ * @author 西城风雨楼
+ */
+public interface DrpcCompressor {
+    /**
+     * 压缩in中所有可读的数据，写入out
+     *
+     * @param in
+     * @param out
+     * @throws Exception
+     */
+    void compress(ByteBuf in, ByteBuf out) throws Exception;
+
+    /**
+     * 解压in中所有可读的数据，写入out
+     *
+     * @param in
+     * @param out
+     * @param originalLength 压缩之前的长度，out中至少有这么多可写的空间
+     * @throws Exception
+     */
+    void decompress(ByteBuf in, ByteBuf out, int originalLength) throws Exception;
+}
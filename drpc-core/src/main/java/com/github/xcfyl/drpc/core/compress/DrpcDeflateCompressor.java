@@ -0,0 +1,70 @@
+package com.github.xcfyl.drpc.core.compress;
+
+import io.netty.buffer.ByteBuf;
+
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * 基于jdk deflate的压缩器，不带zlib头部和校验和，数据完整性由协议的校验和保证
+ * Deflater和Inflater持有本地内存，每个线程复用一个实例
+ *
+ * @author 西城风雨楼
+ */
+public class DrpcDeflateCompressor implements DrpcCompressor {
+    private static final ThreadLocal<Deflater> DEFLATER = ThreadLocal.withInitial(
+            () -> new Deflater(Deflater.BEST_SPEED, true));
+    private static final ThreadLocal<Inflater> INFLATER = ThreadLocal.withInitial(() -> new Inflater(true));
+
+    @Override
+    public void compress(ByteBuf in, ByteBuf out) {
+        Deflater deflater = DEFLATER.get();
+        try {
+            deflater.setInput(toArray(in), in.hasArray() ? in.arrayOffset() + in.readerIndex() : 0, in.readableBytes());
+            deflater.finish();
+            in.skipBytes(in.readableBytes());
+            while (!deflater.finished()) {
+                out.ensureWritable(256);
+                int n = deflater.deflate(out.array(), out.arrayOffset() + out.writerIndex(), out.writableBytes());
+                out.writerIndex(out.writerIndex() + n);
+            }
+        } finally {
+            deflater.reset();
+        }
+    }
+
+    @Override
+    public void decompress(ByteBuf in, ByteBuf out, int originalLength) throws DataFormatException {
+        Inflater inflater = INFLATER.get();
+        try {
+            inflater.setInput(toArray(in), in.hasArray() ? in.arrayOffset() + in.readerIndex() : 0, in.readableBytes());
+            in.skipBytes(in.readableBytes());
+            out.ensureWritable(originalLength);
+            int written = 0;
+            while (written < originalLength && !inflater.finished()) {
+                int n = inflater.inflate(out.array(), out.arrayOffset() + out.writerIndex() + written,
+                        originalLength - written);
+                if (n == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new DataFormatException("truncated deflate data");
+                }
+                written += n;
+            }
+            out.writerIndex(out.writerIndex() + written);
+        } finally {
+            inflater.reset();
+        }
+    }
+
+    /**
+     * 堆内存缓冲区直接使用底层数组，直接内存缓冲区需要拷贝一次
+     */
+    private static byte[] toArray(ByteBuf buf) {
+        if (buf.hasArray()) {
+            return buf.array();
+        }
+        byte[] bytes = new byte[buf.readableBytes()];
+        buf.getBytes(buf.readerIndex(), bytes);
+        return bytes;
+    }
+}
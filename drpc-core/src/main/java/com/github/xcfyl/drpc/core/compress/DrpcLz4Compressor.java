@@ -0,0 +1,44 @@
+package com.github.xcfyl.drpc.core.compress;
+
+import io.netty.buffer.ByteBuf;
+import net.jpountz.lz4.LZ4Compressor;
+import net.jpountz.lz4.LZ4Factory;
+import net.jpountz.lz4.LZ4SafeDecompressor;
+
+/**
+ * 基于lz4-java的压缩器，直接在缓冲区的nio视图上压缩和解压，不需要中间数组
+ * 解压的数据来自网络，使用会检查边界的safe解压器
+ *
+ * @author 西城风雨楼
+ */
+public class DrpcLz4Compressor implements DrpcCompressor {
+    private final LZ4Compressor compressor;
+    private final LZ4SafeDecompressor decompressor;
+
+    public DrpcLz4Compressor() {
+        LZ4Factory factory = LZ4Factory.fastestInstance();
+        this.compressor = factory.fastCompressor();
+        this.decompressor = factory.safeDecompressor();
+    }
+
+    @Override
+    public void compress(ByteBuf in, ByteBuf out) {
+        int length = in.readableBytes();
+        int maxLength = compressor.maxCompressedLength(length);
+        out.ensureWritable(maxLength);
+        int n = compressor.compress(in.nioBuffer(), 0, length,
+                out.nioBuffer(out.writerIndex(), maxLength), 0, maxLength);
+        in.skipBytes(length);
+        out.writerIndex(out.writerIndex() + n);
+    }
+
+    @Override
+    public void decompress(ByteBuf in, ByteBuf out, int originalLength) {
+        out.ensureWritable(originalLength);
+        int length = in.readableBytes();
+        int n = decompressor.decompress(in.nioBuffer(), 0, length,
+                out.nioBuffer(out.writerIndex(), originalLength), 0, originalLength);
+        in.skipBytes(length);
+        out.writerIndex(out.writerIndex() + n);
+    }
+}
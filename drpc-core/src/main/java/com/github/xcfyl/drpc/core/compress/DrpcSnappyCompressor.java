@@ -0,0 +1,44 @@
+package com.github.xcfyl.drpc.core.compress;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.handler.codec.compression.Snappy;
+
+/**
+ * snappy格式的压缩器，使用netty自带的实现，不需要额外的依赖
+ * netty的实现只能正确处理不超过32KB的输入，因此按块压缩，每块之前写入压缩之后的长度
+ *
+ * @author 西城风雨楼
+ */
+public class DrpcSnappyCompressor implements DrpcCompressor {
+    private static final int MAX_BLOCK_SIZE = Short.MAX_VALUE;
+
+    @Override
+    public void compress(ByteBuf in, ByteBuf out) {
+        // Snappy对象记录了编解码状态，不能在线程之间共享
+        Snappy snappy = new Snappy();
+        while (in.isReadable()) {
+            int lengthIndex = out.writerIndex();
+            out.writeInt(0);
+            int blockSize = Math.min(in.readableBytes(), MAX_BLOCK_SIZE);
+            snappy.encode(in.readSlice(blockSize), out, blockSize);
+            out.setInt(lengthIndex, out.writerIndex() - lengthIndex - 4);
+            snappy.reset();
+        }
+    }
+
+    @Override
+    public void decompress(ByteBuf in, ByteBuf out, int originalLength) {
+        Snappy snappy = new Snappy();
+        while (in.isReadable()) {
+            int blockLength = in.readInt();
+            if (blockLength < 0 || blockLength > in.readableBytes()) {
+                throw new IllegalArgumentException("invalid snappy block length " + blockLength);
+            }
+            snappy.decode(in.readSlice(blockLength), out);
+            snappy.reset();
+            if (out.readableBytes() > originalLength) {
+                throw new IllegalArgumentException("snappy data exceeds original length " + originalLength);
+            }
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.github.xcfyl.drpc.core.dispatcher;
+
+/**
+ * 服务端的请求分发器，决定服务方法在哪个线程中执行
+ * 整个服务端共享一个分发器，所有连接的请求都交给它执行
+ *
+ * @author 西城风雨楼
+ */
+public interface DrpcDispatcher {
+    /**
+     * 执行某个服务的请求
+     *
+     * @param serviceName 请求的服务名称
+     * @param task        请求的处理逻辑
+     * @throws java.util.concurrent.RejectedExecutionException 分发器已满或者已经关闭
+     */
+    void dispatch(String serviceName, Runnable task);
+
+    /**
+     * 关闭分发器，不再接收新的请求
+     */
+    void shutdown();
+}
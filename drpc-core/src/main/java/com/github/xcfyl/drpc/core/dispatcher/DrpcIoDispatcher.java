@@ -0,0 +1,19 @@
+package com.github.xcfyl.drpc.core.dispatcher;
+
+/**
+ * 直接在IO线程中执行请求，没有线程切换的开销
+ * 服务方法一旦阻塞，同一个IO线程上的所有连接都会受到影响
+ *
+ * @author 西城风雨楼
+ */
+public class DrpcIoDispatcher implements DrpcDispatcher {
+    @Override
+    public void dispatch(String serviceName, Runnable task) {
+        task.run();
+    }
+
+    @Override
+    public void shutdown() {
+
+    }
+}
@@ -0,0 +1,38 @@
+package com.github.xcfyl.drpc.core.dispatcher;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * 每个服务使用独立的有界线程池，某个服务变慢时只会占满自己的线程
+ *
+ * @author 西城风雨楼
+ */
+public class DrpcIsolatedDispatcher implements DrpcDispatcher {
+    private final Map<String, ThreadPoolExecutor> executors = new ConcurrentHashMap<>();
+    private final int threads;
+    private final int queueSize;
+
+    public DrpcIsolatedDispatcher(int threads, int queueSize) {
+        this.threads = threads;
+        this.queueSize = queueSize;
+    }
+
+    @Override
+    public void dispatch(String serviceName, Runnable task) {
+        ThreadPoolExecutor executor = executors.get(serviceName);
+        if (executor == null) {
+            executor = executors.computeIfAbsent(serviceName, key -> DrpcSharedDispatcher.createExecutor(
+                    "drpc-business-" + key.substring(key.lastIndexOf('.') + 1), threads, queueSize));
+        }
+        executor.execute(task);
+    }
+
+    @Override
+    public void shutdown() {
+        for (ThreadPoolExecutor executor : executors.values()) {
+            executor.shutdown();
+        }
+    }
+}
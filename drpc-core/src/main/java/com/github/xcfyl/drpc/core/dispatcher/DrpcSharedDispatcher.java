@@ -0,0 +1,46 @@
+package com.github.xcfyl.drpc.core.dispatcher;
+
+import io.netty.util.concurrent.DefaultThreadFactory;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 所有服务共享一个有界线程池
+ *
+ * @author 西城风雨楼
+ */
+public class DrpcSharedDispatcher implements DrpcDispatcher {
+    private final ThreadPoolExecutor executor;
+
+    public DrpcSharedDispatcher(int threads, int queueSize) {
+        executor = createExecutor("drpc-business", threads, queueSize);
+    }
+
+    @Override
+    public void dispatch(String serviceName, Runnable task) {
+        executor.execute(task);
+    }
+
+    @Override
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    /**
+     * 创建固定大小的有界线程池，空闲线程会被回收
+     * 队列满时直接拒绝，由调用方写回过载响应，不能在IO线程中执行服务方法
+     */
+    static ThreadPoolExecutor createExecutor(String name, int threads, int queueSize) {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(threads,
+                threads,
+                60,
+                TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueSize),
+                new DefaultThreadFactory(name, true),
+                new ThreadPoolExecutor.AbortPolicy());
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+}
@@ -0,0 +1,31 @@
+package com.github.xcfyl.drpc.core.dispatcher;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * 每个请求使用一个虚拟线程执行，适合大量阻塞调用的服务
+ * 项目仍然以JDK8为编译目标，因此通过反射创建执行器
+ *
+ * @author 西城风雨楼
+ */
+public class DrpcVirtualThreadDispatcher implements DrpcDispatcher {
+    private final ExecutorService executor;
+
+    /**
+     * @throws ReflectiveOperationException 当前JDK不支持虚拟线程
+     */
+    public DrpcVirtualThreadDispatcher() throws ReflectiveOperationException {
+        executor = (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+    }
+
+    @Override
+    public void dispatch(String serviceName, Runnable task) {
+        executor.execute(task);
+    }
+
+    @Override
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
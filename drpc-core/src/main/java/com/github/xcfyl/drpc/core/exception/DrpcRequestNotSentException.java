@@ -0,0 +1,19 @@
+package com.github.xcfyl.drpc.core.exception;
+
+/**
+ * 请求还没有发送给服务提供者就失败了，例如没有可用的连接、熔断器拒绝或者写失败
+ * 这类请求无论方法是否幂等都可以安全地重试
+ *
+ * @author 西城风雨楼
+ */
+public class DrpcRequestNotSentException extends DrpcRequestException {
+    private static final long serialVersionUID = -3217785139468262458L;
+
+    public DrpcRequestNotSentException(String message) {
+        super(message);
+    }
+
+    public DrpcRequestNotSentException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
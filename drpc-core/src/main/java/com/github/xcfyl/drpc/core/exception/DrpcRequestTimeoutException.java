@@ -0,0 +1,14 @@
+package com.github.xcfyl.drpc.core.exception;
+
+/**
+ * 请求已经发出，但是在超时时间内没有收到响应
+ *
+ * @author 西城风雨楼
+ */
+public class DrpcRequestTimeoutException extends DrpcRequestException {
+    private static final long serialVersionUID = 2864015519356092817L;
+
+    public DrpcRequestTimeoutException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,15 @@
+package com.github.xcfyl.drpc.core.exception;
+
+/**
+ * 服务提供者过载，请求被服务端直接拒绝，服务方法没有执行
+ * 这类请求无论方法是否幂等都可以安全地换一个服务提供者重试
+ *
+ * @author 西城风雨楼
+ */
+public class DrpcServerOverloadedException extends DrpcRequestException {
+    private static final long serialVersionUID = 5470960118274336381L;
+
+    public DrpcServerOverloadedException(String message) {
+        super(message);
+    }
+}
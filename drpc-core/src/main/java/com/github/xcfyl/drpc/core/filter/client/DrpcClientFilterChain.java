@@ -5,40 +5,61 @@ import com.github.xcfyl.drpc.core.protocol.DrpcRequest;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
 import java.util.List;
 
 /**
+ * 客户端过滤器链，过滤器按照getOrder从小到大执行
+ * 注册过滤器时复制出新的数组，每次调用都在自己的游标上推进，doFilter不需要加锁
+ *
  * @author 西城风雨楼
  * @date create at 2023/6/24 16:04
  */
 public class DrpcClientFilterChain {
     private static final Logger logger = LoggerFactory.getLogger(DrpcClientFilterChain.class);
-    private final List<DrpcClientFilter> filters = new ArrayList<>();
-    private int curIndex = 0;
+    private volatile DrpcClientFilter[] filters;
+    /**
+     * 当前调用下一个要执行的过滤器
+     */
+    private final int curIndex;
+
+    public DrpcClientFilterChain() {
+        this(new DrpcClientFilter[0], 0);
+    }
+
+    private DrpcClientFilterChain(DrpcClientFilter[] filters, int curIndex) {
+        this.filters = filters;
+        this.curIndex = curIndex;
+    }
 
     public synchronized void addFilter(DrpcClientFilter filter) {
-        filters.add(filter);
+        DrpcClientFilter[] newFilters = Arrays.copyOf(filters, filters.length + 1);
+        newFilters[filters.length] = filter;
+        // 稳定排序，order相同的过滤器保持注册顺序
+        Arrays.sort(newFilters, Comparator.comparing(DrpcClientFilter::getOrder,
+                Comparator.nullsLast(Comparator.naturalOrder())));
+        filters = newFilters;
         if (logger.isDebugEnabled()) {
             logger.debug("add rpc client filter {}", filter.getName());
         }
     }
 
     /**
-     * doFilter方法可能被多个线程同时调用，因此需要将该方法加锁
+     * 执行下一个过滤器，每个过滤器拿到的是游标向后移动一位的新链，因此可以被多个线程同时调用
      *
      * @param connectionWrappers
      * @param request
      */
-    public synchronized void doFilter(List<DrpcConnectionWrapper> connectionWrappers, DrpcRequest request) {
-        if (curIndex >= filters.size()) {
+    public void doFilter(List<DrpcConnectionWrapper> connectionWrappers, DrpcRequest request) {
+        DrpcClientFilter[] current = filters;
+        if (curIndex >= current.length) {
             return;
         }
-        DrpcClientFilter filter = filters.get(curIndex++);
+        DrpcClientFilter filter = current[curIndex];
         if (logger.isDebugEnabled()) {
             logger.debug("current client filter is {}", filter.getName());
         }
-        filter.filter(this, connectionWrappers, request);
-        curIndex--;
+        filter.filter(new DrpcClientFilterChain(current, curIndex + 1), connectionWrappers, request);
     }
 }
@@ -4,34 +4,54 @@ import com.github.xcfyl.drpc.core.protocol.DrpcRequest;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.Arrays;
+import java.util.Comparator;
 
 /**
+ * 服务端过滤器链，过滤器按照getOrder从小到大执行
+ * 注册过滤器时复制出新的数组，每次调用都在自己的游标上推进，doFilter不需要加锁
+ *
  * @author 西城风雨楼
  * @date create at 2023/6/24 15:54
  */
 public class DrpcServerFilterChain {
     private static final Logger logger = LoggerFactory.getLogger(DrpcServerFilterChain.class);
-    private final List<DrpcServerFilter> filters = new ArrayList<>();
-    private int curIndex;
+    private volatile DrpcServerFilter[] filters;
+    /**
+     * 当前调用下一个要执行的过滤器
+     */
+    private final int curIndex;
+
+    public DrpcServerFilterChain() {
+        this(new DrpcServerFilter[0], 0);
+    }
+
+    private DrpcServerFilterChain(DrpcServerFilter[] filters, int curIndex) {
+        this.filters = filters;
+        this.curIndex = curIndex;
+    }
 
     public synchronized void addFilter(DrpcServerFilter filter) {
-        filters.add(filter);
+        DrpcServerFilter[] newFilters = Arrays.copyOf(filters, filters.length + 1);
+        newFilters[filters.length] = filter;
+        // 稳定排序，order相同的过滤器保持注册顺序
+        Arrays.sort(newFilters, Comparator.comparing(DrpcServerFilter::getOrder,
+                Comparator.nullsLast(Comparator.naturalOrder())));
+        filters = newFilters;
         if (logger.isDebugEnabled()) {
             logger.debug("add rpc server filter {}", filter.getName());
         }
     }
 
-    public synchronized void doFilter(DrpcRequest request) {
-        if (curIndex >= filters.size()) {
+    public void doFilter(DrpcRequest request) {
+        DrpcServerFilter[] current = filters;
+        if (curIndex >= current.length) {
             return;
         }
-        DrpcServerFilter filter = filters.get(curIndex++);
+        DrpcServerFilter filter = current[curIndex];
         if (logger.isDebugEnabled()) {
             logger.debug("current server filter is {}", filter.getName());
         }
-        filter.filter(this, request);
-        curIndex--;
+        filter.filter(new DrpcServerFilterChain(current, curIndex + 1), request);
     }
 }
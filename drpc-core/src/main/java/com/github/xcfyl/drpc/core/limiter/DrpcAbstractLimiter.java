@@ -0,0 +1,76 @@
+package com.github.xcfyl.drpc.core.limiter;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 并发限制器的公共逻辑，子类只需要根据每次请求的耗时调整并发上限
+ *
+ * @author 西城风雨楼
+ */
+public abstract class DrpcAbstractLimiter implements DrpcConcurrencyLimiter {
+    private final AtomicInteger inFlight = new AtomicInteger();
+    /**
+     * 并发上限的最大值，自适应限制器不会把上限调整到超过这个值
+     */
+    protected final int maxLimit;
+    protected volatile int limit;
+
+    protected DrpcAbstractLimiter(int initialLimit, int maxLimit) {
+        this.maxLimit = Math.max(maxLimit, 1);
+        this.limit = Math.max(Math.min(initialLimit, this.maxLimit), 1);
+    }
+
+    @Override
+    public boolean tryAcquire() {
+        for (; ; ) {
+            int current = inFlight.get();
+            if (current >= limit) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    @Override
+    public void release(long latencyNanos, boolean dropped) {
+        // 采样时的并发数包括当前请求，用于判断上限是否真的被用满
+        int current = inFlight.getAndDecrement();
+        onSample(latencyNanos, current, dropped);
+    }
+
+    /**
+     * 根据一次请求的结果调整并发上限
+     *
+     * @param latencyNanos 请求的耗时，单位纳秒
+     * @param inFlight     请求结束时正在处理中的请求数
+     * @param dropped      请求是否因为过载被丢弃
+     */
+    protected abstract void onSample(long latencyNanos, int inFlight, boolean dropped);
+
+    /**
+     * 将新的上限限制在[1, maxLimit]之间
+     */
+    protected int clamp(double newLimit) {
+        return (int) Math.max(1, Math.min(maxLimit, newLimit));
+    }
+
+    @Override
+    public int getLimit() {
+        return limit;
+    }
+
+    @Override
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + "{" +
+                "limit=" + limit +
+                ", inFlight=" + inFlight +
+                '}';
+    }
+}
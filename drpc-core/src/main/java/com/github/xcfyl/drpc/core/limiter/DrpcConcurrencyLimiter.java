@@ -0,0 +1,37 @@
+package com.github.xcfyl.drpc.core.limiter;
+
+/**
+ * 服务端的并发限制器，限制同时在处理中的请求数，超过上限的请求直接拒绝，不进入业务线程池排队
+ *
+ * @author 西城风雨楼
+ */
+public interface DrpcConcurrencyLimiter {
+    /**
+     * 申请处理一个请求，申请成功之后必须调用release
+     *
+     * @return 已经达到并发上限时返回false
+     */
+    boolean tryAcquire();
+
+    /**
+     * 请求处理结束，归还并发名额
+     *
+     * @param latencyNanos 从申请成功到处理结束的耗时，单位纳秒
+     * @param dropped      请求是否因为过载被丢弃，例如业务线程池已满
+     */
+    void release(long latencyNanos, boolean dropped);
+
+    /**
+     * 当前的并发上限
+     *
+     * @return
+     */
+    int getLimit();
+
+    /**
+     * 当前正在处理中的请求数
+     *
+     * @return
+     */
+    int getInFlight();
+}
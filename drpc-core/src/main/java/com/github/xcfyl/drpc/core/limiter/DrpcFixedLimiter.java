@@ -0,0 +1,17 @@
+package com.github.xcfyl.drpc.core.limiter;
+
+/**
+ * 固定并发上限的限制器
+ *
+ * @author 西城风雨楼
+ */
+public class DrpcFixedLimiter extends DrpcAbstractLimiter {
+    public DrpcFixedLimiter(int limit) {
+        super(limit, limit);
+    }
+
+    @Override
+    protected void onSample(long latencyNanos, int inFlight, boolean dropped) {
+
+    }
+}
@@ -0,0 +1,75 @@
+package com.github.xcfyl.drpc.core.limiter;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * 根据长期耗时和短期耗时的比值调整并发上限的自适应限制器
+ * 长期耗时longRtt是最近若干次请求耗时的指数移动平均，gradient = clamp(1.5 * longRtt / rtt, 0.5, 1)，
+ * 新的上限为 limit * gradient + sqrt(limit)，即耗时稳定时缓慢增大上限，耗时上升时按比例减小上限
+ * <p>
+ * 请求被丢弃时按照gradient = 0.5处理，上限的变化经过平滑，避免单次采样造成剧烈波动
+ *
+ * @author 西城风雨楼
+ */
+public class DrpcGradientLimiter extends DrpcAbstractLimiter {
+    private static final Logger logger = LoggerFactory.getLogger(DrpcGradientLimiter.class);
+    /**
+     * 长期耗时的平均窗口，单位为采样数
+     */
+    private static final int LONG_WINDOW = 600;
+    /**
+     * 预热阶段的采样数，预热阶段的长期耗时使用简单平均
+     */
+    private static final int WARMUP_SAMPLES = 10;
+    /**
+     * 允许短期耗时超过长期耗时的比例
+     */
+    private static final double TOLERANCE = 1.5;
+    private static final double SMOOTHING = 0.2;
+
+    private double longRtt;
+    private long sampleCount;
+    /**
+     * 未取整的上限，避免每次调整的小数部分被丢弃之后上限无法增长
+     */
+    private double estimatedLimit;
+
+    public DrpcGradientLimiter(int initialLimit, int maxLimit) {
+        super(initialLimit, maxLimit);
+        this.estimatedLimit = limit;
+    }
+
+    @Override
+    protected synchronized void onSample(long latencyNanos, int inFlight, boolean dropped) {
+        if (!dropped) {
+            // 被丢弃的请求没有真正执行，耗时不计入长期耗时
+            if (latencyNanos <= 0) {
+                return;
+            }
+            if (sampleCount < WARMUP_SAMPLES) {
+                sampleCount++;
+                longRtt += (latencyNanos - longRtt) / sampleCount;
+                return;
+            }
+            longRtt += (latencyNanos - longRtt) / LONG_WINDOW;
+            if (longRtt / latencyNanos > 2) {
+                // 负载下降之后长期耗时远大于短期耗时，加速衰减，否则上限会在很长时间内无法收敛
+                longRtt *= 0.95;
+            }
+            if (inFlight * 2 < estimatedLimit) {
+                // 上限没有被用满时耗时不能说明并发是否合适，不调整上限
+                return;
+            }
+        }
+        double gradient = dropped ? 0.5 : Math.max(0.5, Math.min(1.0, TOLERANCE * longRtt / latencyNanos));
+        double newLimit = estimatedLimit * gradient + Math.sqrt(estimatedLimit);
+        newLimit = estimatedLimit * (1 - SMOOTHING) + newLimit * SMOOTHING;
+        estimatedLimit = Math.max(1, Math.min(maxLimit, newLimit));
+        int current = limit;
+        limit = clamp(estimatedLimit);
+        if (logger.isDebugEnabled() && limit != current) {
+            logger.debug("gradient limiter changed limit from {} to {}", current, limit);
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.github.xcfyl.drpc.core.limiter;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * 参考TCP Vegas的自适应并发限制器
+ * 以观察到的最小耗时作为无排队时的耗时rttNoLoad，估算排队中的请求数 queue = limit * (1 - rttNoLoad / rtt)，
+ * 排队数小于alpha时增大上限，大于beta时减小上限，请求被丢弃时直接减小上限
+ * <p>
+ * rttNoLoad每隔一段时间重新采样，避免服务端性能变化之后一直使用过时的最小值
+ *
+ * @author 西城风雨楼
+ */
+public class DrpcVegasLimiter extends DrpcAbstractLimiter {
+    private static final Logger logger = LoggerFactory.getLogger(DrpcVegasLimiter.class);
+    /**
+     * 采样数达到limit的多少倍之后重新测量rttNoLoad
+     */
+    private static final int PROBE_MULTIPLIER = 30;
+
+    private long rttNoLoad;
+    private long sampleCount;
+
+    public DrpcVegasLimiter(int initialLimit, int maxLimit) {
+        super(initialLimit, maxLimit);
+    }
+
+    @Override
+    protected synchronized void onSample(long latencyNanos, int inFlight, boolean dropped) {
+        int current = limit;
+        if (++sampleCount >= (long) PROBE_MULTIPLIER * current) {
+            // 重新测量无排队时的耗时
+            sampleCount = 0;
+            rttNoLoad = 0;
+        }
+        int log = log10(current);
+        if (dropped) {
+            // 被丢弃的请求没有真正执行，耗时不能作为rtt，只用来减小上限
+            setLimit(current, current - log);
+            return;
+        }
+        if (latencyNanos <= 0) {
+            return;
+        }
+        if (rttNoLoad == 0 || latencyNanos < rttNoLoad) {
+            rttNoLoad = latencyNanos;
+            return;
+        }
+        int newLimit;
+        if (inFlight * 2 < current) {
+            // 上限没有被用满时耗时不能说明并发是否合适，不调整上限
+            return;
+        } else {
+            int queue = (int) Math.ceil(current * (1 - (double) rttNoLoad / latencyNanos));
+            if (queue <= log) {
+                newLimit = current + 6 * log;
+            } else if (queue < 3 * log) {
+                newLimit = current + log;
+            } else if (queue > 6 * log) {
+                newLimit = current - log;
+            } else {
+                return;
+            }
+        }
+        setLimit(current, newLimit);
+    }
+
+    private void setLimit(int current, int newLimit) {
+        limit = clamp(newLimit);
+        if (logger.isDebugEnabled() && limit != current) {
+            logger.debug("vegas limiter changed limit from {} to {}", current, limit);
+        }
+    }
+
+    private static int log10(int value) {
+        return Math.max(1, (int) Math.ceil(Math.log10(value)));
+    }
+}
@@ -0,0 +1,71 @@
+package com.github.xcfyl.drpc.core.protocol;
+
+import com.alibaba.fastjson.JSON;
+import com.alibaba.fastjson.JSONObject;
+import com.github.xcfyl.drpc.core.common.enums.DrpcSerializeType;
+import com.github.xcfyl.drpc.core.common.factory.DrpcSerializerFactory;
+import com.github.xcfyl.drpc.core.serializer.DrpcSerializer;
+
+/**
+ * v1协议的body编解码，仅在滚动升级期间和旧节点通信时使用
+ * 旧节点总是使用json传输，并且请求id是字符串，因此这里单独处理
+ *
+ * @author 西城风雨楼
+ */
+public class DrpcLegacyProtocolCodec {
+    /**
+     * 旧客户端的请求id，保存在DrpcTransferProtocol的附加属性中，写回响应时原样带回
+     */
+    public static final String LEGACY_REQUEST_ID = "legacyRequestId";
+
+    /**
+     * 构造发送给旧服务端的请求帧
+     *
+     * @param request 请求对象
+     * @return v1协议帧
+     */
+    public static DrpcTransferProtocol createRequest(DrpcRequest request) {
+        return createProtocol(request);
+    }
+
+    public static DrpcResponse decodeResponse(DrpcTransferProtocol protocol) throws Exception {
+        return getSerializer().deserialize(protocol.getBody(), DrpcResponse.class);
+    }
+
+    /**
+     * 解析旧客户端发送的请求，请求id记录到protocol的附加属性中
+     *
+     * @param protocol v1协议帧
+     * @return 请求对象
+     */
+    public static DrpcRequest decodeRequest(DrpcTransferProtocol protocol) throws Exception {
+        JSONObject jsonObject = getSerializer().deserialize(protocol.getBody(), JSONObject.class);
+        protocol.setAttr(LEGACY_REQUEST_ID, jsonObject.remove("id"));
+        return jsonObject.toJavaObject(DrpcRequest.class);
+    }
+
+    /**
+     * 构造写回旧客户端的响应帧
+     *
+     * @param request  旧客户端的请求帧
+     * @param response 响应对象
+     * @return v1协议帧
+     */
+    public static DrpcTransferProtocol createResponse(DrpcTransferProtocol request, DrpcResponse response) {
+        JSONObject jsonObject = (JSONObject) JSON.toJSON(response);
+        jsonObject.put("id", request.get(LEGACY_REQUEST_ID));
+        return createProtocol(jsonObject);
+    }
+
+    private static DrpcTransferProtocol createProtocol(Object content) {
+        DrpcTransferProtocol protocol = new DrpcTransferProtocol();
+        protocol.setVersion(DrpcTransferProtocol.VERSION_1);
+        protocol.setSerializeType((byte) DrpcSerializeType.FASTJSON.getCode());
+        protocol.setContent(content);
+        return protocol;
+    }
+
+    private static DrpcSerializer getSerializer() {
+        return DrpcSerializerFactory.getRpcSerializer(DrpcSerializeType.FASTJSON.getCode());
+    }
+}
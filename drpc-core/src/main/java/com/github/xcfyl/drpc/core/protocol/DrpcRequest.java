@@ -1,5 +1,8 @@
 package com.github.xcfyl.drpc.core.protocol;
 
+import com.alibaba.fastjson.annotation.JSONType;
+
+import java.io.Serializable;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
@@ -10,11 +13,13 @@ import java.util.Map;
  * @author 西城风雨楼
  * @date create at 2023/6/22 09:41
  */
-public class DrpcRequest {
+@JSONType(orders = {"id", "serviceName", "methodName", "parameterTypes", "timeout", "args"})
+public class DrpcRequest implements Serializable {
+    private static final long serialVersionUID = 2374601838529377312L;
     /**
      * 当前请求的唯一标识
      */
-    private String id;
+    private long id;
     /**
      * 服务名
      */
@@ -24,9 +29,18 @@ public class DrpcRequest {
      */
     private String methodName;
     /**
-     * 方法参数
+     * 方法参数类型的全限定名，服务端据此区分重载方法
+     */
+    private String[] parameterTypes;
+    /**
+     * 方法参数，json序列化时放在最后，服务端解析到参数时已经可以确定方法，直接按照参数类型解码
      */
     private Object[] args;
+    /**
+     * 调用方还愿意等待的时间，单位毫秒，服务端据此计算本地的截止时间，小于等于0表示没有限制
+     * 只传递相对时间，不受两端时钟偏差的影响
+     */
+    private long timeout;
     /**
      * 本次请求的附加字段
      */
@@ -36,7 +50,7 @@ public class DrpcRequest {
         attrs = new HashMap<>();
     }
 
-    public DrpcRequest(String id, String service, String method, Object[] args) {
+    public DrpcRequest(long id, String service, String method, Object[] args) {
         this();
         this.id = id;
         this.serviceName = service;
@@ -44,11 +58,11 @@ public class DrpcRequest {
         this.args = args;
     }
 
-    public String getId() {
+    public long getId() {
         return id;
     }
 
-    public void setId(String id) {
+    public void setId(long id) {
         this.id = id;
     }
 
@@ -68,6 +82,14 @@ public class DrpcRequest {
         this.methodName = methodName;
     }
 
+    public String[] getParameterTypes() {
+        return parameterTypes;
+    }
+
+    public void setParameterTypes(String[] parameterTypes) {
+        this.parameterTypes = parameterTypes;
+    }
+
     public Object[] getArgs() {
         return args;
     }
@@ -76,6 +98,14 @@ public class DrpcRequest {
         this.args = args;
     }
 
+    public long getTimeout() {
+        return timeout;
+    }
+
+    public void setTimeout(long timeout) {
+        this.timeout = timeout;
+    }
+
     public void setAttr(String key, Object value) {
         attrs.put(key, value);
     }
@@ -87,10 +117,12 @@ public class DrpcRequest {
     @Override
     public String toString() {
         return "DrpcRequest{" +
-                "id='" + id + '\'' +
+                "id=" + id +
                 ", serviceName='" + serviceName + '\'' +
                 ", methodName='" + methodName + '\'' +
+                ", parameterTypes=" + Arrays.toString(parameterTypes) +
                 ", args=" + Arrays.toString(args) +
+                ", timeout=" + timeout +
                 ", attrs=" + attrs +
                 '}';
     }
@@ -1,6 +1,6 @@
 package com.github.xcfyl.drpc.core.protocol;
 
-
+import java.io.Serializable;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -10,11 +10,12 @@ import java.util.Map;
  * @author 西城风雨楼
  * @date create at 2023/6/22 09:42
  */
-public class DrpcResponse {
+public class DrpcResponse implements Serializable {
+    private static final long serialVersionUID = -1497712983530874566L;
     /**
      * 和响应对应的请求id保持一致
      */
-    private String id;
+    private long id;
     /**
      * 响应体
      */
@@ -29,10 +30,10 @@ public class DrpcResponse {
     private Map<String, Object> attrs;
 
     public DrpcResponse() {
-
+        attrs = new HashMap<>();
     }
 
-    public DrpcResponse(String id, Object body) {
+    public DrpcResponse(long id, Object body) {
         this.id = id;
         this.body = body;
         attrs = new HashMap<>();
@@ -46,11 +47,11 @@ public class DrpcResponse {
         return attrs.get(key);
     }
 
-    public String getId() {
+    public long getId() {
         return id;
     }
 
-    public void setId(String id) {
+    public void setId(long id) {
         this.id = id;
     }
 
@@ -73,7 +74,7 @@ public class DrpcResponse {
     @Override
     public String toString() {
         return "DrpcResponse{" +
-                "id='" + id + '\'' +
+                "id=" + id +
                 ", body=" + body +
                 ", throwable=" + throwable +
                 ", attrs=" + attrs +
@@ -1,13 +1,23 @@
 package com.github.xcfyl.drpc.core.protocol;
 
 
+import io.netty.buffer.ByteBuf;
+import io.netty.util.ReferenceCountUtil;
+
 import java.io.Serializable;
-import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
 
 /**
  * rpc传输协议
+ * <p>
+ * v2协议格式：magic(2) + version(1) + messageType(1) + serializeType(1) + compressType(1)
+ * + status(1) + flags(1) + requestId(8) + length(4) + [checksum(4)] + body
+ * <p>
+ * v1协议格式：magic(2) + length(4) + body，仅用于和尚未升级的节点通信
+ * <p>
+ * 解码得到的协议帧中，body是入站缓冲区的一个切片，使用完之后需要调用release释放；
+ * 待发送的协议帧只设置content，由编码器直接序列化到出站缓冲区中
  *
  * @author 西城风雨楼
  * @date create at 2023/6/22 09:44
@@ -17,15 +27,67 @@ public class DrpcTransferProtocol implements Serializable {
     /**
      * 协议标识，用于检测是否为rpc协议
      */
-    private final static short MAGIC_NUMBER = 1998;
+    private final static short MAGIC_NUMBER = 2023;
+    /**
+     * v1协议的标识
+     */
+    private final static short LEGACY_MAGIC_NUMBER = 1998;
+    public final static byte VERSION_1 = 1;
+    public final static byte VERSION_2 = 2;
+    public final static byte CURRENT_VERSION = VERSION_2;
+    /**
+     * flags中的标志位，表示头部之后携带了body的CRC32校验和
+     */
+    public final static byte FLAG_CHECKSUM = 0x01;
+    /**
+     * flags中的标志位，表示body经过了compressType对应的压缩，body的前4个字节是压缩之前的长度
+     */
+    public final static byte FLAG_COMPRESSED = 0x02;
+    /**
+     * 协议版本
+     */
+    private byte version = CURRENT_VERSION;
+    /**
+     * 消息类型，对应DrpcMessageType
+     */
+    private byte messageType;
+    /**
+     * body使用的序列化方式，对应DrpcSerializeType
+     */
+    private byte serializeType;
+    /**
+     * 发送方使用的压缩方式，对应DrpcCompressType，0表示不压缩
+     * body是否真的被压缩由FLAG_COMPRESSED决定，小于阈值的body不压缩；服务端按照请求中的压缩方式压缩响应
+     */
+    private byte compressType;
+    /**
+     * body达到多少字节时才压缩，只在发送时使用，不写入协议头部
+     */
+    private transient int compressThreshold;
+    /**
+     * 响应状态，对应DrpcResponseStatus
+     */
+    private byte status;
+    /**
+     * 标志位
+     */
+    private byte flags;
+    /**
+     * 请求id，响应帧中携带的是对应请求的id，客户端无需反序列化body即可找到对应的请求
+     */
+    private long requestId;
     /**
      * 本次传输的数据长度
      */
     private int length;
     /**
-     * 本次传输的数据内容
+     * 本次传输的数据内容，解码时是入站缓冲区的切片，不会拷贝
      */
-    private byte[] body;
+    private ByteBuf body;
+    /**
+     * 待发送的消息对象，编码器按照serializeType直接将其序列化到出站缓冲区
+     */
+    private Object content;
     /**
      * 协议的附加属性
      */
@@ -35,18 +97,29 @@ public class DrpcTransferProtocol implements Serializable {
         attrs = new HashMap<>();
     }
 
-    public DrpcTransferProtocol(byte[] body) {
+    public DrpcTransferProtocol(byte messageType, byte serializeType, long requestId, Object content) {
         this();
-        this.length = body.length;
-        this.body = body;
+        this.messageType = messageType;
+        this.serializeType = serializeType;
+        this.requestId = requestId;
+        this.content = content;
     }
 
     /**
-     * 获取协议头部长度，协议头等于magicNumber + length
+     * 获取v2协议头部长度，不包含可选的校验和
      *
      * @return 返回协议头部长度
      */
     public static int getHeaderLength() {
+        return 20;
+    }
+
+    /**
+     * 获取v1协议头部长度，协议头等于magicNumber + length
+     *
+     * @return 返回协议头部长度
+     */
+    public static int getLegacyHeaderLength() {
         return 6;
     }
 
@@ -54,6 +127,98 @@ public class DrpcTransferProtocol implements Serializable {
         return MAGIC_NUMBER;
     }
 
+    public static short getLegacyMagicNumber() {
+        return LEGACY_MAGIC_NUMBER;
+    }
+
+    public byte getVersion() {
+        return version;
+    }
+
+    public void setVersion(byte version) {
+        this.version = version;
+    }
+
+    public byte getMessageType() {
+        return messageType;
+    }
+
+    public void setMessageType(byte messageType) {
+        this.messageType = messageType;
+    }
+
+    public byte getSerializeType() {
+        return serializeType;
+    }
+
+    public void setSerializeType(byte serializeType) {
+        this.serializeType = serializeType;
+    }
+
+    public byte getCompressType() {
+        return compressType;
+    }
+
+    public void setCompressType(byte compressType) {
+        this.compressType = compressType;
+    }
+
+    public byte getStatus() {
+        return status;
+    }
+
+    public void setStatus(byte status) {
+        this.status = status;
+    }
+
+    public byte getFlags() {
+        return flags;
+    }
+
+    public void setFlags(byte flags) {
+        this.flags = flags;
+    }
+
+    public boolean isChecksum() {
+        return (flags & FLAG_CHECKSUM) != 0;
+    }
+
+    public void setChecksum(boolean checksum) {
+        if (checksum) {
+            flags |= FLAG_CHECKSUM;
+        } else {
+            flags &= ~FLAG_CHECKSUM;
+        }
+    }
+
+    public boolean isCompressed() {
+        return (flags & FLAG_COMPRESSED) != 0;
+    }
+
+    public void setCompressed(boolean compressed) {
+        if (compressed) {
+            flags |= FLAG_COMPRESSED;
+        } else {
+            flags &= ~FLAG_COMPRESSED;
+        }
+    }
+
+    public int getCompressThreshold() {
+        return compressThreshold;
+    }
+
+    public void setCompressThreshold(int compressThreshold) {
+        this.compressThreshold = compressThreshold;
+    }
+
+    public long getRequestId() {
+        return requestId;
+    }
+
+    public void setRequestId(long requestId) {
+        this.requestId = requestId;
+    }
+
     public int getLength() {
         return length;
     }
@@ -62,12 +227,31 @@ public class DrpcTransferProtocol implements Serializable {
         this.length = length;
     }
 
-    public byte[] getBody() {
+    public ByteBuf getBody() {
         return body;
     }
 
-    public void setBody(byte[] body) {
+    public void setBody(ByteBuf body) {
         this.body = body;
+        this.length = body == null ? 0 : body.readableBytes();
+    }
+
+    public Object getContent() {
+        return content;
+    }
+
+    public void setContent(Object content) {
+        this.content = content;
+    }
+
+    /**
+     * 释放body持有的缓冲区，可以重复调用
+     */
+    public void release() {
+        if (body != null) {
+            ReferenceCountUtil.release(body);
+            body = null;
+        }
     }
 
     public void setAttr(String key, Object value) {
@@ -81,8 +265,15 @@ public class DrpcTransferProtocol implements Serializable {
     @Override
     public String toString() {
         return "DrpcTransferProtocol{" +
-                "length=" + length +
-                ", body=" + Arrays.toString(body) +
+                "version=" + version +
+                ", messageType=" + messageType +
+                ", serializeType=" + serializeType +
+                ", compressType=" + compressType +
+                ", status=" + status +
+                ", flags=" + flags +
+                ", requestId=" + requestId +
+                ", length=" + length +
+                ", content=" + content +
                 ", attrs=" + attrs +
                 '}';
     }
@@ -1,5 +1,7 @@
 package com.github.xcfyl.drpc.core.protocol;
 
+import com.github.xcfyl.drpc.core.common.factory.DrpcCompressorFactory;
+import com.github.xcfyl.drpc.core.compress.DrpcCompressor;
 import com.github.xcfyl.drpc.core.exception.DrpcRequestException;
 import io.netty.buffer.ByteBuf;
 import io.netty.channel.ChannelHandlerContext;
@@ -8,37 +10,143 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.List;
+import java.util.zip.CRC32;
 
 /**
  * rpc传输协议解码器，将字节数组解码为RpcTransferProtocol对象
+ * 同时支持v2协议和v1协议，v1协议的帧被标记为VERSION_1，由上层按照旧的方式处理
+ * 压缩过的body在校验之后立即解压，上层拿到的总是未压缩的body
+ * 读到帧头之后立即检查body长度，超过上限的帧不再继续缓存，直接关闭连接
  *
  * @author 西城风雨楼
  * @date create at 2023/6/22 09:50
  */
 public class DrpcTransferProtocolDecoder extends ByteToMessageDecoder {
     private static final Logger logger = LoggerFactory.getLogger(DrpcTransferProtocolDecoder.class);
+    /**
+     * body的最大长度，压缩的body解压之后也不能超过该长度，防止恶意或者损坏的帧声明一个过大的长度
+     */
+    private final int maxFrameLength;
+
+    public DrpcTransferProtocolDecoder(int maxFrameLength) {
+        this.maxFrameLength = maxFrameLength > 0 ? maxFrameLength : Integer.MAX_VALUE;
+    }
 
     @Override
     protected void decode(ChannelHandlerContext ctx, ByteBuf byteBuf, List<Object> list) throws Exception {
-        if (byteBuf.readableBytes() >= DrpcTransferProtocol.getHeaderLength()) {
-            int readIndex = byteBuf.readerIndex();
-            byteBuf.markReaderIndex();
-            if (byteBuf.readShort() != DrpcTransferProtocol.getMagicNumber()) {
-                ctx.close();
-                throw new DrpcRequestException("未知rpc协议");
+        if (byteBuf.readableBytes() < DrpcTransferProtocol.getLegacyHeaderLength()) {
+            return;
+        }
+        short magicNumber = byteBuf.getShort(byteBuf.readerIndex());
+        if (magicNumber == DrpcTransferProtocol.getMagicNumber()) {
+            decodeV2(ctx, byteBuf, list);
+        } else if (magicNumber == DrpcTransferProtocol.getLegacyMagicNumber()) {
+            decodeV1(ctx, byteBuf, list);
+        } else {
+            ctx.close();
+            throw new DrpcRequestException("未知rpc协议");
+        }
+    }
+
+    private void decodeV2(ChannelHandlerContext ctx, ByteBuf byteBuf, List<Object> list) throws Exception {
+        if (byteBuf.readableBytes() < DrpcTransferProtocol.getHeaderLength()) {
+            return;
+        }
+        int readIndex = byteBuf.readerIndex();
+        byteBuf.skipBytes(2);
+        DrpcTransferProtocol protocol = new DrpcTransferProtocol();
+        protocol.setVersion(byteBuf.readByte());
+        protocol.setMessageType(byteBuf.readByte());
+        protocol.setSerializeType(byteBuf.readByte());
+        protocol.setCompressType(byteBuf.readByte());
+        protocol.setStatus(byteBuf.readByte());
+        protocol.setFlags(byteBuf.readByte());
+        protocol.setRequestId(byteBuf.readLong());
+        int length = byteBuf.readInt();
+        checkFrameLength(ctx, byteBuf, length);
+        int checksumLength = protocol.isChecksum() ? 4 : 0;
+        if (byteBuf.readableBytes() < length + checksumLength) {
+            // 当前数据没有完整到来
+            byteBuf.readerIndex(readIndex);
+            return;
+        }
+        int checksum = protocol.isChecksum() ? byteBuf.readInt() : 0;
+        // body直接引用入站缓冲区，由处理器在反序列化之后释放
+        ByteBuf body = byteBuf.readRetainedSlice(length);
+        if (protocol.isChecksum()) {
+            CRC32 crc32 = new CRC32();
+            crc32.update(body.nioBuffer());
+            if ((int) crc32.getValue() != checksum) {
+                body.release();
+                throw new DrpcRequestException("checksum mismatch, request id " + protocol.getRequestId());
             }
+        }
+        if (protocol.isCompressed()) {
+            body = decompress(ctx, protocol, body);
+            protocol.setCompressed(false);
+        }
+        protocol.setBody(body);
+        list.add(protocol);
+    }
 
-            int length = byteBuf.readInt();
-            if (byteBuf.readableBytes() < length) {
-                // 当前数据没有完整到来
-                byteBuf.readerIndex(readIndex);
-                return;
+    /**
+     * 解压body，无论成功与否都会释放压缩的body
+     */
+    private ByteBuf decompress(ChannelHandlerContext ctx, DrpcTransferProtocol protocol, ByteBuf body)
+            throws Exception {
+        try {
+            int originalLength = body.readInt();
+            if (originalLength < 0 || originalLength > maxFrameLength) {
+                ctx.close();
+                throw new DrpcRequestException("invalid decompressed length " + originalLength
+                        + ", request id " + protocol.getRequestId());
             }
+            DrpcCompressor compressor = DrpcCompressorFactory.getCompressor(protocol.getCompressType());
+            // 解压到堆内存中，反序列化时可以直接使用底层数组
+            ByteBuf decompressed = ctx.alloc().heapBuffer(originalLength);
+            try {
+                compressor.decompress(body, decompressed, originalLength);
+                if (decompressed.readableBytes() != originalLength) {
+                    throw new DrpcRequestException("decompressed length mismatch, request id "
+                            + protocol.getRequestId());
+                }
+                return decompressed;
+            } catch (Exception e) {
+                decompressed.release();
+                throw e;
+            }
+        } finally {
+            body.release();
+        }
+    }
+
+    private void decodeV1(ChannelHandlerContext ctx, ByteBuf byteBuf, List<Object> list) throws Exception {
+        int readIndex = byteBuf.readerIndex();
+        byteBuf.skipBytes(2);
+        int length = byteBuf.readInt();
+        checkFrameLength(ctx, byteBuf, length);
+        if (byteBuf.readableBytes() < length) {
+            // 当前数据没有完整到来
+            byteBuf.readerIndex(readIndex);
+            return;
+        }
+        DrpcTransferProtocol protocol = new DrpcTransferProtocol();
+        protocol.setVersion(DrpcTransferProtocol.VERSION_1);
+        protocol.setBody(byteBuf.readRetainedSlice(length));
+        list.add(protocol);
+    }
 
-            byte[] bytes = new byte[length];
-            byteBuf.readBytes(bytes);
-            DrpcTransferProtocol protocol = new DrpcTransferProtocol(bytes);
-            list.add(protocol);
+    /**
+     * 帧长度非法时丢弃已经收到的数据并关闭连接，对端发送的后续数据已经无法正确分帧
+     */
+    private void checkFrameLength(ChannelHandlerContext ctx, ByteBuf byteBuf, int length) throws Exception {
+        if (length >= 0 && length <= maxFrameLength) {
+            return;
         }
+        byteBuf.skipBytes(byteBuf.readableBytes());
+        logger.error("frame length {} from {} exceeds limit {}, close connection",
+                length, ctx.channel().remoteAddress(), maxFrameLength);
+        ctx.close();
+        throw new DrpcRequestException("frame length " + length + " exceeds limit " + maxFrameLength);
     }
 }
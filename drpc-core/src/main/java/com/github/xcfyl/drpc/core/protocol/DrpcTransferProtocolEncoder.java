@@ -1,24 +1,124 @@
 package com.github.xcfyl.drpc.core.protocol;
 
+import com.github.xcfyl.drpc.core.common.enums.DrpcCompressType;
+import com.github.xcfyl.drpc.core.common.factory.DrpcCompressorFactory;
+import com.github.xcfyl.drpc.core.common.factory.DrpcSerializerFactory;
+import com.github.xcfyl.drpc.core.compress.DrpcCompressor;
+import com.github.xcfyl.drpc.core.exception.DrpcRequestException;
 import io.netty.buffer.ByteBuf;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.handler.codec.MessageToByteEncoder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.zip.CRC32;
+
 /**
  * rpc传输协议编码器，将RpcTransferProtocol编码为字节数组对象
+ * 消息对象直接序列化到池化的出站缓冲区中，写完body之后再回填长度和校验和
+ * 开启压缩并且body达到阈值时，在计算校验和之前压缩body，压缩之后没有变小的body按原样发送
+ * 超过长度上限的帧不会发出，写操作以异常结束，避免对端因为帧过长关闭整个连接
  *
  * @author 西城风雨楼
  * @date create at 2023/6/22 09:51
  */
 public class DrpcTransferProtocolEncoder extends MessageToByteEncoder<DrpcTransferProtocol> {
     private static final Logger logger = LoggerFactory.getLogger(DrpcTransferProtocolEncoder.class);
+    /**
+     * 写出的body的最大长度，压缩之后计算
+     */
+    private final int maxFrameLength;
+
+    public DrpcTransferProtocolEncoder(int maxFrameLength) {
+        this.maxFrameLength = maxFrameLength > 0 ? maxFrameLength : Integer.MAX_VALUE;
+    }
 
     @Override
     protected void encode(ChannelHandlerContext ctx, DrpcTransferProtocol protocol, ByteBuf byteBuf) throws Exception {
+        if (protocol.getVersion() == DrpcTransferProtocol.VERSION_1) {
+            // 对端还没有升级，使用v1协议
+            byteBuf.writeShort(DrpcTransferProtocol.getLegacyMagicNumber());
+            int lengthIndex = byteBuf.writerIndex();
+            byteBuf.writeInt(0);
+            byteBuf.setInt(lengthIndex, checkFrameLength(protocol, writeBody(protocol, byteBuf)));
+            return;
+        }
         byteBuf.writeShort(DrpcTransferProtocol.getMagicNumber());
-        byteBuf.writeInt(protocol.getLength());
-        byteBuf.writeBytes(protocol.getBody());
+        byteBuf.writeByte(protocol.getVersion());
+        byteBuf.writeByte(protocol.getMessageType());
+        byteBuf.writeByte(protocol.getSerializeType());
+        byteBuf.writeByte(protocol.getCompressType());
+        byteBuf.writeByte(protocol.getStatus());
+        int flagsIndex = byteBuf.writerIndex();
+        byteBuf.writeByte(protocol.getFlags());
+        byteBuf.writeLong(protocol.getRequestId());
+        int lengthIndex = byteBuf.writerIndex();
+        byteBuf.writeInt(0);
+        int checksumIndex = byteBuf.writerIndex();
+        if (protocol.isChecksum()) {
+            byteBuf.writeInt(0);
+        }
+        int bodyIndex = byteBuf.writerIndex();
+        int length = writeBody(protocol, byteBuf);
+        if (protocol.getCompressType() != DrpcCompressType.NONE.getCode() && !protocol.isCompressed()
+                && length > 0 && length >= protocol.getCompressThreshold()) {
+            length = compressBody(ctx, protocol, byteBuf, bodyIndex, length, flagsIndex);
+        }
+        byteBuf.setInt(lengthIndex, checkFrameLength(protocol, length));
+        if (protocol.isChecksum()) {
+            CRC32 crc32 = new CRC32();
+            crc32.update(byteBuf.nioBuffer(bodyIndex, length));
+            byteBuf.setInt(checksumIndex, (int) crc32.getValue());
+        }
+    }
+
+    private int checkFrameLength(DrpcTransferProtocol protocol, int length) throws DrpcRequestException {
+        if (length > maxFrameLength) {
+            throw new DrpcRequestException("frame length " + length + " of request " + protocol.getRequestId()
+                    + " exceeds limit " + maxFrameLength);
+        }
+        return length;
+    }
+
+    /**
+     * 压缩已经写入的body，返回压缩之后body的长度
+     */
+    private int compressBody(ChannelHandlerContext ctx, DrpcTransferProtocol protocol, ByteBuf byteBuf,
+                             int bodyIndex, int length, int flagsIndex) throws Exception {
+        DrpcCompressor compressor = DrpcCompressorFactory.getCompressor(protocol.getCompressType());
+        ByteBuf compressed = ctx.alloc().heapBuffer(length / 2 + 64);
+        try {
+            compressed.writeInt(length);
+            compressor.compress(byteBuf.slice(bodyIndex, length), compressed);
+            int compressedLength = compressed.readableBytes();
+            if (compressedLength >= length) {
+                return length;
+            }
+            byteBuf.writerIndex(bodyIndex);
+            byteBuf.writeBytes(compressed);
+            byteBuf.setByte(flagsIndex, protocol.getFlags() | DrpcTransferProtocol.FLAG_COMPRESSED);
+            if (logger.isDebugEnabled()) {
+                logger.debug("compress body of request {} from {} to {} bytes",
+                        protocol.getRequestId(), length, compressedLength);
+            }
+            return compressedLength;
+        } finally {
+            compressed.release();
+        }
+    }
+
+    /**
+     * 写入body，返回写入的字节数
+     */
+    private int writeBody(DrpcTransferProtocol protocol, ByteBuf byteBuf) throws Exception {
+        int start = byteBuf.writerIndex();
+        if (protocol.getContent() != null) {
+            DrpcSerializerFactory.getRpcSerializer(protocol.getSerializeType())
+                    .serialize(protocol.getContent(), byteBuf);
+        } else if (protocol.getBody() != null) {
+            byteBuf.writeBytes(protocol.getBody(), protocol.getBody().readerIndex(), protocol.getLength());
+            protocol.release();
+        }
+        return byteBuf.writerIndex() - start;
     }
 }
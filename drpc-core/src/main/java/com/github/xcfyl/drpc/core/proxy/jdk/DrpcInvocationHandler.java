@@ -1,26 +1,47 @@
 package com.github.xcfyl.drpc.core.proxy.jdk;
 
-import com.alibaba.fastjson.JSON;
+import com.github.xcfyl.drpc.core.client.DrpcCircuitBreaker;
+import com.github.xcfyl.drpc.core.client.DrpcClientConfig;
 import com.github.xcfyl.drpc.core.client.DrpcClientContext;
 import com.github.xcfyl.drpc.core.client.DrpcConnectionManager;
 import com.github.xcfyl.drpc.core.client.DrpcConnectionWrapper;
+import com.github.xcfyl.drpc.core.client.DrpcPooledChannel;
+import com.github.xcfyl.drpc.core.client.DrpcResponseGuardedObject;
 import com.github.xcfyl.drpc.core.client.DrpcServiceWrapper;
-import com.github.xcfyl.drpc.core.common.retry.RetryUtils;
+import com.github.xcfyl.drpc.core.cluster.DrpcCluster;
+import com.github.xcfyl.drpc.core.cluster.DrpcInvocation;
+import com.github.xcfyl.drpc.core.common.annotation.DrpcIdempotent;
+import com.github.xcfyl.drpc.core.common.context.DrpcContext;
+import com.github.xcfyl.drpc.core.common.enums.DrpcMessageType;
+import com.github.xcfyl.drpc.core.common.enums.DrpcResponseStatus;
+import com.github.xcfyl.drpc.core.common.factory.DrpcClusterFactory;
 import com.github.xcfyl.drpc.core.exception.DrpcRequestException;
+import com.github.xcfyl.drpc.core.exception.DrpcRequestNotSentException;
+import com.github.xcfyl.drpc.core.exception.DrpcRequestTimeoutException;
+import com.github.xcfyl.drpc.core.exception.DrpcServerOverloadedException;
+import com.github.xcfyl.drpc.core.protocol.DrpcLegacyProtocolCodec;
 import com.github.xcfyl.drpc.core.protocol.DrpcRequest;
 import com.github.xcfyl.drpc.core.protocol.DrpcResponse;
 import com.github.xcfyl.drpc.core.protocol.DrpcTransferProtocol;
-import com.github.xcfyl.drpc.core.router.DrpcRouter;
+import com.github.xcfyl.drpc.core.server.DrpcMethodInvoker;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.lang.reflect.Array;
 import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.Method;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Objects;
-import java.util.UUID;
+import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 
@@ -40,8 +61,24 @@ public class DrpcInvocationHandler<T> implements InvocationHandler {
             new ArrayBlockingQueue<>(3000),
             new ThreadPoolExecutor.CallerRunsPolicy());
 
+    /**
+     * 方法参数类型名称的缓存，避免每次请求都重新计算
+     */
+    private final Map<Method, String[]> parameterTypesCache = new ConcurrentHashMap<>();
+    /**
+     * 方法是否幂等的缓存
+     */
+    private final Map<Method, Boolean> idempotentCache = new ConcurrentHashMap<>();
+    /**
+     * 方法响应体类型的缓存，收到响应时直接按照该类型解码
+     */
+    private final Map<Method, Type> bodyTypeCache = new ConcurrentHashMap<>();
     private final DrpcServiceWrapper<T> serviceWrapper;
     private final DrpcClientContext rpcClientContext;
+    /**
+     * 当前服务使用的集群容错策略
+     */
+    private final DrpcCluster cluster;
 
     public DrpcInvocationHandler(DrpcClientContext rpcClientContext, DrpcServiceWrapper<T> serviceWrapper) {
         this.serviceWrapper = serviceWrapper;
@@ -55,6 +92,19 @@ public class DrpcInvocationHandler<T> implements InvocationHandler {
         if (serviceWrapper.getRetryInterval() == null) {
             serviceWrapper.setRetryInterval(rpcClientContext.getClientConfig().getRequestRetryInterval());
         }
+        if (serviceWrapper.getDeadline() == null) {
+            serviceWrapper.setDeadline(rpcClientContext.getClientConfig().getRequestDeadline());
+        }
+        if (serviceWrapper.getClusterType() == null) {
+            serviceWrapper.setClusterType(rpcClientContext.getClientConfig().getClusterType());
+        }
+        if (serviceWrapper.getCompressType() == null) {
+            serviceWrapper.setCompressType(rpcClientContext.getClientConfig().getCompressType());
+        }
+        if (serviceWrapper.getCompressThreshold() == null) {
+            serviceWrapper.setCompressThreshold(rpcClientContext.getClientConfig().getCompressThreshold());
+        }
+        this.cluster = DrpcClusterFactory.createCluster(serviceWrapper.getClusterType(), rpcClientContext);
         if (logger.isDebugEnabled()) {
             logger.debug("service wrapper is {}", serviceWrapper);
         }
@@ -62,71 +112,272 @@ public class DrpcInvocationHandler<T> implements InvocationHandler {
 
     @Override
     public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
-        // 生成本次请求id
-        String requestId = UUID.randomUUID().toString();
-        Integer retryTimes = serviceWrapper.getRetryTimes();
-        Long retryInterval = serviceWrapper.getRetryInterval();
+        // 方法返回值为CompletableFuture时，采用异步调用，调用结束时直接完成返回的future
+        if (method.getReturnType() == CompletableFuture.class) {
+            return invokeCluster(method, args).thenApply(response -> {
+                if (response.getThrowable() != null) {
+                    throw new CompletionException(response.getThrowable());
+                }
+                return response.getBody();
+            });
+        }
 
-        // 异步写数据
-        threadPoolExecutor.submit(() -> sendRequest(serviceWrapper, requestId, method.getName(), args));
         if (!serviceWrapper.isSync()) {
-            // 如果不是同步请求，直接返回
+            // 如果不是同步请求，直接返回，服务端也不需要写回响应
+            threadPoolExecutor.submit(() -> sendOneway(method, args));
             return null;
         }
-        // 如果是同步请求，那么通过guard获取数据
-        DrpcResponse response = rpcClientContext.getResponseGuardedObject()
-                .getDrpcResponse(requestId, serviceWrapper.getTimeout());
-
-        if (response == null) {
-            // 如果第一次请求超时
-            response = RetryUtils.retry("GetResponseRetry", retryTimes, retryInterval, () -> {
-                // 在这里面编写重试的逻辑
-                return rpcClientContext.getResponseGuardedObject()
-                        .getDrpcResponse(requestId, serviceWrapper.getTimeout());
-            }, Objects::nonNull);
+        // 如果是同步请求，那么等待集群容错层返回最终结果
+        DrpcResponse response;
+        try {
+            response = invokeCluster(method, args).get();
+        } catch (ExecutionException e) {
+            throw e.getCause();
+        }
+        if (response.getThrowable() != null) {
+            throw response.getThrowable();
         }
+        Object body = response.getBody();
+        Class<?> returnType = method.getReturnType();
+        if (body == null && returnType.isPrimitive() && returnType != void.class) {
+            // failsafe策略失败时没有结果，基本类型返回默认值
+            return Array.get(Array.newInstance(returnType, 1), 0);
+        }
+        return body;
+    }
 
-        // 如果重试成功，那么尝试获取本次请求的结果
-        if (response != null) {
-            if (response.getThrowable() != null) {
-                throw response.getThrowable();
+    /**
+     * 交给集群容错层执行一次需要响应的调用
+     *
+     * @param method
+     * @param args
+     * @return 调用结束时完成的future
+     */
+    private CompletableFuture<DrpcResponse> invokeCluster(Method method, Object[] args) {
+        String serviceName = serviceWrapper.getServiceClass().getName();
+        DrpcInvocation invocation = new DrpcInvocation();
+        invocation.setServiceName(serviceName);
+        invocation.setMethodName(method.getName());
+        invocation.setIdempotent(idempotentCache.computeIfAbsent(method, this::isIdempotent));
+        invocation.setProviderCount(rpcClientContext.getConnectionManager().getOriginalConnections(serviceName).size());
+        invocation.setRetryTimes(serviceWrapper.getRetryTimes());
+        invocation.setRetryInterval(serviceWrapper.getRetryInterval());
+        invocation.setTimeout(serviceWrapper.getTimeout());
+        long deadline = serviceWrapper.getDeadline() > 0
+                ? System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(serviceWrapper.getDeadline()) : 0;
+        DrpcContext context = DrpcContext.getCurrent();
+        if (context != null && context.getDeadline() != 0) {
+            // 在服务方法中发起的嵌套调用，不能晚于上游请求的截止时间
+            if (context.isExpired()) {
+                CompletableFuture<DrpcResponse> future = new CompletableFuture<>();
+                future.completeExceptionally(new DrpcRequestException(
+                        DrpcResponseStatus.DEADLINE_EXCEEDED.getDescription()));
+                return future;
             }
-            return response.getBody();
+            if (deadline == 0 || context.getDeadline() - deadline < 0) {
+                deadline = context.getDeadline();
+            }
+        }
+        invocation.setDeadline(deadline);
+        invocation.setInvoker((excluded, timeout) -> send(method, args, excluded, timeout));
+        return cluster.invoke(invocation);
+    }
+
+    private boolean isIdempotent(Method method) {
+        return method.isAnnotationPresent(DrpcIdempotent.class)
+                || method.getDeclaringClass().isAnnotationPresent(DrpcIdempotent.class)
+                || serviceWrapper.getServiceClass().isAnnotationPresent(DrpcIdempotent.class);
+    }
 
+    /**
+     * 获取响应体的类型，异步方法取CompletableFuture的泛型参数
+     *
+     * @param method
+     * @return
+     */
+    private Type getBodyType(Method method) {
+        Type returnType = method.getGenericReturnType();
+        if (method.getReturnType() == CompletableFuture.class) {
+            return returnType instanceof ParameterizedType
+                    ? ((ParameterizedType) returnType).getActualTypeArguments()[0] : Object.class;
         }
-        if (logger.isDebugEnabled()) {
-            logger.debug("request timeout, request id is {}, timeout limit is {}, retrytimes are {}",
-                    requestId, serviceWrapper.getTimeout(), retryTimes);
+        return returnType == void.class ? Object.class : returnType;
+    }
+
+    /**
+     * 向一个不在excluded中的服务提供者发送一次请求，每次发送都使用新的请求id，
+     * 之前超时的请求即使晚到也不会和本次请求混淆
+     *
+     * @param method
+     * @param args
+     * @param excluded 本次调用已经尝试过的服务提供者
+     * @param timeout  本次发送的超时时间
+     * @return 响应到达时完成的future
+     */
+    private CompletableFuture<DrpcResponse> send(Method method, Object[] args,
+                                                 Set<DrpcConnectionWrapper> excluded, long timeout) {
+        if (timeout <= 0) {
+            // 已经超过截止时间，不再发送，超时时间为0的请求会被服务端当成没有截止时间
+            CompletableFuture<DrpcResponse> future = new CompletableFuture<>();
+            future.completeExceptionally(new DrpcRequestException(
+                    DrpcResponseStatus.DEADLINE_EXCEEDED.getDescription()));
+            return future;
         }
-        throw new DrpcRequestException("request timeout");
+        DrpcResponseGuardedObject guardedObject = rpcClientContext.getResponseGuardedObject();
+        long requestId = guardedObject.nextRequestId();
+        // 需要在发送之前登记future，避免响应先于登记到达
+        CompletableFuture<DrpcResponse> future = guardedObject.newFuture(requestId, timeout,
+                bodyTypeCache.computeIfAbsent(method, this::getBodyType));
+        DrpcRequest request = createRequest(requestId, method, args);
+        // 把本次发送的超时时间告诉服务端，服务端不会执行调用方已经放弃等待的请求
+        request.setTimeout(timeout);
+        DrpcConnectionWrapper connectionWrapper;
+        try {
+            // 在调用线程中选择服务提供者，并行发送的多个请求才能选到不同的服务提供者
+            connectionWrapper = selectConnection(request, excluded);
+            excluded.add(connectionWrapper);
+        } catch (Exception e) {
+            logger.error("send request exception -> {}", e.getMessage());
+            future.completeExceptionally(new DrpcRequestNotSentException(e.getMessage(), e));
+            return future;
+        }
+        threadPoolExecutor.submit(() -> sendRequest(connectionWrapper, request, DrpcMessageType.REQUEST, future));
+        return future;
     }
 
-    private void sendRequest(DrpcServiceWrapper<?> serviceWrapper, String requestId, String methodName, Object[] args) {
+    private void sendOneway(Method method, Object[] args) {
         try {
-            // 当前调用的服务的名称
-            String serviceName = serviceWrapper.getServiceClass().getName();
-            // 当前调用的服务的方法名称
-            // 创建Rpc请求对象
-            DrpcRequest request = new DrpcRequest(requestId, serviceName, methodName, args);
-            // 创建rpc协议对象
-            DrpcTransferProtocol protocol = new DrpcTransferProtocol(JSON.toJSONString(request).getBytes());
-            // 获取客户端连接管理器对象
-            DrpcConnectionManager connectionManager = rpcClientContext.getConnectionManager();
-            // 获取当前客户端本地缓存的所有连接对象
-            List<DrpcConnectionWrapper> originalConnections = connectionManager.getOriginalConnections(serviceName);
-            // 复制一份原始连接对象，交给过滤器进行过滤
-            List<DrpcConnectionWrapper> filteredConnections = new ArrayList<>(originalConnections);
-            // 调用过滤器对连接对象进行过滤
-            rpcClientContext.getFilterChain().doFilter(filteredConnections, request);
-            // 获取当前客户端的路由对象
-            DrpcRouter router = rpcClientContext.getRouter();
-            // 使用路由对象从过滤后的连接对象中选择一个连接
-            DrpcConnectionWrapper connectionWrapper = router.select(serviceName);
-            // 使用连接对象将该rpc协议对象发送给服务提供者
-            connectionWrapper.writeAndFlush(protocol);
+            DrpcRequest request = createRequest(rpcClientContext.getResponseGuardedObject().nextRequestId(),
+                    method, args);
+            sendRequest(selectConnection(request, null), request, DrpcMessageType.ONEWAY, null);
         } catch (Exception e) {
-            e.printStackTrace();
             logger.error("send request exception -> {}", e.getMessage());
         }
     }
+
+    private DrpcRequest createRequest(long requestId, Method method, Object[] args) {
+        // 当前调用的服务的名称
+        String serviceName = serviceWrapper.getServiceClass().getName();
+        // 创建Rpc请求对象
+        DrpcRequest request = new DrpcRequest(requestId, serviceName, method.getName(), args);
+        // 携带参数类型，服务端据此区分重载方法
+        request.setParameterTypes(parameterTypesCache.computeIfAbsent(method,
+                DrpcMethodInvoker::getParameterTypeNames));
+        return request;
+    }
+
+    private DrpcConnectionWrapper selectConnection(DrpcRequest request, Set<DrpcConnectionWrapper> excluded)
+            throws Exception {
+        String serviceName = request.getServiceName();
+        // 获取客户端连接管理器对象
+        DrpcConnectionManager connectionManager = rpcClientContext.getConnectionManager();
+        // 获取当前客户端本地缓存的所有连接对象
+        List<DrpcConnectionWrapper> originalConnections = connectionManager.getOriginalConnections(serviceName);
+        // 复制一份原始连接对象，交给过滤器进行过滤
+        List<DrpcConnectionWrapper> filteredConnections = new ArrayList<>(originalConnections);
+        // 调用过滤器对连接对象进行过滤
+        rpcClientContext.getFilterChain().doFilter(filteredConnections, request);
+        // 使用路由对象选择一个连接，重试时避开已经尝试过的服务提供者
+        return rpcClientContext.getRouter().select(serviceName, excluded);
+    }
+
+    private void sendRequest(DrpcConnectionWrapper connectionWrapper, DrpcRequest request,
+                             DrpcMessageType messageType, CompletableFuture<DrpcResponse> future) {
+        long requestId = request.getId();
+        DrpcPooledChannel acquired = null;
+        try {
+            // 从服务提供者的连接池中取出一个物理连接，所有连接的请求数都达到上限时放弃本次请求
+            DrpcPooledChannel channel = connectionWrapper.acquire();
+            if (channel == null) {
+                throw new DrpcRequestException("no available connection, all connections are saturated");
+            }
+            acquired = channel;
+            // 服务提供者被熔断时快速失败，单向请求没有结果，不参与熔断统计
+            DrpcCircuitBreaker circuitBreaker = future == null ? null : connectionWrapper.getCircuitBreaker();
+            if (circuitBreaker != null && !circuitBreaker.tryAcquirePermission()) {
+                channel.release();
+                throw new DrpcRequestException("circuit breaker of " + circuitBreaker.getAddress() + " is open");
+            }
+            // 统计连接上未完成的请求数和请求耗时，请求结束（包括超时和失败）之后更新
+            connectionWrapper.incrementActive();
+            if (future != null) {
+                long startTime = System.nanoTime();
+                // 连接关闭时立即结束等待中的请求
+                channel.addPendingRequest(requestId, future);
+                future.whenComplete((response, throwable) -> {
+                    long duration = System.nanoTime() - startTime;
+                    channel.removePendingRequest(requestId);
+                    channel.release();
+                    connectionWrapper.decrementActive();
+                    if (throwable instanceof DrpcRequestNotSentException) {
+                        // 请求没有发到服务提供者（序列化失败、帧超过本地长度上限等），不是服务提供者的错误
+                        if (circuitBreaker != null) {
+                            circuitBreaker.releasePermission();
+                        }
+                        return;
+                    }
+                    if (throwable instanceof DrpcServerOverloadedException) {
+                        // 过载响应返回得很快，不能计入延迟，否则路由反而会偏向过载的服务提供者
+                        connectionWrapper.markOverloaded(rpcClientContext.getClientConfig().getOverloadBackoff());
+                        if (circuitBreaker != null) {
+                            circuitBreaker.onComplete(duration, true);
+                        }
+                        return;
+                    }
+                    if (throwable == null || throwable instanceof DrpcRequestTimeoutException
+                            || throwable instanceof CancellationException) {
+                        // 只有收到响应或者确实等待过服务提供者时才计入延迟，写失败、连接关闭等很快结束的失败
+                        // 如果计入延迟，路由反而会偏向正在出错的服务提供者
+                        connectionWrapper.recordLatency(duration);
+                    }
+                    if (circuitBreaker != null) {
+                        // 被取消的对冲请求不算失败，它至少已经等待了duration
+                        circuitBreaker.onComplete(duration,
+                                throwable == null || throwable instanceof CancellationException);
+                    }
+                });
+            } else {
+                connectionWrapper.decrementActive();
+            }
+            // 按照服务提供者支持的协议版本创建rpc协议对象
+            DrpcTransferProtocol protocol = createProtocol(connectionWrapper, request, messageType);
+            // 使用连接对象将该rpc协议对象发送给服务提供者，请求在编码器中才被序列化，因此需要监听写结果
+            channel.writeAndFlush(protocol).addListener(writeFuture -> {
+                if (future == null) {
+                    // 单向请求没有响应，写出之后即可归还名额
+                    channel.release();
+                }
+                if (!writeFuture.isSuccess()) {
+                    logger.error("send request failure -> {}", writeFuture.cause().getMessage());
+                    if (future != null) {
+                        future.completeExceptionally(new DrpcRequestNotSentException(
+                                "send request failure", writeFuture.cause()));
+                    }
+                }
+            });
+        } catch (Exception e) {
+            logger.error("send request exception -> {}", e.getMessage());
+            // 发送失败的请求不必再等待超时
+            if (future != null) {
+                future.completeExceptionally(new DrpcRequestNotSentException(e.getMessage(), e));
+            } else if (acquired != null) {
+                // 单向请求的名额只在写完之后归还，还没有写就失败时在这里归还
+                acquired.release();
+            }
+        }
+    }
+
+    private DrpcTransferProtocol createProtocol(DrpcConnectionWrapper connectionWrapper, DrpcRequest request,
+                                                DrpcMessageType messageType) throws Exception {
+        if (connectionWrapper.getProtocolVersion() == DrpcTransferProtocol.VERSION_1) {
+            return DrpcLegacyProtocolCodec.createRequest(request);
+        }
+        DrpcClientConfig clientConfig = rpcClientContext.getClientConfig();
+        DrpcTransferProtocol protocol = new DrpcTransferProtocol((byte) messageType.getCode(),
+                (byte) clientConfig.getSerializeType().getCode(), request.getId(), request);
+        protocol.setChecksum(Boolean.TRUE.equals(clientConfig.getProtocolChecksum()));
+        protocol.setCompressType((byte) serviceWrapper.getCompressType().getCode());
+        protocol.setCompressThreshold(serviceWrapper.getCompressThreshold());
+        return protocol;
+    }
 }
@@ -7,7 +7,6 @@ import com.github.xcfyl.drpc.core.pubsub.DrpcEventListener;
 import com.github.xcfyl.drpc.core.pubsub.data.DrpcServiceChangeEventData;
 import com.github.xcfyl.drpc.core.pubsub.event.DrpcServiceChangeEvent;
 import com.github.xcfyl.drpc.core.registry.DrpcProviderData;
-import io.netty.channel.ChannelFuture;
 import lombok.extern.slf4j.Slf4j;
 
 import java.util.HashMap;
@@ -41,25 +40,25 @@ public class DrpcServiceChangeEventListener implements DrpcEventListener<DrpcSer
         String serviceName = data.getServiceName();
         List<DrpcProviderData> newProviderDataList = data.getNewServiceList();
         DrpcConnectionManager connectionManager = rpcClientContext.getConnectionManager();
-        List<DrpcConnectionWrapper> connections =connectionManager.getOriginalConnections(serviceName);
         Map<String, DrpcConnectionWrapper> connectionWrapperMap = new HashMap<>();
-        for (DrpcConnectionWrapper connectionWrapper : connections) {
-            connectionWrapperMap.put(connectionWrapper.toString(), connectionWrapper);
+        for (DrpcConnectionWrapper connectionWrapper : connectionManager.getOriginalConnections(serviceName)) {
+            connectionWrapperMap.put(DrpcConnectionManager.getAddress(
+                    connectionWrapper.getIp(), connectionWrapper.getPort()), connectionWrapper);
         }
         CopyOnWriteArrayList<DrpcConnectionWrapper> newConnections = new CopyOnWriteArrayList<>();
         for (DrpcProviderData registryData : newProviderDataList) {
-            String ip = registryData.getIp();
-            Integer port = registryData.getPort();
-            DrpcConnectionWrapper connectionWrapper = new DrpcConnectionWrapper();
-            connectionWrapper.setIp(ip);
-            connectionWrapper.setPort(port);
-            if (!connectionWrapperMap.containsKey(connectionWrapper.toString())) {
-                ChannelFuture channelFuture = connectionManager.connect(ip, port);
-                connectionWrapper.setChannelFuture(channelFuture);
+            String address = DrpcConnectionManager.getAddress(registryData.getIp(), registryData.getPort());
+            // 已经存在的连接直接复用，保留其统计数据，只更新服务提供者的属性
+            DrpcConnectionWrapper connectionWrapper = connectionWrapperMap.remove(address);
+            if (connectionWrapper == null) {
+                connectionWrapper = connectionManager.getConnectionWrapper(serviceName, registryData);
+            } else {
+                connectionWrapper.setProtocolVersion(DrpcConnectionManager.getProtocolVersion(registryData));
+                connectionWrapper.setWeight(DrpcConnectionManager.getWeight(registryData));
             }
             newConnections.add(connectionWrapper);
         }
-        // 更新本地连接缓存
+        // 更新本地连接缓存，已经下线的服务提供者的连接在这里归还，没有服务使用的连接池会被关闭
         connectionManager.setConnections(serviceName, newConnections);
         // 刷新路由
         rpcClientContext.getRouter().refresh(serviceName);
@@ -29,7 +29,7 @@ public class DrpcProviderData {
     /**
      * 注册数据的扩展数据
      */
-    private final Map<String, Object> attrs;
+    private Map<String, Object> attrs;
 
     public DrpcProviderData() {
         attrs = new HashMap<>();
@@ -67,6 +67,14 @@ public class DrpcProviderData {
         this.serviceName = serviceName;
     }
 
+    public Map<String, Object> getAttrs() {
+        return attrs;
+    }
+
+    public void setAttrs(Map<String, Object> attrs) {
+        this.attrs = attrs;
+    }
+
     public void setAttr(String key, Object attr) {
         attrs.put(key, attr);
     }
@@ -10,6 +10,7 @@ import org.apache.zookeeper.CreateMode;
 import org.apache.zookeeper.Watcher;
 import org.apache.zookeeper.data.Stat;
 
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 
 /**
@@ -45,12 +46,12 @@ public class ZkClient {
     }
 
     public void updateNodeData(String address, String data) throws Exception {
-        curator.setData().forPath(address, data.getBytes());
+        curator.setData().forPath(address, data.getBytes(StandardCharsets.UTF_8));
     }
 
     public String getNodeData(String address) throws Exception {
         byte[] bytes = curator.getData().forPath(address);
-        return new String(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
     }
 
     public List<String> getChildrenPaths(String path) throws Exception {
@@ -58,23 +59,23 @@ public class ZkClient {
     }
 
     public void createPersistentData(String address, String data) throws Exception {
-        curator.create().creatingParentContainersIfNeeded().withMode(CreateMode.PERSISTENT).forPath(address, data.getBytes());
+        curator.create().creatingParentContainersIfNeeded().withMode(CreateMode.PERSISTENT).forPath(address, data.getBytes(StandardCharsets.UTF_8));
     }
 
     public void createPersistentWithSeqData(String address, String data) throws Exception {
-        curator.create().creatingParentContainersIfNeeded().withMode(CreateMode.PERSISTENT_SEQUENTIAL).forPath(address, data.getBytes());
+        curator.create().creatingParentContainersIfNeeded().withMode(CreateMode.PERSISTENT_SEQUENTIAL).forPath(address, data.getBytes(StandardCharsets.UTF_8));
     }
 
     public void createTemporarySeqData(String address, String data) throws Exception {
-        curator.create().creatingParentContainersIfNeeded().withMode(CreateMode.EPHEMERAL_SEQUENTIAL).forPath(address, data.getBytes());
+        curator.create().creatingParentContainersIfNeeded().withMode(CreateMode.EPHEMERAL_SEQUENTIAL).forPath(address, data.getBytes(StandardCharsets.UTF_8));
     }
 
     public void createTemporaryData(String address, String data) throws Exception {
-        curator.create().creatingParentContainersIfNeeded().withMode(CreateMode.EPHEMERAL).forPath(address, data.getBytes());
+        curator.create().creatingParentContainersIfNeeded().withMode(CreateMode.EPHEMERAL).forPath(address, data.getBytes(StandardCharsets.UTF_8));
     }
 
     public void setTemporaryData(String address, String data) throws Exception {
-        curator.setData().forPath(address, data.getBytes());
+        curator.setData().forPath(address, data.getBytes(StandardCharsets.UTF_8));
     }
 
     public void destroy() {
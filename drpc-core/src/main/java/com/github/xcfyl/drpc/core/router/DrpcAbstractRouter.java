@@ -8,15 +8,24 @@ import org.slf4j.LoggerFactory;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
+ * 每个服务维护一份不可变的连接快照，refresh时整体替换，select时不需要加锁
+ *
  * @author 西城风雨楼
  * @date create at 2023/6/23 22:42
  */
 public abstract class DrpcAbstractRouter implements DrpcRouter {
     private static final Logger logger = LoggerFactory.getLogger(DrpcAbstractRouter.class);
+    private static final DrpcConnectionWrapper[] EMPTY = new DrpcConnectionWrapper[0];
 
-    protected final List<DrpcConnectionWrapper> cache = new ArrayList<>();
+    /**
+     * 服务名称 -> 该服务的连接快照
+     */
+    private final Map<String, DrpcConnectionWrapper[]> cache = new ConcurrentHashMap<>();
     private final DrpcConnectionManager connectionManager;
 
     public DrpcAbstractRouter(DrpcConnectionManager connectionManager) {
@@ -25,8 +34,8 @@ public abstract class DrpcAbstractRouter implements DrpcRouter {
 
     /**
      * select的基本作用是：
-     * （1）过滤掉缓存中不正常的连接
-     * （2）根据子类的select策略从cache中选择一个可用的连接返回给客户端
+     * （1）根据子类的select策略从服务的连接快照中选择一个连接
+     * （2）选中的连接已经不正常或者请求数已经达到上限的时候，在剩余的可用连接中重新选择，快照本身不会被修改
      *
      * @param serviceName
      * @return
@@ -34,32 +43,55 @@ public abstract class DrpcAbstractRouter implements DrpcRouter {
      */
     @Override
     public DrpcConnectionWrapper select(String serviceName) throws Exception {
-        synchronized (cache) {
-            if (cache.size() == 0) {
-                throw new DrpcRouterException("can't route, no connection found");
-            }
-            // 从缓存中移除连接已经不正常的连接
-            cache.removeIf(connectionWrapper -> !connectionWrapper.isOk());
-            if (cache.size() == 0) {
-                throw new DrpcRouterException("can't route, no connection found");
-            }
-            DrpcConnectionWrapper connectionWrapper = doSelect(serviceName);
-            if (connectionWrapper == null) {
-                throw new DrpcRouterException("no connection found");
-            }
-            if (logger.isDebugEnabled()) {
-                logger.debug("router is {}, select connection is {}", getName(), connectionWrapper);
+        DrpcConnectionWrapper[] connections = cache.getOrDefault(serviceName, EMPTY);
+        if (connections.length == 0) {
+            throw new DrpcRouterException("can't route, no connection found");
+        }
+        DrpcConnectionWrapper connectionWrapper = doSelect(serviceName, connections);
+        if (connectionWrapper == null || !connectionWrapper.isAvailable() || connectionWrapper.isOverloaded()) {
+            connectionWrapper = selectHealthy(serviceName, connections);
+        }
+        if (logger.isDebugEnabled()) {
+            logger.debug("router is {}, select connection is {}", getName(), connectionWrapper);
+        }
+        return connectionWrapper;
+    }
+
+    @Override
+    public DrpcConnectionWrapper select(String serviceName, Set<DrpcConnectionWrapper> excluded) throws Exception {
+        if (excluded == null || excluded.isEmpty()) {
+            return select(serviceName);
+        }
+        DrpcConnectionWrapper[] connections = cache.getOrDefault(serviceName, EMPTY);
+        List<DrpcConnectionWrapper> candidates = new ArrayList<>(connections.length);
+        for (DrpcConnectionWrapper connection : connections) {
+            if (!excluded.contains(connection) && connection.isAvailable() && !connection.isOverloaded()) {
+                candidates.add(connection);
             }
-            return connectionWrapper;
         }
+        if (candidates.isEmpty()) {
+            // 所有可用的服务提供者都已经尝试过或者过载，重新在全部服务提供者中选择
+            return select(serviceName);
+        }
+        DrpcConnectionWrapper connectionWrapper = doSelect(serviceName, candidates.toArray(EMPTY));
+        if (connectionWrapper == null) {
+            throw new DrpcRouterException("no connection found");
+        }
+        if (logger.isDebugEnabled()) {
+            logger.debug("router is {}, excluded connections are {}, select connection is {}",
+                    getName(), excluded, connectionWrapper);
+        }
+        return connectionWrapper;
     }
 
     @Override
     public void refresh(String serviceName) {
-        synchronized (cache) {
-            fillCache(serviceName, connectionManager);
-            doRefresh();
-            logger.debug("router refreshed, cache is {}", cache);
+        List<DrpcConnectionWrapper> originalConnections = connectionManager.getOriginalConnections(serviceName);
+        DrpcConnectionWrapper[] connections = originalConnections.toArray(EMPTY);
+        doRefresh(serviceName, connections);
+        cache.put(serviceName, connections);
+        if (logger.isDebugEnabled()) {
+            logger.debug("router refreshed, service is {}, connections are {}", serviceName, originalConnections);
         }
     }
 
@@ -68,22 +100,45 @@ public abstract class DrpcAbstractRouter implements DrpcRouter {
         return getClass().getName();
     }
 
-    private void fillCache(String serviceName, DrpcConnectionManager connectionManager) {
-        List<DrpcConnectionWrapper> originalConnections = connectionManager.getOriginalConnections(serviceName);
-        cache.clear();
-        cache.addAll(originalConnections);
+    private DrpcConnectionWrapper selectHealthy(String serviceName, DrpcConnectionWrapper[] connections) throws Exception {
+        List<DrpcConnectionWrapper> healthyConnections = new ArrayList<>(connections.length);
+        List<DrpcConnectionWrapper> overloadedConnections = new ArrayList<>();
+        for (DrpcConnectionWrapper connection : connections) {
+            if (connection.isAvailable()) {
+                (connection.isOverloaded() ? overloadedConnections : healthyConnections).add(connection);
+            }
+        }
+        if (healthyConnections.isEmpty()) {
+            // 所有服务提供者都过载时仍然发送，由服务端决定是否拒绝
+            healthyConnections = overloadedConnections;
+        }
+        if (healthyConnections.isEmpty()) {
+            throw new DrpcRouterException("can't route, no available connection found");
+        }
+        DrpcConnectionWrapper connectionWrapper = doSelect(serviceName, healthyConnections.toArray(EMPTY));
+        if (connectionWrapper == null) {
+            throw new DrpcRouterException("no connection found");
+        }
+        return connectionWrapper;
     }
 
     /**
-     * 子类进行cache的刷新
+     * 服务的连接快照更新之前调用，子类可以在这里预先计算路由需要的数据
+     *
+     * @param serviceName
+     * @param connections 新的连接快照
      */
-    protected abstract void doRefresh();
+    protected void doRefresh(String serviceName, DrpcConnectionWrapper[] connections) {
+
+    }
 
     /**
-     * 子类返回可用连接对象
+     * 子类从给定的连接中选择一个返回，connections不为空，并且调用方不会修改它
      *
      * @param serviceName
+     * @param connections 候选的连接
      * @return
      */
-    protected abstract DrpcConnectionWrapper doSelect(String serviceName) throws Exception;
+    protected abstract DrpcConnectionWrapper doSelect(String serviceName, DrpcConnectionWrapper[] connections)
+            throws Exception;
 }
@@ -0,0 +1,52 @@
+package com.github.xcfyl.drpc.core.router;
+
+import com.github.xcfyl.drpc.core.client.DrpcConnectionManager;
+import com.github.xcfyl.drpc.core.client.DrpcConnectionWrapper;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 最少未完成请求路由，优先选择未完成请求最少的连接，慢的服务提供者会自然地积压请求从而被避开
+ * 未完成请求数相同的连接之间按照权重随机选择
+ *
+ * @author 西城风雨楼
+ */
+public class DrpcLeastActiveRouter extends DrpcAbstractRouter {
+    public DrpcLeastActiveRouter(DrpcConnectionManager connectionManager) {
+        super(connectionManager);
+    }
+
+    @Override
+    protected DrpcConnectionWrapper doSelect(String serviceName, DrpcConnectionWrapper[] connections) {
+        int leastActive = Integer.MAX_VALUE;
+        int leastCount = 0;
+        int[] leastIndexes = new int[connections.length];
+        double totalWeight = 0;
+        for (int i = 0; i < connections.length; i++) {
+            int active = connections[i].getActiveCount();
+            if (active < leastActive) {
+                leastActive = active;
+                leastCount = 0;
+                totalWeight = 0;
+            }
+            if (active == leastActive) {
+                leastIndexes[leastCount++] = i;
+                totalWeight += connections[i].getWeightValue();
+            }
+        }
+        if (leastCount == 1) {
+            return connections[leastIndexes[0]];
+        }
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        if (totalWeight > 0) {
+            double offset = random.nextDouble() * totalWeight;
+            for (int i = 0; i < leastCount; i++) {
+                offset -= connections[leastIndexes[i]].getWeightValue();
+                if (offset < 0) {
+                    return connections[leastIndexes[i]];
+                }
+            }
+        }
+        return connections[leastIndexes[random.nextInt(leastCount)]];
+    }
+}
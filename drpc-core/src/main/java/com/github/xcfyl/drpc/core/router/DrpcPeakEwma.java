@@ -0,0 +1,53 @@
+package com.github.xcfyl.drpc.core.router;
+
+/**
+ * 带峰值敏感的指数加权移动平均，用于估计连接的响应延迟
+ * 新的样本比当前值大时直接取样本值，立刻反映出变慢的节点；否则随时间指数衰减
+ * 读取时也会向0衰减，一段时间没有请求的慢节点会重新获得探测的机会
+ *
+ * @author 西城风雨楼
+ */
+public class DrpcPeakEwma {
+    /**
+     * 默认的衰减时间常数，10秒
+     */
+    public static final long DEFAULT_DECAY_NANOS = 10_000_000_000L;
+    private final double decayNanos;
+    private long stamp = System.nanoTime();
+    private double cost;
+
+    public DrpcPeakEwma() {
+        this(DEFAULT_DECAY_NANOS);
+    }
+
+    public DrpcPeakEwma(long decayNanos) {
+        this.decayNanos = decayNanos;
+    }
+
+    /**
+     * 记录一次响应延迟
+     *
+     * @param rttNanos 延迟，单位纳秒
+     */
+    public synchronized void observe(double rttNanos) {
+        long now = System.nanoTime();
+        long elapsed = Math.max(now - stamp, 0);
+        stamp = now;
+        if (rttNanos > cost) {
+            cost = rttNanos;
+        } else {
+            double weight = Math.exp(-elapsed / decayNanos);
+            cost = cost * weight + rttNanos * (1 - weight);
+        }
+    }
+
+    /**
+     * 获取当前的延迟估计，单位纳秒
+     *
+     * @return
+     */
+    public synchronized double get() {
+        observe(0);
+        return cost;
+    }
+}
@@ -0,0 +1,48 @@
+package com.github.xcfyl.drpc.core.router;
+
+import com.github.xcfyl.drpc.core.client.DrpcConnectionManager;
+import com.github.xcfyl.drpc.core.client.DrpcConnectionWrapper;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 基于延迟的路由，随机挑选两个连接，选择负载代价较小的那个（power of two choices）
+ * 负载代价 = 峰值EWMA延迟 * (未完成请求数 + 1)，偶尔变慢的节点会很快被避开
+ *
+ * @author 西城风雨楼
+ */
+public class DrpcPeakEwmaRouter extends DrpcAbstractRouter {
+    /**
+     * 还没有延迟样本但是已经有未完成请求的连接使用的代价，保证这类连接排在有样本的连接后面
+     */
+    private static final double PENALTY = Integer.MAX_VALUE;
+
+    public DrpcPeakEwmaRouter(DrpcConnectionManager connectionManager) {
+        super(connectionManager);
+    }
+
+    @Override
+    protected DrpcConnectionWrapper doSelect(String serviceName, DrpcConnectionWrapper[] connections) {
+        if (connections.length == 1) {
+            return connections[0];
+        }
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int first = random.nextInt(connections.length);
+        int second = random.nextInt(connections.length - 1);
+        if (second >= first) {
+            second++;
+        }
+        DrpcConnectionWrapper a = connections[first];
+        DrpcConnectionWrapper b = connections[second];
+        return cost(a) <= cost(b) ? a : b;
+    }
+
+    private double cost(DrpcConnectionWrapper connection) {
+        double latency = connection.getLatency();
+        int active = connection.getActiveCount();
+        if (latency == 0 && active != 0) {
+            return PENALTY + active;
+        }
+        return latency * (active + 1);
+    }
+}
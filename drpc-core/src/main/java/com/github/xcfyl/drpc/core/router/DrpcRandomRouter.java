@@ -2,10 +2,8 @@ package com.github.xcfyl.drpc.core.router;
 
 import com.github.xcfyl.drpc.core.client.DrpcConnectionManager;
 import com.github.xcfyl.drpc.core.client.DrpcConnectionWrapper;
-import com.github.xcfyl.drpc.core.exception.DrpcRouterException;
 
-import java.util.Collections;
-import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
 
 /**
  * 实现随机路由策略
@@ -19,18 +17,7 @@ public class DrpcRandomRouter extends DrpcAbstractRouter {
     }
 
     @Override
-    public void doRefresh() {
-        // 将cache中的数据进行扰乱
-        Collections.shuffle(cache);
-    }
-
-    @Override
-    public DrpcConnectionWrapper doSelect(String serviceName) throws Exception {
-        Random random = new Random();
-        if (cache.size() == 0) {
-            throw new DrpcRouterException("no router found!");
-        }
-        int index = random.nextInt(cache.size());
-        return cache.get(index);
+    public DrpcConnectionWrapper doSelect(String serviceName, DrpcConnectionWrapper[] connections) {
+        return connections[ThreadLocalRandom.current().nextInt(connections.length)];
     }
 }
@@ -3,30 +3,31 @@ package com.github.xcfyl.drpc.core.router;
 import com.github.xcfyl.drpc.core.client.DrpcConnectionManager;
 import com.github.xcfyl.drpc.core.client.DrpcConnectionWrapper;
 
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
 /**
- * 实现轮询策略
+ * 实现轮询策略，每个服务单独计数
  *
  * @author 西城风雨楼
  * @date create at 2023/6/23 22:50
  */
 public class DrpcRoundRobinRouter extends DrpcAbstractRouter {
-    private int nextIndex;
+    private final Map<String, AtomicInteger> nextIndexes = new ConcurrentHashMap<>();
 
     public DrpcRoundRobinRouter(DrpcConnectionManager connectionManager) {
         super(connectionManager);
-        nextIndex = 0;
-    }
-
-    @Override
-    public void doRefresh() {
-        // 这里什么也不做
     }
 
     @Override
-    public DrpcConnectionWrapper doSelect(String serviceName) throws Exception {
-        if (nextIndex == cache.size()) {
-            nextIndex = 0;
+    public DrpcConnectionWrapper doSelect(String serviceName, DrpcConnectionWrapper[] connections) {
+        AtomicInteger nextIndex = nextIndexes.get(serviceName);
+        if (nextIndex == null) {
+            nextIndex = nextIndexes.computeIfAbsent(serviceName, key -> new AtomicInteger());
         }
-        return cache.get(nextIndex++);
+        // 计数器溢出之后去掉符号位，保证下标非负
+        int index = (nextIndex.getAndIncrement() & Integer.MAX_VALUE) % connections.length;
+        return connections[index];
     }
 }
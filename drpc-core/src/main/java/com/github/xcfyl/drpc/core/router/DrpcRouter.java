@@ -2,6 +2,8 @@ package com.github.xcfyl.drpc.core.router;
 
 import com.github.xcfyl.drpc.core.client.DrpcConnectionWrapper;
 
+import java.util.Set;
+
 /**
  * rpc的路由层
  *
@@ -16,6 +18,16 @@ public interface DrpcRouter {
      */
     DrpcConnectionWrapper select(String serviceName) throws Exception;
 
+    /**
+     * 选择指定service下面一个不在excluded中的可用连接对象，用于重试时避开已经失败的服务提供者
+     * 所有可用的连接都在excluded中时，退化为select(serviceName)
+     *
+     * @param serviceName
+     * @param excluded    需要避开的连接
+     * @return
+     */
+    DrpcConnectionWrapper select(String serviceName, Set<DrpcConnectionWrapper> excluded) throws Exception;
+
     /**
      * 刷新路由，当本地的服务提供者列表发生变化的时候
      * 调用该方法，可以刷新当前路由层的数据
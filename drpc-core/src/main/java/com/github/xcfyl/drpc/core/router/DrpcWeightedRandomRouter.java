@@ -0,0 +1,96 @@
+package com.github.xcfyl.drpc.core.router;
+
+import com.github.xcfyl.drpc.core.client.DrpcConnectionManager;
+import com.github.xcfyl.drpc.core.client.DrpcConnectionWrapper;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 加权随机路由，刷新时为每个服务构建别名表，每次选择只需要O(1)的时间
+ *
+ * @author 西城风雨楼
+ */
+public class DrpcWeightedRandomRouter extends DrpcAbstractRouter {
+    private final Map<String, AliasTable> tables = new ConcurrentHashMap<>();
+
+    public DrpcWeightedRandomRouter(DrpcConnectionManager connectionManager) {
+        super(connectionManager);
+    }
+
+    @Override
+    protected void doRefresh(String serviceName, DrpcConnectionWrapper[] connections) {
+        tables.put(serviceName, new AliasTable(connections));
+    }
+
+    @Override
+    protected DrpcConnectionWrapper doSelect(String serviceName, DrpcConnectionWrapper[] connections) {
+        AliasTable table = tables.get(serviceName);
+        if (table == null || table.connections != connections) {
+            // 只剩部分健康连接的时候，临时构建一次别名表
+            table = new AliasTable(connections);
+        }
+        return table.select();
+    }
+
+    /**
+     * Vose别名表，所有权重都不大于0时退化为均匀随机
+     */
+    static class AliasTable {
+        private final DrpcConnectionWrapper[] connections;
+        private final double[] probability;
+        private final int[] alias;
+
+        AliasTable(DrpcConnectionWrapper[] connections) {
+            int n = connections.length;
+            this.connections = connections;
+            this.probability = new double[n];
+            this.alias = new int[n];
+            double totalWeight = 0;
+            for (DrpcConnectionWrapper connection : connections) {
+                totalWeight += connection.getWeightValue();
+            }
+            double[] scaled = new double[n];
+            for (int i = 0; i < n; i++) {
+                scaled[i] = totalWeight > 0 ? connections[i].getWeightValue() * n / totalWeight : 1;
+            }
+            int[] small = new int[n];
+            int[] large = new int[n];
+            int smallSize = 0;
+            int largeSize = 0;
+            for (int i = 0; i < n; i++) {
+                if (scaled[i] < 1) {
+                    small[smallSize++] = i;
+                } else {
+                    large[largeSize++] = i;
+                }
+            }
+            while (smallSize > 0 && largeSize > 0) {
+                int less = small[--smallSize];
+                int more = large[--largeSize];
+                probability[less] = scaled[less];
+                alias[less] = more;
+                scaled[more] = scaled[more] + scaled[less] - 1;
+                if (scaled[more] < 1) {
+                    small[smallSize++] = more;
+                } else {
+                    large[largeSize++] = more;
+                }
+            }
+            // 剩余的列由于浮点误差可能略小于1，直接视为1
+            while (largeSize > 0) {
+                probability[large[--largeSize]] = 1;
+            }
+            while (smallSize > 0) {
+                probability[small[--smallSize]] = 1;
+            }
+        }
+
+        DrpcConnectionWrapper select() {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            int column = random.nextInt(connections.length);
+            return random.nextDouble() < probability[column] ? connections[column] : connections[alias[column]];
+        }
+    }
+}
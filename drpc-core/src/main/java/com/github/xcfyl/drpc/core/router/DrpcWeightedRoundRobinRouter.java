@@ -0,0 +1,77 @@
+package com.github.xcfyl.drpc.core.router;
+
+import com.github.xcfyl.drpc.core.client.DrpcConnectionManager;
+import com.github.xcfyl.drpc.core.client.DrpcConnectionWrapper;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 平滑加权轮询路由，和nginx的算法相同，高权重的连接不会被连续选中
+ *
+ * @author 西城风雨楼
+ */
+public class DrpcWeightedRoundRobinRouter extends DrpcAbstractRouter {
+    private final Map<String, SmoothWeightedState> states = new ConcurrentHashMap<>();
+
+    public DrpcWeightedRoundRobinRouter(DrpcConnectionManager connectionManager) {
+        super(connectionManager);
+    }
+
+    @Override
+    protected void doRefresh(String serviceName, DrpcConnectionWrapper[] connections) {
+        states.put(serviceName, new SmoothWeightedState(connections));
+    }
+
+    @Override
+    protected DrpcConnectionWrapper doSelect(String serviceName, DrpcConnectionWrapper[] connections) {
+        SmoothWeightedState state = states.get(serviceName);
+        if (state == null || state.connections != connections) {
+            // 只剩部分健康连接的时候没有可以延续的轮询状态，按照权重随机选择
+            return new DrpcWeightedRandomRouter.AliasTable(connections).select();
+        }
+        return state.next();
+    }
+
+    private static class SmoothWeightedState {
+        private final DrpcConnectionWrapper[] connections;
+        private final double[] weights;
+        private final double[] currentWeights;
+        private final double totalWeight;
+
+        private SmoothWeightedState(DrpcConnectionWrapper[] connections) {
+            this.connections = connections;
+            this.weights = new double[connections.length];
+            this.currentWeights = new double[connections.length];
+            double total = 0;
+            for (int i = 0; i < connections.length; i++) {
+                weights[i] = connections[i].getWeightValue();
+                total += weights[i];
+            }
+            if (total <= 0) {
+                // 所有权重都是0的时候退化为普通轮询
+                for (int i = 0; i < weights.length; i++) {
+                    weights[i] = 1;
+                }
+                total = weights.length;
+            }
+            this.totalWeight = total;
+        }
+
+        /**
+         * 每个连接的当前权重加上自身权重，选出当前权重最大的连接，再减去总权重
+         * 整个过程只涉及当前服务的状态，锁的粒度是单个服务
+         */
+        private synchronized DrpcConnectionWrapper next() {
+            int selected = 0;
+            for (int i = 0; i < connections.length; i++) {
+                currentWeights[i] += weights[i];
+                if (currentWeights[i] > currentWeights[selected]) {
+                    selected = i;
+                }
+            }
+            currentWeights[selected] -= totalWeight;
+            return connections[selected];
+        }
+    }
+}
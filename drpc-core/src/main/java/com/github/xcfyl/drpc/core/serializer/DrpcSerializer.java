@@ -1,5 +1,12 @@
 package com.github.xcfyl.drpc.core.serializer;
 
+import com.github.xcfyl.drpc.core.protocol.DrpcRequest;
+import com.github.xcfyl.drpc.core.protocol.DrpcResponse;
+import io.netty.buffer.ByteBuf;
+
+import java.lang.reflect.Type;
+import java.util.function.Function;
+
 /**
  * rpc序列化工厂
  *
@@ -22,4 +29,54 @@ public interface DrpcSerializer {
      * @return
      */
     <T> T deserialize(byte[] bytes, Class<T> clazz) throws Exception;
+
+    /**
+     * 将目标对象直接序列化到netty的缓冲区中，编码器使用该方法避免中间的字节数组
+     * 默认实现退化为先序列化为字节数组再拷贝，具体的序列化器可以覆盖该方法
+     *
+     * @param obj
+     * @param out 写入的缓冲区
+     */
+    default <T> void serialize(T obj, ByteBuf out) throws Exception {
+        out.writeBytes(serialize(obj));
+    }
+
+    /**
+     * 直接从netty的缓冲区中反序列化目标对象，不负责释放缓冲区
+     * 默认实现退化为先拷贝到字节数组再反序列化，具体的序列化器可以覆盖该方法
+     *
+     * @param in    读取的缓冲区
+     * @param clazz
+     * @return
+     */
+    default <T> T deserialize(ByteBuf in, Class<T> clazz) throws Exception {
+        byte[] bytes = new byte[in.readableBytes()];
+        in.readBytes(bytes);
+        return deserialize(bytes, clazz);
+    }
+
+    /**
+     * 反序列化请求，方法参数直接按照服务方法声明的参数类型解码
+     * 默认实现适用于会保留参数实际类型的序列化方式，例如jdk和protostuff，解码之后不需要再转换
+     *
+     * @param in                     读取的缓冲区
+     * @param parameterTypesResolver 根据请求中的服务名、方法名和参数类型找到服务方法声明的参数类型，找不到时返回null
+     * @return
+     */
+    default DrpcRequest deserializeRequest(ByteBuf in, Function<DrpcRequest, Type[]> parameterTypesResolver)
+            throws Exception {
+        return deserialize(in, DrpcRequest.class);
+    }
+
+    /**
+     * 反序列化响应，响应体直接按照调用方法的返回值类型解码
+     * 默认实现适用于会保留响应体实际类型的序列化方式
+     *
+     * @param in       读取的缓冲区
+     * @param bodyType 调用方法的返回值类型（异步方法为CompletableFuture的泛型参数），为null时不做转换
+     * @return
+     */
+    default DrpcResponse deserializeResponse(ByteBuf in, Type bodyType) throws Exception {
+        return deserialize(in, DrpcResponse.class);
+    }
 }
@@ -1,10 +1,27 @@
 package com.github.xcfyl.drpc.core.serializer.fastjson;
 
 import com.alibaba.fastjson.JSON;
+import com.alibaba.fastjson.JSONReader;
+import com.alibaba.fastjson.parser.ParserConfig;
+import com.alibaba.fastjson.util.TypeUtils;
+import com.github.xcfyl.drpc.core.protocol.DrpcRequest;
+import com.github.xcfyl.drpc.core.protocol.DrpcResponse;
 import com.github.xcfyl.drpc.core.serializer.DrpcSerializer;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufInputStream;
+import io.netty.buffer.ByteBufOutputStream;
+
+import java.io.InputStreamReader;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
 
 /**
  * 基于fastjson的序列化和反序列化工厂
+ * json不携带类型信息，请求和响应以流的方式解析，方法参数和响应体直接解码为声明的类型，
+ * 不会先生成JSONObject再转换
  *
  * @author 西城风雨楼
  * @date create at 2023/6/24 10:08
@@ -12,11 +29,126 @@ import com.github.xcfyl.drpc.core.serializer.DrpcSerializer;
 public class DrpcFastJsonSerializer implements DrpcSerializer {
     @Override
     public <T> byte[] serialize(T obj) {
-        return JSON.toJSONString(obj).getBytes();
+        return JSON.toJSONString(obj).getBytes(StandardCharsets.UTF_8);
     }
 
     @Override
     public <T> T deserialize(byte[] data, Class<T> clazz) {
-        return JSON.parseObject(new String(data), clazz);
+        return JSON.parseObject(data, 0, data.length, StandardCharsets.UTF_8, clazz);
+    }
+
+    @Override
+    public <T> void serialize(T obj, ByteBuf out) throws Exception {
+        JSON.writeJSONString(new ByteBufOutputStream(out), StandardCharsets.UTF_8, obj);
+    }
+
+    @Override
+    public <T> T deserialize(ByteBuf in, Class<T> clazz) throws Exception {
+        if (in.hasArray()) {
+            // 堆内存缓冲区直接在底层数组上解析
+            T result = JSON.parseObject(in.array(), in.arrayOffset() + in.readerIndex(), in.readableBytes(),
+                    StandardCharsets.UTF_8, clazz);
+            in.skipBytes(in.readableBytes());
+            return result;
+        }
+        // 直接内存缓冲区以流的方式解析，fastjson内部使用线程本地的缓冲区，不会为每一帧分配字节数组
+        return JSON.parseObject(new ByteBufInputStream(in), StandardCharsets.UTF_8, clazz);
+    }
+
+    @Override
+    public DrpcRequest deserializeRequest(ByteBuf in, Function<DrpcRequest, Type[]> parameterTypesResolver) {
+        DrpcRequest request = new DrpcRequest();
+        Type[] types = null;
+        boolean resolved = false;
+        boolean typedArgs = false;
+        try (JSONReader reader = createReader(in)) {
+            reader.startObject();
+            while (reader.hasNext()) {
+                String key = reader.readString();
+                if ("args".equals(key)) {
+                    // 请求按照DrpcRequest声明的字段顺序序列化，解析到参数时已经知道调用的是哪个方法
+                    if (!resolved && request.getMethodName() != null) {
+                        types = parameterTypesResolver.apply(request);
+                        resolved = true;
+                    }
+                    typedArgs = types != null;
+                    request.setArgs(typedArgs ? readArgs(reader, types) : reader.readObject(Object[].class));
+                } else if ("id".equals(key)) {
+                    request.setId(reader.readObject(long.class));
+                } else if ("serviceName".equals(key)) {
+                    request.setServiceName(reader.readString());
+                } else if ("methodName".equals(key)) {
+                    request.setMethodName(reader.readString());
+                } else if ("parameterTypes".equals(key)) {
+                    request.setParameterTypes(reader.readObject(String[].class));
+                } else if ("timeout".equals(key)) {
+                    request.setTimeout(reader.readObject(long.class));
+                } else {
+                    reader.readObject();
+                }
+            }
+            reader.endObject();
+        }
+        if (!typedArgs && request.getArgs() != null) {
+            // 参数出现在方法签名之前（例如按字母顺序序列化的旧版本客户端），只能解析之后再转换
+            if (!resolved) {
+                types = parameterTypesResolver.apply(request);
+            }
+            convertArgs(request.getArgs(), types);
+        }
+        return request;
+    }
+
+    @Override
+    public DrpcResponse deserializeResponse(ByteBuf in, Type bodyType) {
+        if (bodyType == null) {
+            bodyType = Object.class;
+        }
+        DrpcResponse response = new DrpcResponse();
+        try (JSONReader reader = createReader(in)) {
+            reader.startObject();
+            while (reader.hasNext()) {
+                String key = reader.readString();
+                if ("body".equals(key)) {
+                    response.setBody(reader.readObject(bodyType));
+                } else if ("id".equals(key)) {
+                    response.setId(reader.readObject(long.class));
+                } else if ("throwable".equals(key)) {
+                    response.setThrowable(reader.readObject(Throwable.class));
+                } else {
+                    reader.readObject();
+                }
+            }
+            reader.endObject();
+        }
+        return response;
+    }
+
+    private JSONReader createReader(ByteBuf in) {
+        // 在缓冲区的切片上流式解码，不把整个body复制成字符串
+        ByteBufInputStream stream = new ByteBufInputStream(in.slice());
+        in.skipBytes(in.readableBytes());
+        return new JSONReader(new InputStreamReader(stream, StandardCharsets.UTF_8));
+    }
+
+    private Object[] readArgs(JSONReader reader, Type[] types) {
+        reader.startArray();
+        List<Object> args = new ArrayList<>(types.length);
+        while (reader.hasNext()) {
+            // 参数个数和方法签名不一致时多出的参数按原样解析，由调用时报错
+            int i = args.size();
+            args.add(i < types.length ? reader.readObject(types[i]) : reader.readObject());
+        }
+        reader.endArray();
+        return args.toArray();
+    }
+
+    private void convertArgs(Object[] args, Type[] types) {
+        if (types == null || types.length != args.length) {
+            return;
+        }
+        for (int i = 0; i < args.length; i++) {
+            args[i] = TypeUtils.cast(args[i], types[i], ParserConfig.getGlobalInstance());
+        }
     }
 }
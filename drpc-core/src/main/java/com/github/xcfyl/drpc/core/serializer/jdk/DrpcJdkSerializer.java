@@ -1,6 +1,9 @@
 package com.github.xcfyl.drpc.core.serializer.jdk;
 
 import com.github.xcfyl.drpc.core.serializer.DrpcSerializer;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufInputStream;
+import io.netty.buffer.ByteBufOutputStream;
 import lombok.extern.slf4j.Slf4j;
 
 import java.io.ByteArrayInputStream;
@@ -61,4 +64,18 @@ public class DrpcJdkSerializer implements DrpcSerializer {
             }
         }
     }
+
+    @Override
+    public <T> void serialize(T obj, ByteBuf out) throws Exception {
+        try (ObjectOutputStream oos = new ObjectOutputStream(new ByteBufOutputStream(out))) {
+            oos.writeObject(obj);
+        }
+    }
+
+    @Override
+    public <T> T deserialize(ByteBuf in, Class<T> clazz) throws Exception {
+        try (ObjectInputStream ois = new ObjectInputStream(new ByteBufInputStream(in))) {
+            return clazz.cast(ois.readObject());
+        }
+    }
 }
@@ -0,0 +1,77 @@
+package com.github.xcfyl.drpc.core.serializer.protostuff;
+
+import com.github.xcfyl.drpc.core.serializer.DrpcSerializer;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufInputStream;
+import io.netty.buffer.ByteBufOutputStream;
+import io.protostuff.LinkedBuffer;
+import io.protostuff.ProtostuffIOUtil;
+import io.protostuff.Schema;
+import io.protostuff.runtime.RuntimeSchema;
+
+/**
+ * 基于protostuff的二进制序列化器，不输出字段名，体积和编解码开销都远小于json
+ * 每个类的schema在第一次使用时通过反射生成，之后由RuntimeSchema缓存；
+ * 编码时使用线程本地的LinkedBuffer作为临时缓冲区，不会为每次调用重新分配
+ * <p>
+ * 字段按照声明顺序编号，调用双方的类需要保持一致，新增字段只能追加在末尾
+ *
+ * @author 西城风雨楼
+ */
+public class DrpcProtostuffSerializer implements DrpcSerializer {
+    private static final int BUFFER_SIZE = 512;
+    private static final ThreadLocal<LinkedBuffer> BUFFER = ThreadLocal.withInitial(
+            () -> LinkedBuffer.allocate(BUFFER_SIZE));
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> byte[] serialize(T obj) {
+        Schema<T> schema = RuntimeSchema.getSchema((Class<T>) obj.getClass());
+        LinkedBuffer buffer = BUFFER.get();
+        try {
+            return ProtostuffIOUtil.toByteArray(obj, schema, buffer);
+        } finally {
+            buffer.clear();
+        }
+    }
+
+    @Override
+    public <T> T deserialize(byte[] bytes, Class<T> clazz) {
+        Schema<T> schema = RuntimeSchema.getSchema(clazz);
+        T message = schema.newMessage();
+        ProtostuffIOUtil.mergeFrom(bytes, message, schema);
+        return message;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> void serialize(T obj, ByteBuf out) throws Exception {
+        Schema<T> schema = RuntimeSchema.getSchema((Class<T>) obj.getClass());
+        LinkedBuffer buffer = BUFFER.get();
+        try {
+            ProtostuffIOUtil.writeTo(new ByteBufOutputStream(out), obj, schema, buffer);
+        } finally {
+            buffer.clear();
+        }
+    }
+
+    @Override
+    public <T> T deserialize(ByteBuf in, Class<T> clazz) throws Exception {
+        Schema<T> schema = RuntimeSchema.getSchema(clazz);
+        T message = schema.newMessage();
+        if (in.hasArray()) {
+            // 堆内存缓冲区直接在底层数组上解析
+            ProtostuffIOUtil.mergeFrom(in.array(), in.arrayOffset() + in.readerIndex(), in.readableBytes(),
+                    message, schema);
+            in.skipBytes(in.readableBytes());
+            return message;
+        }
+        LinkedBuffer buffer = BUFFER.get();
+        try {
+            ProtostuffIOUtil.mergeFrom(new ByteBufInputStream(in), message, schema, buffer);
+        } finally {
+            buffer.clear();
+        }
+        return message;
+    }
+}
@@ -0,0 +1,129 @@
+package com.github.xcfyl.drpc.core.server;
+
+import com.github.xcfyl.drpc.core.protocol.DrpcRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 服务方法分发表，注册服务时根据服务接口预先构建所有方法的调用器
+ * 请求到达时根据服务名和方法签名直接找到调用器，不再需要反射扫描方法
+ *
+ * @author 西城风雨楼
+ */
+public class DrpcDispatchTable {
+    private static final Logger logger = LoggerFactory.getLogger(DrpcDispatchTable.class);
+    /**
+     * 服务名称 -> 该服务的所有方法
+     */
+    private final Map<String, ServiceMethods> services = new ConcurrentHashMap<>();
+
+    /**
+     * 注册服务，只有服务接口中声明的方法可以被远程调用
+     *
+     * @param serviceName  服务名称
+     * @param serviceClass 服务接口
+     * @param service      服务实现
+     */
+    public void register(String serviceName, Class<?> serviceClass, Object service) throws IllegalAccessException {
+        Map<String, DrpcMethodInvoker> bySignature = new HashMap<>();
+        Map<String, List<DrpcMethodInvoker>> byName = new HashMap<>();
+        for (Method method : serviceClass.getMethods()) {
+            if (Modifier.isStatic(method.getModifiers())) {
+                continue;
+            }
+            DrpcMethodInvoker invoker = new DrpcMethodInvoker(service, method);
+            String signature = DrpcMethodInvoker.getSignature(method.getName(),
+                    DrpcMethodInvoker.getParameterTypeNames(method));
+            bySignature.put(signature, invoker);
+            byName.computeIfAbsent(method.getName(), key -> new ArrayList<>()).add(invoker);
+            if (logger.isDebugEnabled()) {
+                logger.debug("register method {}#{}", serviceName, signature);
+            }
+        }
+        services.put(serviceName, new ServiceMethods(bySignature, byName));
+    }
+
+    public void unregister(String serviceName) {
+        services.remove(serviceName);
+    }
+
+    /**
+     * 查找请求对应的调用器
+     *
+     * @param serviceName    服务名称
+     * @param methodName     方法名称
+     * @param parameterTypes 参数类型，旧版本客户端不会携带
+     * @param args           方法参数，参数类型缺失时用于区分重载方法
+     * @return 调用器，找不到或者无法确定唯一的方法时返回null
+     */
+    public DrpcMethodInvoker lookup(String serviceName, String methodName, String[] parameterTypes, Object[] args) {
+        ServiceMethods methods = services.get(serviceName);
+        if (methods == null || methodName == null) {
+            return null;
+        }
+        if (parameterTypes != null) {
+            return methods.bySignature.get(DrpcMethodInvoker.getSignature(methodName, parameterTypes));
+        }
+        List<DrpcMethodInvoker> candidates = methods.byName.getOrDefault(methodName, Collections.emptyList());
+        if (candidates.size() == 1) {
+            return candidates.get(0);
+        }
+        // 旧版本客户端调用重载方法，只能按照参数个数区分
+        int argCount = args == null ? 0 : args.length;
+        DrpcMethodInvoker target = null;
+        for (DrpcMethodInvoker candidate : candidates) {
+            if (candidate.getMethod().getParameterCount() == argCount) {
+                if (target != null) {
+                    return null;
+                }
+                target = candidate;
+            }
+        }
+        return target;
+    }
+
+    /**
+     * 获取请求调用的服务方法声明的参数类型，反序列化请求时使用，此时方法参数还没有解码
+     *
+     * @param request 只包含服务名、方法名和参数类型的请求
+     * @return 找不到或者无法确定唯一的方法时返回null
+     */
+    public Type[] getParameterTypes(DrpcRequest request) {
+        ServiceMethods methods = services.get(request.getServiceName());
+        if (methods == null) {
+            return null;
+        }
+        DrpcMethodInvoker invoker;
+        if (request.getParameterTypes() != null) {
+            invoker = methods.bySignature.get(
+                    DrpcMethodInvoker.getSignature(request.getMethodName(), request.getParameterTypes()));
+        } else {
+            // 旧版本客户端不携带参数类型，只有方法没有重载时才能确定
+            List<DrpcMethodInvoker> candidates = methods.byName.getOrDefault(request.getMethodName(),
+                    Collections.emptyList());
+            invoker = candidates.size() == 1 ? candidates.get(0) : null;
+        }
+        return invoker == null ? null : invoker.getGenericParameterTypes();
+    }
+
+    private static class ServiceMethods {
+        private final Map<String, DrpcMethodInvoker> bySignature;
+        private final Map<String, List<DrpcMethodInvoker>> byName;
+
+        private ServiceMethods(Map<String, DrpcMethodInvoker> bySignature,
+                               Map<String, List<DrpcMethodInvoker>> byName) {
+            this.bySignature = bySignature;
+            this.byName = byName;
+        }
+    }
+}
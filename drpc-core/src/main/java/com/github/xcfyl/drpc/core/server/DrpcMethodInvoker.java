@@ -0,0 +1,97 @@
+package com.github.xcfyl.drpc.core.server;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Type;
+
+/**
+ * 服务方法的调用器，注册服务时创建，请求到达时直接通过MethodHandle调用服务方法
+ *
+ * @author 西城风雨楼
+ */
+public class DrpcMethodInvoker {
+    private static final Object[] EMPTY_ARGS = new Object[0];
+    private static final MethodType INVOKER_TYPE = MethodType.methodType(Object.class, Object[].class);
+    /**
+     * 服务接口中声明的方法
+     */
+    private final Method method;
+    /**
+     * 已经绑定了服务对象的方法句柄，参数是Object[]，返回值是Object，void方法返回null
+     */
+    private final MethodHandle handle;
+    /**
+     * 方法声明的参数类型，包括泛型信息，反序列化请求时直接按照这些类型解码参数
+     */
+    private final Type[] genericParameterTypes;
+
+    public DrpcMethodInvoker(Object service, Method method) throws IllegalAccessException {
+        this.method = method;
+        this.genericParameterTypes = method.getGenericParameterTypes();
+        MethodHandle methodHandle;
+        try {
+            methodHandle = MethodHandles.publicLookup().unreflect(method);
+        } catch (IllegalAccessException e) {
+            // 接口不是public的，只能打开访问权限
+            method.setAccessible(true);
+            methodHandle = MethodHandles.lookup().unreflect(method);
+        }
+        this.handle = methodHandle.bindTo(service)
+                .asSpreader(Object[].class, method.getParameterCount())
+                .asType(INVOKER_TYPE);
+    }
+
+    /**
+     * 调用服务方法，服务方法抛出的异常会原样抛出
+     *
+     * @param args 方法参数
+     * @return 方法的返回值
+     * @throws Throwable
+     */
+    public Object invoke(Object[] args) throws Throwable {
+        return (Object) handle.invokeExact(args == null ? EMPTY_ARGS : args);
+    }
+
+    public Method getMethod() {
+        return method;
+    }
+
+    public Type[] getGenericParameterTypes() {
+        return genericParameterTypes;
+    }
+
+    /**
+     * 生成方法签名，客户端和服务端使用同样的规则，用于区分重载方法
+     *
+     * @param methodName     方法名
+     * @param parameterTypes 参数类型的全限定名
+     * @return 例如 add(int,int)
+     */
+    public static String getSignature(String methodName, String[] parameterTypes) {
+        StringBuilder builder = new StringBuilder(methodName).append('(');
+        for (int i = 0; i < parameterTypes.length; i++) {
+            if (i > 0) {
+                builder.append(',');
+            }
+            builder.append(parameterTypes[i]);
+        }
+        return builder.append(')').toString();
+    }
+
+    /**
+     * 获取方法参数类型的全限定名
+     *
+     * @param method 方法
+     * @return 参数类型名称数组
+     */
+    public static String[] getParameterTypeNames(Method method) {
+        Class<?>[] parameterTypes = method.getParameterTypes();
+        String[] names = new String[parameterTypes.length];
+        for (int i = 0; i < parameterTypes.length; i++) {
+            names[i] = parameterTypes[i].getName();
+        }
+        return names;
+    }
+}
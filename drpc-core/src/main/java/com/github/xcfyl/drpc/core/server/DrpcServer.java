@@ -2,22 +2,29 @@ package com.github.xcfyl.drpc.core.server;
 
 import com.github.xcfyl.drpc.core.common.config.DrpcConfigLoader;
 import com.github.xcfyl.drpc.core.common.enums.DrpcAttributeName;
+import com.github.xcfyl.drpc.core.common.factory.DrpcDispatcherFactory;
 import com.github.xcfyl.drpc.core.common.factory.DrpcRegistryFactory;
 import com.github.xcfyl.drpc.core.common.factory.DrpcSerializerFactory;
+import com.github.xcfyl.drpc.core.common.factory.DrpcTransportFactory;
 import com.github.xcfyl.drpc.core.common.utils.DrpcCommonUtils;
 import com.github.xcfyl.drpc.core.exception.DrpcClientException;
 import com.github.xcfyl.drpc.core.filter.server.DrpcServerFilter;
 import com.github.xcfyl.drpc.core.filter.server.DrpcServerFilterChain;
 import com.github.xcfyl.drpc.core.filter.server.DrpcServerLogFilter;
+import com.github.xcfyl.drpc.core.protocol.DrpcTransferProtocol;
 import com.github.xcfyl.drpc.core.protocol.DrpcTransferProtocolDecoder;
 import com.github.xcfyl.drpc.core.protocol.DrpcTransferProtocolEncoder;
 import com.github.xcfyl.drpc.core.registry.DrpcProviderData;
+import com.github.xcfyl.drpc.core.transport.DrpcHeartbeatHandler;
+import com.github.xcfyl.drpc.core.transport.DrpcTransport;
+import com.github.xcfyl.drpc.core.transport.DrpcWriteBatcher;
 import io.netty.bootstrap.ServerBootstrap;
 import io.netty.channel.ChannelInitializer;
 import io.netty.channel.ChannelOption;
-import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.WriteBufferWaterMark;
 import io.netty.channel.socket.SocketChannel;
-import io.netty.channel.socket.nio.NioServerSocketChannel;
+import io.netty.handler.timeout.IdleStateHandler;
 import lombok.extern.slf4j.Slf4j;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -80,24 +87,55 @@ public class DrpcServer {
         context.setSerializer(DrpcSerializerFactory.createRpcSerializer(config.getSerializeType()));
         // 创建过滤器
         context.setFilterChain(constructServerFilters());
-        new ServerBootstrap()
-                .group(new NioEventLoopGroup(), new NioEventLoopGroup())
-                .channel(NioServerSocketChannel.class)
-                .option(ChannelOption.TCP_NODELAY, true)
+        // 创建所有连接共享的请求分发器和处理器
+        context.setDispatcher(DrpcDispatcherFactory.createDispatcher(config));
+        DrpcServerHandler serverHandler = new DrpcServerHandler(context);
+        DrpcHeartbeatHandler heartbeatHandler = new DrpcHeartbeatHandler(false);
+        DrpcTransport transport = DrpcTransportFactory.createTransport(config.getTransportType());
+        // 多个监听socket通过SO_REUSEPORT绑定同一个端口，每个监听socket由一个boss线程负责
+        int acceptors = transport.isReusePortSupported() ? Math.max(config.getAcceptors(), 1) : 1;
+        EventLoopGroup bossGroup = transport.createEventLoopGroup(
+                Math.max(config.getBossThreads(), acceptors), "drpc-server-boss");
+        EventLoopGroup workerGroup = transport.createEventLoopGroup(config.getWorkerThreads(), "drpc-server-worker");
+        ServerBootstrap bootstrap = new ServerBootstrap()
+                .group(bossGroup, workerGroup)
+                .channel(transport.getServerChannelClass())
                 .option(ChannelOption.SO_BACKLOG, 2048)
-                .option(ChannelOption.SO_SNDBUF, 16 * 1024)
-                .option(ChannelOption.SO_RCVBUF, 16 * 1024)
-                .option(ChannelOption.SO_KEEPALIVE, true)
-                .childHandler(new ChannelInitializer<SocketChannel>() {
-                    @Override
-                    protected void initChannel(SocketChannel channel) throws Exception {
-                        channel.pipeline().addLast(new DrpcTransferProtocolEncoder());
-                        channel.pipeline().addLast(new DrpcTransferProtocolDecoder());
-                        channel.pipeline().addLast(new DrpcServerHandler(context));
-                    }
-                })
-                .bind(config.getPort())
-                .sync();
+                .childOption(ChannelOption.TCP_NODELAY, true)
+                .childOption(ChannelOption.SO_KEEPALIVE, true)
+                .childOption(ChannelOption.WRITE_BUFFER_WATER_MARK, new WriteBufferWaterMark(
+                        config.getWriteBufferLowWaterMark(), config.getWriteBufferHighWaterMark()));
+        if (config.getSendBufferSize() > 0) {
+            bootstrap.childOption(ChannelOption.SO_SNDBUF, config.getSendBufferSize());
+        }
+        if (config.getReceiveBufferSize() > 0) {
+            // 在监听socket上设置，接受的连接在握手时就使用该窗口
+            bootstrap.option(ChannelOption.SO_RCVBUF, config.getReceiveBufferSize());
+        }
+        transport.configure(bootstrap, acceptors > 1);
+        bootstrap.childHandler(new ChannelInitializer<SocketChannel>() {
+            @Override
+            protected void initChannel(SocketChannel channel) throws Exception {
+                if (config.getHeartbeatTimeout() > 0) {
+                    channel.pipeline().addLast(new IdleStateHandler(
+                            config.getHeartbeatTimeout(), 0, 0, TimeUnit.MILLISECONDS));
+                }
+                channel.pipeline().addLast(new DrpcTransferProtocolEncoder(config.getMaxRequestLength()));
+                channel.pipeline().addLast(new DrpcTransferProtocolDecoder(config.getMaxRequestLength()));
+                channel.pipeline().addLast(heartbeatHandler);
+                channel.pipeline().addLast(serverHandler);
+                if (Boolean.TRUE.equals(config.getFlushConsolidation())) {
+                    DrpcWriteBatcher.install(channel, config.getFlushMaxMessages());
+                }
+            }
+        });
+        for (int i = 0; i < acceptors; i++) {
+            bootstrap.bind(config.getPort()).sync();
+        }
+        if (logger.isDebugEnabled()) {
+            logger.debug("drpc server listening on port {} with {}, {} acceptor(s)",
+                    config.getPort(), transport.getClass().getSimpleName(), acceptors);
+        }
     }
 
     /**
@@ -117,6 +155,7 @@ public class DrpcServer {
                 context.getRegistryDataCache().remove(registryData.getServiceName());
                 // 删除本地缓存的服务提供者数据
                 context.getServiceProviderCache().remove(registryData.getServiceName());
+                context.getDispatchTable().unregister(registryData.getServiceName());
             } catch (Exception e) {
                 logger.error("register service failure, service name is {}, exception is {}", service, e.getMessage());
             }
@@ -132,8 +171,10 @@ public class DrpcServer {
         // 将当前服务名称写入
         threadPoolExecutor.submit(() -> {
             try {
-                // 首先将当前服务写入注册中心
                 DrpcProviderData registryData = getProviderRegistryData(service);
+                // 先构建服务方法的分发表，保证客户端发现服务时已经可以处理请求
+                context.getDispatchTable().register(registryData.getServiceName(), getServiceInterface(service), service);
+                // 将当前服务写入注册中心
                 context.getRegistry().register(registryData);
                 // 将当前服务写入本地缓存中
                 context.getRegistryDataCache().put(registryData.getServiceName(), registryData);
@@ -157,15 +198,17 @@ public class DrpcServer {
         return filterChain;
     }
 
-    private DrpcProviderData getProviderRegistryData(Object service) throws Exception {
-        // 首先将当前服务写入注册中心
+    private Class<?> getServiceInterface(Object service) throws DrpcClientException {
         Class<?>[] interfaces = service.getClass().getInterfaces();
         if (interfaces.length != 1) {
             logger.error("{} implement too many interface!", service);
             throw new DrpcClientException("implement too many interface");
         }
-        Class<?> clazz = interfaces[0];
-        String serviceName = clazz.getName();
+        return interfaces[0];
+    }
+
+    private DrpcProviderData getProviderRegistryData(Object service) throws Exception {
+        String serviceName = getServiceInterface(service).getName();
         DrpcProviderData registryData = new DrpcProviderData();
         registryData.setIp(DrpcCommonUtils.getCurrentMachineIp());
         registryData.setServiceName(serviceName);
@@ -174,6 +217,8 @@ public class DrpcServer {
         registryData.setApplicationName(config.getApplicationName());
         registryData.setAttr(DrpcAttributeName.TYPE.getDescription(), "provider");
         registryData.setAttr(DrpcAttributeName.CREATE_TIME.getDescription(), System.currentTimeMillis());
+        registryData.setAttr(DrpcAttributeName.PROTOCOL_VERSION.getDescription(), DrpcTransferProtocol.CURRENT_VERSION);
+        registryData.setAttr(DrpcAttributeName.WEIGHT.getDescription(), config.getWeight());
         return registryData;
     }
 }
@@ -1,7 +1,10 @@
 package com.github.xcfyl.drpc.core.server;
 
+import com.github.xcfyl.drpc.core.common.enums.DrpcDispatchType;
+import com.github.xcfyl.drpc.core.common.enums.DrpcLimiterType;
 import com.github.xcfyl.drpc.core.common.enums.DrpcRegistryType;
 import com.github.xcfyl.drpc.core.common.enums.DrpcSerializeType;
+import com.github.xcfyl.drpc.core.common.enums.DrpcTransportType;
 import lombok.Data;
 import lombok.ToString;
 
@@ -19,7 +22,7 @@ public class DrpcServerConfig {
      */
     private String applicationName;
     /**
-     * 最大请求长度
+     * 一个协议帧中body的最大长度，收发两个方向都会检查，收到超过该长度的帧时关闭连接
      */
     private Integer maxRequestLength;
     /**
@@ -38,4 +41,88 @@ public class DrpcServerConfig {
      * 服务端的监听端口号
      */
     private int port;
+    /**
+     * 写回的响应帧是否携带校验和
+     */
+    private Boolean protocolChecksum;
+    /**
+     * 服务方法执行的线程模型
+     */
+    private DrpcDispatchType dispatchType;
+    /**
+     * 业务线程数
+     */
+    private Integer businessThreads;
+    /**
+     * 业务线程池的队列长度
+     */
+    private Integer businessQueueSize;
+    /**
+     * 服务提供者的权重
+     */
+    private Integer weight;
+    /**
+     * 是否合并响应的flush
+     */
+    private Boolean flushConsolidation;
+    /**
+     * 合并flush时，每次flush最多包含的消息数
+     */
+    private Integer flushMaxMessages;
+    /**
+     * 读空闲多久之后认为连接失效，单位毫秒，0表示不检测
+     */
+    private Long heartbeatTimeout;
+    /**
+     * 并发限制器的类型
+     */
+    private DrpcLimiterType limiterType;
+    /**
+     * 是否每个服务使用独立的并发限制器
+     */
+    private Boolean limiterPerService;
+    /**
+     * 最大并发数
+     */
+    private Integer limiterMaxConcurrency;
+    /**
+     * 自适应限制器的初始并发数
+     */
+    private Integer limiterInitialConcurrency;
+    /**
+     * 响应的body达到多少字节时才压缩
+     */
+    private Integer compressThreshold;
+    /**
+     * 传输层的实现
+     */
+    private DrpcTransportType transportType;
+    /**
+     * 负责accept的线程数
+     */
+    private Integer bossThreads;
+    /**
+     * io线程数
+     */
+    private Integer workerThreads;
+    /**
+     * 监听socket的个数
+     */
+    private Integer acceptors;
+    /**
+     * 连接的SO_SNDBUF
+     */
+    private Integer sendBufferSize;
+    /**
+     * 连接的SO_RCVBUF
+     */
+    private Integer receiveBufferSize;
+    /**
+     * 写缓冲区的低水位线
+     */
+    private Integer writeBufferLowWaterMark;
+    /**
+     * 写缓冲区的高水位线
+     */
+    private Integer writeBufferHighWaterMark;
 }
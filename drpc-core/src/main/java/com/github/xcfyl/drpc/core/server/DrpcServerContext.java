@@ -1,5 +1,6 @@
 package com.github.xcfyl.drpc.core.server;
 
+import com.github.xcfyl.drpc.core.dispatcher.DrpcDispatcher;
 import com.github.xcfyl.drpc.core.filter.server.DrpcServerFilterChain;
 import com.github.xcfyl.drpc.core.registry.DrpcProviderData;
 import com.github.xcfyl.drpc.core.registry.DrpcRegistry;
@@ -23,6 +24,10 @@ public class DrpcServerContext {
      * 存放本地服务注册信息的缓存
      */
     private final Map<String, DrpcProviderData> registryDataCache = new ConcurrentHashMap<>();
+    /**
+     * 服务方法分发表
+     */
+    private final DrpcDispatchTable dispatchTable = new DrpcDispatchTable();
     /**
      * 服务端的缓存
      */
@@ -35,6 +40,10 @@ public class DrpcServerContext {
      * 服务端的过滤器
      */
     private DrpcServerFilterChain filterChain;
+    /**
+     * 请求分发器，所有连接共享
+     */
+    private DrpcDispatcher dispatcher;
     /**
      * 注册中心
      */
@@ -52,6 +61,10 @@ public class DrpcServerContext {
         return registryDataCache;
     }
 
+    public DrpcDispatchTable getDispatchTable() {
+        return dispatchTable;
+    }
+
     public DrpcServerConfig getServerConfig() {
         return serverConfig;
     }
@@ -76,6 +89,14 @@ public class DrpcServerContext {
         this.filterChain = filterChain;
     }
 
+    public DrpcDispatcher getDispatcher() {
+        return dispatcher;
+    }
+
+    public void setDispatcher(DrpcDispatcher dispatcher) {
+        this.dispatcher = dispatcher;
+    }
+
     public DrpcRegistry getRegistry() {
         return registry;
     }
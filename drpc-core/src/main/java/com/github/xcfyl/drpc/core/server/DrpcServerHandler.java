@@ -1,89 +1,213 @@
 package com.github.xcfyl.drpc.core.server;
 
-import com.alibaba.fastjson.JSON;
+import com.github.xcfyl.drpc.core.common.context.DrpcContext;
+import com.github.xcfyl.drpc.core.common.enums.DrpcLimiterType;
+import com.github.xcfyl.drpc.core.common.enums.DrpcMessageType;
+import com.github.xcfyl.drpc.core.common.enums.DrpcResponseStatus;
+import com.github.xcfyl.drpc.core.common.factory.DrpcLimiterFactory;
+import com.github.xcfyl.drpc.core.common.factory.DrpcSerializerFactory;
 import com.github.xcfyl.drpc.core.exception.DrpcRequestException;
+import com.github.xcfyl.drpc.core.limiter.DrpcConcurrencyLimiter;
+import com.github.xcfyl.drpc.core.protocol.DrpcLegacyProtocolCodec;
 import com.github.xcfyl.drpc.core.protocol.DrpcRequest;
 import com.github.xcfyl.drpc.core.protocol.DrpcResponse;
 import com.github.xcfyl.drpc.core.protocol.DrpcTransferProtocol;
 import com.github.xcfyl.drpc.core.serializer.DrpcSerializer;
+import com.github.xcfyl.drpc.core.transport.DrpcWriteBatcher;
 import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandler;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.ChannelInboundHandlerAdapter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.lang.reflect.Method;
-import java.util.concurrent.ArrayBlockingQueue;
-import java.util.concurrent.ThreadPoolExecutor;
+import java.util.Map;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeUnit;
 
 /**
- * rpc服务端处理器，负责处理请求
+ * rpc服务端处理器，负责处理请求，所有连接共享同一个实例
+ * 请求在IO线程中解码，服务方法交给DrpcDispatcher执行
+ * 开启并发限制时，超过并发上限或者分发器已满的请求直接写回OVERLOADED，不在IO线程中执行
  *
  * @author 西城风雨楼
  * @date create at 2023/6/22 10:19
  */
+@ChannelHandler.Sharable
 public class DrpcServerHandler extends ChannelInboundHandlerAdapter {
     private static final Logger logger = LoggerFactory.getLogger(DrpcServerHandler.class);
-    private final ThreadPoolExecutor executor = new ThreadPoolExecutor(8,
-            16,
-            30,
-            TimeUnit.MINUTES,
-            new ArrayBlockingQueue<>(3000),
-            new ThreadPoolExecutor.CallerRunsPolicy());
     private final DrpcServerContext rpcServerContext;
+    /**
+     * 所有服务共享的并发限制器，不限制并发或者每个服务独立限制时为null
+     */
+    private final DrpcConcurrencyLimiter globalLimiter;
+    /**
+     * 每个服务独立的并发限制器
+     */
+    private final Map<String, DrpcConcurrencyLimiter> serviceLimiters;
 
     public DrpcServerHandler(DrpcServerContext rpcServerContext) {
         this.rpcServerContext = rpcServerContext;
+        DrpcServerConfig config = rpcServerContext.getServerConfig();
+        if (config.getLimiterType() != DrpcLimiterType.NONE && Boolean.TRUE.equals(config.getLimiterPerService())) {
+            this.globalLimiter = null;
+            this.serviceLimiters = new ConcurrentHashMap<>();
+        } else {
+            this.globalLimiter = DrpcLimiterFactory.createLimiter(config);
+            this.serviceLimiters = null;
+        }
     }
 
     @Override
     public void channelRead(ChannelHandlerContext ctx, Object msg) throws Exception {
-        executor.submit(() -> {
-            DrpcSerializer serializer = rpcServerContext.getSerializer();
-            DrpcTransferProtocol protocol = (DrpcTransferProtocol) msg;
-            DrpcRequest request;
-            try {
-                request = serializer.deserialize(protocol.getBody(), DrpcRequest.class);
-            } catch (Exception e) {
-                logger.error("deserialize request failure, exception is {}", e.getMessage());
-                return;
+        DrpcTransferProtocol protocol = (DrpcTransferProtocol) msg;
+        DrpcRequest request;
+        // 在IO线程中完成反序列化，入站缓冲区可以尽快归还，并且分发时已经知道请求的服务名称
+        try {
+            request = decodeRequest(protocol);
+        } catch (Exception e) {
+            logger.error("deserialize request failure, exception is {}", e.getMessage());
+            writeStatus(ctx, protocol, DrpcResponseStatus.BAD_REQUEST);
+            return;
+        } finally {
+            protocol.release();
+        }
+        // 调用方传来的是剩余的等待时间，从收到请求开始计算本地的截止时间
+        long deadline = request.getTimeout() > 0
+                ? System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(request.getTimeout()) : 0;
+        DrpcConcurrencyLimiter limiter = getLimiter(request.getServiceName());
+        if (limiter != null && !limiter.tryAcquire()) {
+            if (logger.isDebugEnabled()) {
+                logger.debug("request {} rejected by limiter {}, service is {}",
+                        request.getId(), limiter, request.getServiceName());
             }
-            try {
-                // 执行过滤逻辑
-                rpcServerContext.getFilterChain().doFilter(request);
-                Object service = rpcServerContext.getServiceProviderCache().get(request.getServiceName());
-                Method[] methods = service.getClass().getDeclaredMethods();
-                Method targetMethod = null;
-                for (Method method : methods) {
-                    if (method.getName().equals(request.getMethodName())) {
-                        targetMethod = method;
-                        break;
+            writeStatus(ctx, protocol, DrpcResponseStatus.OVERLOADED);
+            return;
+        }
+        long admitTime = System.nanoTime();
+        try {
+            rpcServerContext.getDispatcher().dispatch(request.getServiceName(), () -> {
+                CompletionStage<?> pending = null;
+                try {
+                    pending = handleRequest(ctx, protocol, request, deadline);
+                } finally {
+                    if (pending == null) {
+                        release(limiter, admitTime, false);
+                    } else {
+                        pending.whenComplete((value, throwable) -> release(limiter, admitTime, false));
                     }
                 }
-                if (targetMethod == null) {
-                    throw new DrpcRequestException("unknown method");
-                }
+            });
+        } catch (RejectedExecutionException e) {
+            // 业务线程池已满，直接拒绝，调用方会换一个服务提供者
+            logger.error("request {} rejected by dispatcher, service is {}", request.getId(), request.getServiceName());
+            release(limiter, admitTime, true);
+            writeStatus(ctx, protocol, DrpcResponseStatus.OVERLOADED);
+        }
+    }
 
-                Object result = null;
-                try {
-                    if (targetMethod.getReturnType() == Void.TYPE) {
-                        targetMethod.invoke(service, request.getArgs());
+    private DrpcConcurrencyLimiter getLimiter(String serviceName) {
+        if (serviceLimiters == null) {
+            return globalLimiter;
+        }
+        DrpcConcurrencyLimiter limiter = serviceLimiters.get(serviceName);
+        if (limiter == null) {
+            limiter = serviceLimiters.computeIfAbsent(serviceName,
+                    key -> DrpcLimiterFactory.createLimiter(rpcServerContext.getServerConfig()));
+        }
+        return limiter;
+    }
+
+    private void release(DrpcConcurrencyLimiter limiter, long admitTime, boolean dropped) {
+        if (limiter != null) {
+            limiter.release(System.nanoTime() - admitTime, dropped);
+        }
+    }
+
+    /**
+     * 执行请求
+     *
+     * @return 服务方法是异步实现时返回其结果，请求在结果完成时才算处理结束，其余情况返回null
+     */
+    private CompletionStage<?> handleRequest(ChannelHandlerContext ctx, DrpcTransferProtocol protocol, DrpcRequest request,
+                               long deadline) {
+        DrpcContext context = new DrpcContext(deadline);
+        if (context.isExpired()) {
+            // 请求在队列中等待的时间已经超过了调用方的截止时间，调用方不会再使用结果，直接拒绝
+            if (logger.isDebugEnabled()) {
+                logger.debug("request {} deadline exceeded before invoke, service is {}",
+                        request.getId(), request.getServiceName());
+            }
+            writeStatus(ctx, protocol, DrpcResponseStatus.DEADLINE_EXCEEDED);
+            return null;
+        }
+        try {
+            // 执行过滤逻辑
+            rpcServerContext.getFilterChain().doFilter(request);
+            DrpcMethodInvoker invoker = rpcServerContext.getDispatchTable().lookup(request.getServiceName(),
+                    request.getMethodName(), request.getParameterTypes(), request.getArgs());
+            if (invoker == null) {
+                writeStatus(ctx, protocol, DrpcResponseStatus.NOT_FOUND);
+                return null;
+            }
+
+            Object result;
+            // 服务方法中发起的嵌套调用通过上下文继承截止时间
+            DrpcContext.setCurrent(context);
+            try {
+                result = invoker.invoke(request.getArgs());
+            } catch (Throwable e) {
+                throw new DrpcRequestException("method invoke failure", e);
+            } finally {
+                DrpcContext.removeCurrent();
+            }
+            if (result instanceof CompletionStage) {
+                // 服务方法是异步实现的，等结果完成之后再写回响应，不占用业务线程
+                long requestId = request.getId();
+                CompletionStage<?> stage = (CompletionStage<?>) result;
+                stage.whenComplete((value, throwable) -> {
+                    if (isDiscarded(context, request)) {
+                        return;
+                    }
+                    if (throwable != null) {
+                        writeFailure(ctx, protocol, requestId,
+                                new DrpcRequestException("method invoke failure", throwable));
                     } else {
-                        result = targetMethod.invoke(service, request.getArgs());
+                        writeSuccess(ctx, protocol, requestId, value);
                     }
-                } catch (Exception e) {
-                    throw new DrpcRequestException("method invoke failure", e);
-                }
-                DrpcResponse response = new DrpcResponse(request.getId(), result);
-                protocol = new DrpcTransferProtocol(JSON.toJSONString(response).getBytes());
-                ctx.writeAndFlush(protocol);
-            } catch (DrpcRequestException requestException) {
-                writeFailure(ctx, serializer, request.getId(), requestException);
-            } catch (Exception e) {
-                logger.error("rpc server, handle request failure, exception is {}", e.getMessage());
+                });
+                return stage;
             }
-        });
+            if (!isDiscarded(context, request)) {
+                writeSuccess(ctx, protocol, request.getId(), result);
+            }
+        } catch (DrpcRequestException requestException) {
+            if (!isDiscarded(context, request)) {
+                writeFailure(ctx, protocol, request.getId(), requestException);
+            }
+        } catch (Exception e) {
+            logger.error("rpc server, handle request failure, exception is {}", e.getMessage());
+        }
+        return null;
+    }
+
+    /**
+     * 执行结束时已经超过截止时间的请求，调用方已经放弃等待，不再写回响应
+     *
+     * @param context
+     * @param request
+     * @return
+     */
+    private boolean isDiscarded(DrpcContext context, DrpcRequest request) {
+        if (!context.isExpired()) {
+            return false;
+        }
+        if (logger.isDebugEnabled()) {
+            logger.debug("request {} deadline exceeded after invoke, discard response", request.getId());
+        }
+        return true;
     }
 
     @Override
@@ -95,17 +219,77 @@ public class DrpcServerHandler extends ChannelInboundHandlerAdapter {
         }
     }
 
-    private void writeFailure(ChannelHandlerContext ctx, DrpcSerializer serializer, String requestId, Throwable throwable) {
+    private DrpcRequest decodeRequest(DrpcTransferProtocol protocol) throws Exception {
+        if (protocol.getVersion() == DrpcTransferProtocol.VERSION_1) {
+            return DrpcLegacyProtocolCodec.decodeRequest(protocol);
+        }
+        // 使用请求帧中声明的序列化方式，响应也按照同样的方式序列化；方法参数直接按照服务方法的参数类型解码
+        DrpcSerializer serializer = DrpcSerializerFactory.getRpcSerializer(protocol.getSerializeType());
+        return serializer.deserializeRequest(protocol.getBody(), rpcServerContext.getDispatchTable()::getParameterTypes);
+    }
+
+    private void writeSuccess(ChannelHandlerContext ctx, DrpcTransferProtocol request, long requestId, Object result) {
+        try {
+            DrpcResponse response = new DrpcResponse(requestId, result);
+            writeResponse(ctx, request, response, DrpcResponseStatus.SUCCESS);
+        } catch (Exception e) {
+            logger.error("writeSuccess error -> {}", e.getMessage());
+        }
+    }
+
+    private void writeFailure(ChannelHandlerContext ctx, DrpcTransferProtocol request, long requestId, Throwable throwable) {
         try {
             // 如果方法出错了
             DrpcResponse response = new DrpcResponse();
             response.setId(requestId);
             response.setThrowable(throwable);
-            DrpcTransferProtocol transferProtocol = new DrpcTransferProtocol(serializer.serialize(response));
-            ctx.writeAndFlush(transferProtocol);
+            writeResponse(ctx, request, response, DrpcResponseStatus.FAILURE);
             logger.error("handle request failure -> {}", throwable.getMessage());
         } catch (Exception e) {
             logger.error("writeFailure error -> {}", e.getMessage());
         }
     }
+
+    private void writeResponse(ChannelHandlerContext ctx, DrpcTransferProtocol request, DrpcResponse response,
+                               DrpcResponseStatus status) throws Exception {
+        if (request.getVersion() == DrpcTransferProtocol.VERSION_1) {
+            DrpcWriteBatcher.writeAndFlush(ctx.channel(), DrpcLegacyProtocolCodec.createResponse(request, response));
+            return;
+        }
+        if (request.getMessageType() == DrpcMessageType.ONEWAY.getCode()) {
+            return;
+        }
+        // 响应在编码器中直接序列化到出站缓冲区
+        DrpcTransferProtocol protocol = new DrpcTransferProtocol((byte) DrpcMessageType.RESPONSE.getCode(),
+                request.getSerializeType(), request.getRequestId(), response);
+        protocol.setStatus((byte) status.getCode());
+        protocol.setChecksum(Boolean.TRUE.equals(rpcServerContext.getServerConfig().getProtocolChecksum()));
+        // 使用请求方声明的压缩方式，请求方一定能够解压
+        protocol.setCompressType(request.getCompressType());
+        protocol.setCompressThreshold(rpcServerContext.getServerConfig().getCompressThreshold());
+        DrpcWriteBatcher.writeAndFlush(ctx.channel(), protocol).addListener(future -> {
+            if (!future.isSuccess() && ctx.channel().isActive()) {
+                // 序列化失败时body没有写出，改为写回只有状态码的响应，避免客户端一直等到超时
+                logger.error("write response failure -> {}", future.cause().getMessage());
+                writeStatus(ctx, request, DrpcResponseStatus.SERVER_ERROR);
+            }
+        });
+    }
+
+    /**
+     * 直接写回只有状态码的响应，不需要序列化body
+     */
+    private void writeStatus(ChannelHandlerContext ctx, DrpcTransferProtocol request, DrpcResponseStatus status) {
+        if (request.getVersion() == DrpcTransferProtocol.VERSION_1) {
+            writeFailure(ctx, request, 0, new DrpcRequestException(status.getDescription()));
+            return;
+        }
+        if (request.getMessageType() == DrpcMessageType.ONEWAY.getCode()) {
+            return;
+        }
+        DrpcTransferProtocol protocol = new DrpcTransferProtocol((byte) DrpcMessageType.RESPONSE.getCode(),
+                request.getSerializeType(), request.getRequestId(), null);
+        protocol.setStatus((byte) status.getCode());
+        DrpcWriteBatcher.writeAndFlush(ctx.channel(), protocol);
+    }
 }
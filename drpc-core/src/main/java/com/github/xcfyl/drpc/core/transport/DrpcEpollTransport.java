@@ -0,0 +1,57 @@
+package com.github.xcfyl.drpc.core.transport;
+
+import io.netty.bootstrap.Bootstrap;
+import io.netty.bootstrap.ServerBootstrap;
+import io.netty.channel.Channel;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.ServerChannel;
+import io.netty.channel.epoll.EpollChannelOption;
+import io.netty.channel.epoll.EpollEventLoopGroup;
+import io.netty.channel.epoll.EpollMode;
+import io.netty.channel.epoll.EpollServerSocketChannel;
+import io.netty.channel.epoll.EpollSocketChannel;
+import io.netty.util.concurrent.DefaultThreadFactory;
+
+/**
+ * 基于linux本地epoll的传输层，使用边缘触发模式，连接上开启TCP_QUICKACK，
+ * 服务端可以通过SO_REUSEPORT让多个监听socket绑定同一个端口，避免单个accept线程成为瓶颈
+ *
+ * @author 西城风雨楼
+ */
+public class DrpcEpollTransport implements DrpcTransport {
+    @Override
+    public EventLoopGroup createEventLoopGroup(int threads, String name) {
+        return new EpollEventLoopGroup(Math.max(threads, 0), new DefaultThreadFactory(name));
+    }
+
+    @Override
+    public Class<? extends ServerChannel> getServerChannelClass() {
+        return EpollServerSocketChannel.class;
+    }
+
+    @Override
+    public Class<? extends Channel> getChannelClass() {
+        return EpollSocketChannel.class;
+    }
+
+    @Override
+    public boolean isReusePortSupported() {
+        return true;
+    }
+
+    @Override
+    public void configure(ServerBootstrap bootstrap, boolean reusePort) {
+        bootstrap.option(EpollChannelOption.EPOLL_MODE, EpollMode.EDGE_TRIGGERED)
+                .childOption(EpollChannelOption.EPOLL_MODE, EpollMode.EDGE_TRIGGERED)
+                .childOption(EpollChannelOption.TCP_QUICKACK, true);
+        if (reusePort) {
+            bootstrap.option(EpollChannelOption.SO_REUSEPORT, true);
+        }
+    }
+
+    @Override
+    public void configure(Bootstrap bootstrap) {
+        bootstrap.option(EpollChannelOption.EPOLL_MODE, EpollMode.EDGE_TRIGGERED)
+                .option(EpollChannelOption.TCP_QUICKACK, true);
+    }
+}
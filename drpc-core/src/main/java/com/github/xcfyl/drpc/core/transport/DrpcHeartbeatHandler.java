@@ -0,0 +1,90 @@
+package com.github.xcfyl.drpc.core.transport;
+
+import com.github.xcfyl.drpc.core.common.enums.DrpcMessageType;
+import com.github.xcfyl.drpc.core.protocol.DrpcTransferProtocol;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandler;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.handler.timeout.IdleState;
+import io.netty.handler.timeout.IdleStateEvent;
+import io.netty.util.AttributeKey;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * 心跳处理器，需要配合IdleStateHandler使用，客户端和服务端共享同一个实现
+ * 客户端在写空闲时发送心跳请求，服务端收到心跳请求之后立即写回心跳响应，
+ * 任意一端在读空闲超时之后关闭连接，由客户端的连接池负责重连；
+ * 服务端只对发送过心跳的客户端做读空闲检测
+ *
+ * @author 西城风雨楼
+ */
+@ChannelHandler.Sharable
+public class DrpcHeartbeatHandler extends ChannelInboundHandlerAdapter {
+    private static final Logger logger = LoggerFactory.getLogger(DrpcHeartbeatHandler.class);
+    /**
+     * 对端支持的协议版本，v1协议的对端不认识心跳帧，不发送心跳也不做空闲检测
+     */
+    public static final AttributeKey<Byte> PROTOCOL_VERSION_KEY = AttributeKey.valueOf("drpcProtocolVersion");
+
+    /**
+     * 是否为客户端，客户端主动发送心跳，服务端只回应心跳
+     */
+    private final boolean client;
+
+    public DrpcHeartbeatHandler(boolean client) {
+        this.client = client;
+    }
+
+    @Override
+    public void channelRead(ChannelHandlerContext ctx, Object msg) throws Exception {
+        DrpcTransferProtocol protocol = (DrpcTransferProtocol) msg;
+        if (protocol.getVersion() == DrpcTransferProtocol.VERSION_1
+                || protocol.getMessageType() != DrpcMessageType.HEARTBEAT.getCode()) {
+            ctx.fireChannelRead(msg);
+            return;
+        }
+        protocol.release();
+        if (!client) {
+            // 收到过心跳的客户端才会对其做读空闲检测，避免关闭不发送心跳的旧版本客户端
+            ctx.channel().attr(PROTOCOL_VERSION_KEY).set(protocol.getVersion());
+            DrpcWriteBatcher.writeAndFlush(ctx.channel(), createHeartbeat(protocol.getRequestId()));
+        }
+    }
+
+    @Override
+    public void userEventTriggered(ChannelHandlerContext ctx, Object evt) throws Exception {
+        if (!(evt instanceof IdleStateEvent)) {
+            ctx.fireUserEventTriggered(evt);
+            return;
+        }
+        Channel channel = ctx.channel();
+        if (!isHeartbeatSupported(channel)) {
+            return;
+        }
+        IdleState state = ((IdleStateEvent) evt).state();
+        if (state == IdleState.READER_IDLE) {
+            // 超过读空闲时间没有收到任何数据（包括心跳），认为连接已经失效
+            logger.error("connection {} heartbeat timeout, close it", channel);
+            ctx.close();
+        } else if (state == IdleState.WRITER_IDLE && client) {
+            DrpcWriteBatcher.writeAndFlush(channel, createHeartbeat(0));
+            if (logger.isDebugEnabled()) {
+                logger.debug("send heartbeat to {}", channel.remoteAddress());
+            }
+        }
+    }
+
+    private boolean isHeartbeatSupported(Channel channel) {
+        Byte version = channel.attr(PROTOCOL_VERSION_KEY).get();
+        if (version == null) {
+            return client;
+        }
+        return version != DrpcTransferProtocol.VERSION_1;
+    }
+
+    private DrpcTransferProtocol createHeartbeat(long requestId) {
+        return new DrpcTransferProtocol((byte) DrpcMessageType.HEARTBEAT.getCode(), (byte) 0, requestId, null);
+    }
+}
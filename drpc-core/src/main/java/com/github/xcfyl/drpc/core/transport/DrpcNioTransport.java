@@ -0,0 +1,46 @@
+package com.github.xcfyl.drpc.core.transport;
+
+import io.netty.bootstrap.Bootstrap;
+import io.netty.bootstrap.ServerBootstrap;
+import io.netty.channel.Channel;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.ServerChannel;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.socket.nio.NioServerSocketChannel;
+import io.netty.channel.socket.nio.NioSocketChannel;
+import io.netty.util.concurrent.DefaultThreadFactory;
+
+/**
+ * 基于jdk nio的传输层，所有平台都可用
+ *
+ * @author 西城风雨楼
+ */
+public class DrpcNioTransport implements DrpcTransport {
+    @Override
+    public EventLoopGroup createEventLoopGroup(int threads, String name) {
+        return new NioEventLoopGroup(Math.max(threads, 0), new DefaultThreadFactory(name));
+    }
+
+    @Override
+    public Class<? extends ServerChannel> getServerChannelClass() {
+        return NioServerSocketChannel.class;
+    }
+
+    @Override
+    public Class<? extends Channel> getChannelClass() {
+        return NioSocketChannel.class;
+    }
+
+    @Override
+    public boolean isReusePortSupported() {
+        return false;
+    }
+
+    @Override
+    public void configure(ServerBootstrap bootstrap, boolean reusePort) {
+    }
+
+    @Override
+    public void configure(Bootstrap bootstrap) {
+    }
+}
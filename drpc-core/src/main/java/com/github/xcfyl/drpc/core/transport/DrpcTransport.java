@@ -0,0 +1,50 @@
+package com.github.xcfyl.drpc.core.transport;
+
+import io.netty.bootstrap.Bootstrap;
+import io.netty.bootstrap.ServerBootstrap;
+import io.netty.channel.Channel;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.ServerChannel;
+
+/**
+ * 网络传输层的抽象，负责创建EventLoopGroup、提供Channel类型以及设置传输层特有的选项
+ * 服务端和客户端通过DrpcTransportFactory获取实现，不直接依赖nio或者epoll
+ *
+ * @author 西城风雨楼
+ */
+public interface DrpcTransport {
+    /**
+     * 创建EventLoopGroup
+     *
+     * @param threads 线程数，小于等于0时使用netty的默认值（cpu核数的2倍）
+     * @param name    线程名称的前缀
+     * @return
+     */
+    EventLoopGroup createEventLoopGroup(int threads, String name);
+
+    Class<? extends ServerChannel> getServerChannelClass();
+
+    Class<? extends Channel> getChannelClass();
+
+    /**
+     * 是否支持多个监听socket通过SO_REUSEPORT绑定同一个端口，由内核在它们之间分配新连接
+     *
+     * @return
+     */
+    boolean isReusePortSupported();
+
+    /**
+     * 设置服务端特有的传输层选项
+     *
+     * @param bootstrap
+     * @param reusePort 是否以SO_REUSEPORT的方式绑定端口
+     */
+    void configure(ServerBootstrap bootstrap, boolean reusePort);
+
+    /**
+     * 设置客户端特有的传输层选项
+     *
+     * @param bootstrap
+     */
+    void configure(Bootstrap bootstrap);
+}
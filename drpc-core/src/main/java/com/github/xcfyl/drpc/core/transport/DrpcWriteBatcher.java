@@ -0,0 +1,155 @@
+package com.github.xcfyl.drpc.core.transport;
+
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelPromise;
+import io.netty.util.AttributeKey;
+import io.netty.util.ReferenceCountUtil;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 合并写操作的flush，任意线程都可以写入，消息先进入队列
+ * 事件循环每次把队列中积攒的消息全部写出，最多每maxMessages条消息flush一次，同一批消息只触发一次系统调用
+ * 开启之后作为channel的属性保存，没有开启的channel仍然每条消息flush一次
+ *
+ * @author 西城风雨楼
+ */
+public class DrpcWriteBatcher {
+    private static final AttributeKey<DrpcWriteBatcher> BATCHER_KEY = AttributeKey.valueOf("drpcWriteBatcher");
+    /**
+     * 所有channel累计写出的消息数和flush次数
+     */
+    private static final LongAdder TOTAL_FRAMES = new LongAdder();
+    private static final LongAdder TOTAL_FLUSHES = new LongAdder();
+
+    private final Channel channel;
+    private final int maxMessages;
+    private final Queue<PendingWrite> pendingWrites = new ConcurrentLinkedQueue<>();
+    /**
+     * 是否已经向事件循环提交了写出任务
+     */
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+    private final AtomicLong frames = new AtomicLong();
+    private final AtomicLong flushes = new AtomicLong();
+    private final Runnable drainTask = this::drain;
+
+    private DrpcWriteBatcher(Channel channel, int maxMessages) {
+        this.channel = channel;
+        this.maxMessages = Math.max(maxMessages, 1);
+    }
+
+    /**
+     * 为channel开启flush合并
+     *
+     * @param channel     连接
+     * @param maxMessages 每次flush最多包含的消息数
+     */
+    public static void install(Channel channel, int maxMessages) {
+        channel.attr(BATCHER_KEY).set(new DrpcWriteBatcher(channel, maxMessages));
+    }
+
+    /**
+     * 写出消息，channel开启了flush合并时进入批量写出队列，否则直接writeAndFlush
+     *
+     * @param channel 连接
+     * @param msg     消息
+     * @return 写操作的结果
+     */
+    public static ChannelFuture writeAndFlush(Channel channel, Object msg) {
+        DrpcWriteBatcher batcher = channel.attr(BATCHER_KEY).get();
+        if (batcher == null) {
+            return channel.writeAndFlush(msg);
+        }
+        return batcher.write(msg);
+    }
+
+    public ChannelFuture write(Object msg) {
+        ChannelPromise promise = channel.newPromise();
+        pendingWrites.add(new PendingWrite(msg, promise));
+        if (scheduled.compareAndSet(false, true)) {
+            try {
+                channel.eventLoop().execute(drainTask);
+            } catch (RejectedExecutionException e) {
+                // 事件循环已经关闭，队列中的消息不可能再写出
+                scheduled.set(false);
+                failPendingWrites(e);
+            }
+        }
+        return promise;
+    }
+
+    private void drain() {
+        // 先清除标记再取数据，之后进入队列的消息会提交新的写出任务，不会被遗漏
+        scheduled.set(false);
+        int written = 0;
+        int unflushed = 0;
+        PendingWrite pendingWrite;
+        while ((pendingWrite = pendingWrites.poll()) != null) {
+            channel.write(pendingWrite.msg, pendingWrite.promise);
+            written++;
+            if (++unflushed == maxMessages) {
+                flush();
+                unflushed = 0;
+            }
+        }
+        if (unflushed > 0) {
+            flush();
+        }
+        frames.addAndGet(written);
+        TOTAL_FRAMES.add(written);
+    }
+
+    private void failPendingWrites(Throwable cause) {
+        PendingWrite pendingWrite;
+        while ((pendingWrite = pendingWrites.poll()) != null) {
+            ReferenceCountUtil.release(pendingWrite.msg);
+            pendingWrite.promise.tryFailure(cause);
+        }
+    }
+
+    private void flush() {
+        channel.flush();
+        flushes.incrementAndGet();
+        TOTAL_FLUSHES.increment();
+    }
+
+    /**
+     * 当前channel平均每次flush写出的消息数
+     */
+    public double getFramesPerFlush() {
+        long flushCount = flushes.get();
+        return flushCount == 0 ? 0 : (double) frames.get() / flushCount;
+    }
+
+    /**
+     * 所有开启了flush合并的channel平均每次flush写出的消息数
+     */
+    public static double getTotalFramesPerFlush() {
+        long flushCount = TOTAL_FLUSHES.sum();
+        return flushCount == 0 ? 0 : (double) TOTAL_FRAMES.sum() / flushCount;
+    }
+
+    public static long getTotalFrames() {
+        return TOTAL_FRAMES.sum();
+    }
+
+    public static long getTotalFlushes() {
+        return TOTAL_FLUSHES.sum();
+    }
+
+    private static class PendingWrite {
+        private final Object msg;
+        private final ChannelPromise promise;
+
+        private PendingWrite(Object msg, ChannelPromise promise) {
+            this.msg = msg;
+            this.promise = promise;
+        }
+    }
+}
@@ -20,11 +20,31 @@ public @interface DrpcReference {
      */
     boolean isSync() default true;
     /**
-     * 如果本次调用失败了，重试的次数，重试次数只对同步方法起作用
-     * 异步方法暂时不支持重试
+     * 如果本次调用失败了，重试的次数，非幂等方法只有在请求还没有发出时才会重试
      * @return
      */
     int retryTimes() default 1;
 
     long timeout() default 3000;
+
+    /**
+     * 集群容错策略：failover、failfast、failsafe、forking、hedging，为空时使用客户端配置
+     *
+     * @return
+     */
+    String cluster() default "";
+
+    /**
+     * 请求的压缩方式：none、deflate、snappy、lz4，为空时使用客户端配置
+     *
+     * @return
+     */
+    String compress() default "";
+
+    /**
+     * 请求的body达到多少字节时才压缩，小于0时使用客户端配置
+     *
+     * @return
+     */
+    int compressThreshold() default -1;
 }
@@ -3,6 +3,8 @@ package com.github.xcfyl.drpc.springboot.starter.processor;
 import com.github.xcfyl.drpc.core.client.DrpcClient;
 import com.github.xcfyl.drpc.core.client.DrpcRemoteReference;
 import com.github.xcfyl.drpc.core.client.DrpcServiceWrapper;
+import com.github.xcfyl.drpc.core.common.enums.DrpcClusterType;
+import com.github.xcfyl.drpc.core.common.enums.DrpcCompressType;
 import com.github.xcfyl.drpc.springboot.starter.annotation.DrpcReference;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -40,6 +42,15 @@ public class DrpcProxyFactoryBean<T> implements FactoryBean<T> {
         serviceWrapper.setTimeout(timeout);
         serviceWrapper.setServiceClass(clazz);
         serviceWrapper.setRetryTimes(retryTimes);
+        if (!reference.cluster().isEmpty()) {
+            serviceWrapper.setClusterType(DrpcClusterType.fromDescription(reference.cluster()));
+        }
+        if (!reference.compress().isEmpty()) {
+            serviceWrapper.setCompressType(DrpcCompressType.fromDescription(reference.compress()));
+        }
+        if (reference.compressThreshold() >= 0) {
+            serviceWrapper.setCompressThreshold(reference.compressThreshold());
+        }
         try {
             drpcClient.subscribeService(clazz.getName());
             return remoteReference.get(serviceWrapper);